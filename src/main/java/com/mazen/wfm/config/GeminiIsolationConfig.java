@@ -0,0 +1,48 @@
+package com.mazen.wfm.config;
+
+import com.mazen.wfm.services.GeminiIsolation;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class GeminiIsolationConfig {
+
+    private static final String NAME = "gemini";
+
+    // resilience4j.circuitbreaker.* (state, calls, not.permitted.calls) and resilience4j.bulkhead.* meters, tagged name=gemini
+    @Bean
+    public GeminiIsolation geminiIsolation(
+            MeterRegistry meterRegistry,
+            @Value("${gemini.bulkhead.max-concurrent-calls:8}") int maxConcurrentCalls,
+            @Value("${gemini.bulkhead.queue-capacity:16}") int queueCapacity,
+            @Value("${gemini.timeout:30s}") Duration timeout,
+            @Value("${gemini.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${gemini.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${gemini.circuit-breaker.wait-in-open-state:30s}") Duration waitInOpenState) {
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(10, slidingWindowSize))
+                .failureRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build());
+        ThreadPoolBulkheadRegistry bulkheads = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+                .maxThreadPoolSize(maxConcurrentCalls)
+                .coreThreadPoolSize(maxConcurrentCalls)
+                .queueCapacity(queueCapacity)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        return new GeminiIsolation(circuitBreakers.circuitBreaker(NAME), bulkheads.bulkhead(NAME), timeout);
+    }
+}
@@ -0,0 +1,37 @@
+package com.mazen.wfm.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mazen.wfm.metrics.SecondLevelCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Properties;
+
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final URI CACHE_CONFIG = URI.create("classpath:hibernate-cache.conf");
+
+    // Each session factory gets its own cache manager: Hibernate closes the manager when the session
+    // factory shuts down, and the JCache provider would otherwise hand the same one to every context in the JVM
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            ClassLoader classLoader = getClass().getClassLoader();
+            var provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName(), classLoader);
+            properties.put(ConfigSettings.CACHE_MANAGER,
+                    new CacheManagerImpl(provider, false, CACHE_CONFIG, classLoader, new Properties()));
+        };
+    }
+
+    @Bean
+    public SecondLevelCacheMetrics secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return new SecondLevelCacheMetrics(entityManagerFactory);
+    }
+}
@@ -0,0 +1,60 @@
+package com.mazen.wfm.config;
+
+import com.mazen.wfm.metrics.RequestQueryStatistics;
+import com.mazen.wfm.metrics.RequestQueryStatisticsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    // Hooks the per-request statement/entity-load counters into Hibernate
+    @Bean
+    public HibernatePropertiesCustomizer requestQueryStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, RequestQueryStatistics.STATEMENT_INSPECTOR);
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(new EntityLoadCountingIntegrator()));
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestQueryStatisticsFilter> requestQueryStatisticsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${wfm.sql.statement-budget.default:10}") int defaultStatementBudget) {
+        FilterRegistrationBean<RequestQueryStatisticsFilter> registration =
+                new FilterRegistrationBean<>(new RequestQueryStatisticsFilter(meterRegistry, defaultStatementBudget));
+        // before Spring Security (-100) so the JWT user lookup is part of the request's count
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static class EntityLoadCountingIntegrator implements Integrator {
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, RequestQueryStatistics.ENTITY_LOAD_LISTENER);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
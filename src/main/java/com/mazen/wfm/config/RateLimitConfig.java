@@ -0,0 +1,28 @@
+package com.mazen.wfm.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mazen.wfm.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    // wfm.ratelimit.requests (route, outcome) and wfm.ratelimit.buckets
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        return new RateLimitFilter(properties, meterRegistry, objectMapper);
+    }
+
+    // runs inside the security chain (SecurityConfig), after the JWT filter has set the user; not as a servlet filter too
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
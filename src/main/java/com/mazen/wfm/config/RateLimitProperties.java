@@ -0,0 +1,28 @@
+package com.mazen.wfm.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code wfm.rate-limit.*}: the routes limited by {@link com.mazen.wfm.security.RateLimitFilter}. Each route
+ * gets a bucket per client (the authenticated user, else the remote address) of {@code capacity} requests,
+ * refilled evenly over {@code period}. A route list set in a later property source replaces the whole list.
+ */
+@ConfigurationProperties("wfm.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        // most buckets kept at once; beyond it the least recently used go first
+        @DefaultValue("100000") long maxKeys,
+        // a bucket unused this long is full again anyway, so it can be dropped
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue List<Route> routes) {
+
+    /**
+     * @param pattern path pattern matched against the path within the application, e.g. {@code /api/tasks/tasks-advice/**}
+     * @param method  HTTP method to limit, or empty for all
+     */
+    public record Route(String name, String pattern, String method, int capacity, Duration period) {}
+}
@@ -0,0 +1,80 @@
+package com.mazen.wfm.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica pool and everything else (read-write
+ * transactions, work outside a transaction) to the primary. The transaction's read-only flag is only known
+ * once it has begun, so this must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * that asks for the connection at the first statement.
+ * <p>
+ * Read-your-writes: once a user's read-write transaction commits, that user's reads stay on the primary
+ * for a while, so they don't see their own change go missing while the replica catches up.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {PRIMARY, REPLICA}
+
+    // users with a recent write; bounded so a burst of writers can't grow it without limit
+    private static final long MAX_RECENT_WRITERS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+    private final MeterRegistry meterRegistry;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWritesWindow, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(MAX_RECENT_WRITERS)
+                .build();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive())
+            return route(Target.PRIMARY, "no_transaction");
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive())
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(user, Boolean.TRUE);
+                    }
+                });
+            return route(Target.PRIMARY, "write");
+        }
+        if (user != null && recentWriters.getIfPresent(user) != null)
+            return route(Target.PRIMARY, "read_your_writes");
+        return route(Target.REPLICA, "read");
+    }
+
+    private Target route(Target target, String reason) {
+        meterRegistry.counter(MetricNames.DATASOURCE_ROUTED,
+                MetricNames.TAG_TARGET, target.name().toLowerCase(), MetricNames.TAG_REASON, reason).increment();
+        return target;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken))
+            return authentication.getName();
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mazen.wfm.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code wfm.seed.*}: the synthetic dataset {@link com.mazen.wfm.services.DatasetSeeder} generates for load
+ * and performance testing. Counts are totals, not increments: seeding again tops the dataset up to them.
+ */
+@ConfigurationProperties("wfm.seed")
+public record SeedProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1000") int users,
+        @DefaultValue("100") int projects,
+        @DefaultValue("100000") long tasks,
+        @DefaultValue("50") int tags,
+        // share of tasks created as a subtask of an earlier task, and how deep subtasks nest
+        @DefaultValue("0.3") double subtaskRatio,
+        @DefaultValue("3") int subtaskDepth,
+        @DefaultValue("3") int maxAssignees,
+        @DefaultValue("3") int maxTags,
+        // average; each task gets between none and twice as many
+        @DefaultValue("2") int commentsPerTask,
+        // 0 spreads tasks, assignees and tags evenly; higher piles them onto the first projects, users and tags
+        @DefaultValue("1.0") double skew,
+        // tasks per transaction
+        @DefaultValue("5000") int batchSize,
+        // same seed, same dataset
+        @DefaultValue("42") long randomSeed) {}
@@ -0,0 +1,59 @@
+package com.mazen.wfm.config;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Extra wiring for the virtual-thread execution mode ({@code spring.threads.virtual.enabled=true}).
+ * Spring Boot itself moves Tomcat, {@code @Scheduled} jobs and the application task executor onto
+ * virtual threads; this puts a semaphore in front of the connection pool, since the worker pool no
+ * longer limits how many requests try to get a connection at once.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // the read/write router (ReadReplicaConfig) hands out connections of pools that are limited themselves
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource
+                        || bean instanceof LazyConnectionDataSourceProxy)
+                    return bean;
+                // each pool by its own size: the replica's is not the primary's (its properties are bound by now)
+                int poolSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize()
+                        : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                int maxConnections = environment.getProperty("wfm.datasource.max-connections", Integer.class, poolSize);
+                Duration timeout = environment.getProperty("wfm.datasource.permit-timeout", Duration.class, Duration.ofSeconds(30));
+                return new ConnectionLimitingDataSource(dataSource, maxConnections, timeout);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionPermitMetrics(DataSource dataSource) throws Exception {
+        ConnectionLimitingDataSource limiter = dataSource.unwrap(ConnectionLimitingDataSource.class);
+        return registry -> {
+            Gauge.builder(MetricNames.CONNECTION_PERMITS_AVAILABLE, limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Connection permits currently free")
+                    .register(registry);
+            Gauge.builder(MetricNames.CONNECTION_PERMITS_WAITING, limiter, ConnectionLimitingDataSource::getWaitingThreads)
+                    .description("Threads waiting for a connection permit")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.mazen.wfm.controllers;
+
+import com.mazen.wfm.dtos.response.ArchivedTaskResponse;
+import com.mazen.wfm.dtos.response.CommentResponse;
+import com.mazen.wfm.dtos.response.ResponseWrapper;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.dtos.response.Wrappers;
+import com.mazen.wfm.mapper.ArchiveMapper;
+import com.mazen.wfm.mapper.TaskMapper;
+import com.mazen.wfm.services.TaskArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static org.springframework.http.ResponseEntity.ok;
+
+@Tag(name = "Archive", description = "API for reading and restoring archived tasks")
+@RestController
+@RequestMapping("/api/archive")
+public class ArchiveController {
+
+    private final TaskArchiveService taskArchiveService;
+    private final ArchiveMapper archiveMapper;
+    private final TaskMapper taskMapper;
+
+    public ArchiveController(TaskArchiveService taskArchiveService, ArchiveMapper archiveMapper, TaskMapper taskMapper) {
+        this.taskArchiveService = taskArchiveService;
+        this.archiveMapper = archiveMapper;
+        this.taskMapper = taskMapper;
+    }
+
+    @Operation(summary = "get the archived tasks of a project with pagination")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "archived tasks retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperArchivedTaskList.class))),
+    })
+    @GetMapping("/projects/{projectId}/tasks")
+    public ResponseEntity<ResponseWrapper<Page<ArchivedTaskResponse>>> getArchivedTasksByProject(@PathVariable Long projectId, Pageable pageable) {
+        return ok(ResponseWrapper.success(taskArchiveService.getArchivedTasksByProject(projectId, pageable).map(archiveMapper::toResponse)));
+    }
+
+    @Operation(summary = "get an archived task by its id")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "archived task retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperArchivedTask.class))),
+            @ApiResponse(responseCode = "404", ref = "#/components/responses/NotFoundResponse")
+    })
+    @GetMapping("/tasks/{id}")
+    public ResponseEntity<ResponseWrapper<ArchivedTaskResponse>> getArchivedTask(@PathVariable Long id) {
+        return ok(ResponseWrapper.success(archiveMapper.toResponse(taskArchiveService.getArchivedTask(id))));
+    }
+
+    @Operation(summary = "get the comments of an archived task")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "comments retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperCommentList.class))),
+    })
+    @GetMapping("/tasks/{id}/comments")
+    public ResponseEntity<ResponseWrapper<List<CommentResponse>>> getArchivedComments(@PathVariable Long id) {
+        List<CommentResponse> comments = taskArchiveService.getArchivedComments(id).stream().map(archiveMapper::toResponse).toList();
+        return ok(ResponseWrapper.success(comments));
+    }
+
+    @Operation(summary = "move an archived task back to the live tasks",
+            description = "The task comes back with status DONE, with its assignees, tags and comments")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "task restored",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperTask.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse"),
+            @ApiResponse(responseCode = "404", ref = "#/components/responses/NotFoundResponse")
+    })
+    @PostMapping("/tasks/{id}/restore")
+    public ResponseEntity<ResponseWrapper<TaskResponse>> restoreTask(@PathVariable Long id) {
+        return ok(ResponseWrapper.success(taskMapper.toResponse(taskArchiveService.restore(id))));
+    }
+}
@@ -1,12 +1,17 @@
 package com.mazen.wfm.controllers;
 
 import com.mazen.wfm.dtos.request.CreateProjectRequest;
+import com.mazen.wfm.dtos.response.BurndownDayResponse;
+import com.mazen.wfm.dtos.response.CfdDayResponse;
 import com.mazen.wfm.dtos.request.UpdateProjectRequest;
 import com.mazen.wfm.dtos.response.ProjectResponse;
 import com.mazen.wfm.dtos.response.Wrappers;
 import com.mazen.wfm.mapper.ProjectMapper;
 import com.mazen.wfm.dtos.response.Wrappers.ResponseWrapperProject;
 import com.mazen.wfm.models.Project;
+import com.mazen.wfm.services.CoalescedReadService;
+import com.mazen.wfm.services.ProjectAnalyticsService;
+import com.mazen.wfm.services.ProjectEventBroker;
 import com.mazen.wfm.services.ProjectService;
 import com.mazen.wfm.dtos.response.ResponseWrapper;
 
@@ -19,10 +24,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -33,10 +41,17 @@ public class ProjectController {
 
     private final ProjectService projectService;
     private final ProjectMapper projectMapper;
+    private final CoalescedReadService coalescedReadService;
+    private final ProjectAnalyticsService projectAnalyticsService;
+    private final ProjectEventBroker projectEventBroker;
 
-    public ProjectController(ProjectService projectService, ProjectMapper projectMapper) {
+    public ProjectController(ProjectService projectService, ProjectMapper projectMapper, CoalescedReadService coalescedReadService,
+                             ProjectAnalyticsService projectAnalyticsService, ProjectEventBroker projectEventBroker) {
         this.projectService = projectService;
         this.projectMapper = projectMapper;
+        this.coalescedReadService = coalescedReadService;
+        this.projectAnalyticsService = projectAnalyticsService;
+        this.projectEventBroker = projectEventBroker;
     }
 
     @Operation(summary = "get a project using project id")
@@ -48,7 +63,8 @@ public class ProjectController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<ResponseWrapper<ProjectResponse>> getProject(@PathVariable Long id) {
-        ProjectResponse projectResponse = projectMapper.toResponse(projectService.getProjectById(id));
+        // concurrent requests for the same project share one load
+        ProjectResponse projectResponse = coalescedReadService.getProject(id);
         return ResponseEntity.ok(ResponseWrapper.success(projectResponse));
     }
     @Operation(summary = "search for projects using project name")
@@ -114,4 +130,49 @@ public class ProjectController {
         projectService.deleteProject(username, id);
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "cumulative flow of a project: its tasks per status at the end of each day from 'from' to 'to' (default: the last 30 days)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One entry per day, today counted live",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperCfd.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse"),
+            @ApiResponse(responseCode = "404", ref = "#/components/responses/NotFoundResponse")
+    })
+    @GetMapping("/{id}/analytics/cfd")
+    public ResponseEntity<ResponseWrapper<List<CfdDayResponse>>> getCumulativeFlow(@PathVariable Long id,
+                                                                                   @RequestParam(required = false) LocalDate from,
+                                                                                   @RequestParam(required = false) LocalDate to) {
+        return ResponseEntity.ok(ResponseWrapper.success(projectAnalyticsService.getCumulativeFlow(id, from, to)));
+    }
+
+    @Operation(summary = "burndown of a project: open against finished tasks at the end of each day from 'from' to 'to' (default: the last 30 days)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One entry per day, today counted live",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperBurndown.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse"),
+            @ApiResponse(responseCode = "404", ref = "#/components/responses/NotFoundResponse")
+    })
+    @GetMapping("/{id}/analytics/burndown")
+    public ResponseEntity<ResponseWrapper<List<BurndownDayResponse>>> getBurndown(@PathVariable Long id,
+                                                                                 @RequestParam(required = false) LocalDate from,
+                                                                                 @RequestParam(required = false) LocalDate to) {
+        return ResponseEntity.ok(ResponseWrapper.success(projectAnalyticsService.getBurndown(id, from, to)));
+    }
+
+    @Operation(summary = "stream the project's task and comment changes as Server-Sent Events",
+            description = "Events: task_created, task_updated, task_deleted, task_assigned, comment_added, comment_deleted, " +
+                    "project_updated, project_deleted (the stream ends), and resync when the client fell behind and events were dropped: " +
+                    "reload the project's tasks. Load the tasks once after subscribing; nothing is replayed.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Event stream",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "404", ref = "#/components/responses/NotFoundResponse")
+    })
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable Long id) {
+        projectService.getProjectById(id);
+        return projectEventBroker.subscribe(id);
+    }
 }
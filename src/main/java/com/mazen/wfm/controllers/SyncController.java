@@ -0,0 +1,51 @@
+package com.mazen.wfm.controllers;
+
+import com.mazen.wfm.dtos.response.ResponseWrapper;
+import com.mazen.wfm.dtos.response.SyncResponse;
+import com.mazen.wfm.dtos.response.Wrappers;
+import com.mazen.wfm.services.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+import static org.springframework.http.ResponseEntity.ok;
+
+@Tag(name = "Sync", description = "API for keeping a client copy of projects up to date")
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    @Operation(summary = "get what changed in some projects since a cursor",
+            description = "Returns the current state of every project, task and comment changed after since (0 for " +
+                    "everything still logged), and the ids of those deleted, at most limit changes per call. Pass cursor " +
+                    "back as since; while hasMore is true there is another page right away. Rows changed in the last " +
+                    "seconds may come again on the next call.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "changes retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperSync.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse")
+    })
+    @GetMapping
+    public ResponseEntity<ResponseWrapper<SyncResponse>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                                    @RequestParam Set<Long> projects,
+                                                                    @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return ok(ResponseWrapper.success(syncService.getChanges(since, projects, pageSize)));
+    }
+}
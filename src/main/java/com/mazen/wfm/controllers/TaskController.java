@@ -1,16 +1,23 @@
 package com.mazen.wfm.controllers;
 
-import com.mazen.wfm.dtos.request.TaskAdviceRequest;
+import com.mazen.wfm.dtos.TaskInboxFilter;
+import com.mazen.wfm.dtos.TaskQueryFilter;
+import com.mazen.wfm.dtos.request.BulkTaskLinksRequest;
 import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.dtos.response.BulkTaskLinksResponse;
 import com.mazen.wfm.dtos.response.ResponseWrapper;
+import com.mazen.wfm.dtos.response.TaskInboxResponse;
+import com.mazen.wfm.dtos.response.TaskPageResponse;
 import com.mazen.wfm.dtos.response.TaskResponse;
 import com.mazen.wfm.dtos.response.Wrappers;
-import com.mazen.wfm.exceptions.ResourceNotFoundException;
 import com.mazen.wfm.mapper.TaskMapper;
 import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Priority;
 import com.mazen.wfm.models.Status;
 import com.mazen.wfm.models.Task;
+import com.mazen.wfm.services.CoalescedReadService;
 import com.mazen.wfm.services.GeminiService;
+import com.mazen.wfm.services.TaskAdviceService;
 import com.mazen.wfm.services.TaskService;
 import com.mazen.wfm.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,15 +26,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.http.ResponseEntity.*;
 
@@ -36,18 +51,26 @@ import static org.springframework.http.ResponseEntity.*;
 @RequestMapping("/api/tasks")
 public class TaskController {
 
+    private static final int MAX_NEXT_TASKS = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TaskService taskService;
+    private final CoalescedReadService coalescedReadService;
     private final TaskMapper taskMapper;
-//    private final GeminiService geminiService;
+    private final TaskAdviceService taskAdviceService;
     private final UserService userService;
+    private final Duration adviceStreamTimeout;
 
-    public TaskController(TaskService taskService, TaskMapper taskMapper,
-//                          GeminiService geminiService,
-                          UserService userService) {
+    public TaskController(TaskService taskService, CoalescedReadService coalescedReadService, TaskMapper taskMapper,
+                          TaskAdviceService taskAdviceService,
+                          UserService userService,
+                          @Value("${gemini.advice.stream.timeout:2m}") Duration adviceStreamTimeout) {
         this.taskService = taskService;
+        this.coalescedReadService = coalescedReadService;
         this.taskMapper = taskMapper;
-//        this.geminiService = geminiService;
+        this.taskAdviceService = taskAdviceService;
         this.userService = userService;
+        this.adviceStreamTimeout = adviceStreamTimeout;
     }
 
     @Operation(summary = "get a certain task data by its id")
@@ -58,8 +81,8 @@ public class TaskController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<ResponseWrapper<TaskResponse>> getTask(@PathVariable Long id) {
-        Task task = taskService.getTaskById(id);
-        return ok(ResponseWrapper.success(taskMapper.toResponse(task)));
+        // concurrent requests for the same task share one load
+        return ok(ResponseWrapper.success(coalescedReadService.getTask(id)));
     }
 
 
@@ -87,7 +110,8 @@ public class TaskController {
         return ok(ResponseWrapper.success(tasks));
     }
 
-    @Operation(summary = "get tasks of a certain user")
+    @Operation(summary = "get tasks of a certain user",
+            description = "Unpaged; for users with many assignments use GET /api/tasks/my/inbox")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "tasks retrieved",
                     content = @Content(mediaType = "application/json",
@@ -99,6 +123,76 @@ public class TaskController {
         return ok(ResponseWrapper.success(tasks));
     }
 
+    @Operation(summary = "get the current user's open tasks to work on next",
+            description = "Ranked locally by priority, due date, subtask relationships and assignee count, best first")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "tasks retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperTaskList.class))),
+    })
+    @GetMapping("/my/next")
+    public ResponseEntity<ResponseWrapper<List<TaskResponse>>> getMyNextTasks(Authentication authentication,
+                                                                             @RequestParam(defaultValue = "5") int limit) {
+        AppUser user = userService.findByUsername(authentication.getName());
+        int k = Math.max(1, Math.min(limit, MAX_NEXT_TASKS));
+        List<TaskResponse> tasks = taskService.getNextTasks(user.getUserId(), k).stream().map(taskMapper::toResponse).toList();
+        return ok(ResponseWrapper.success(tasks));
+    }
+
+    @Operation(summary = "get a page of the current user's assigned tasks",
+            description = "Filtered by status, priority, due date range and project; sorted by due date (undated last) or " +
+                    "priority (most urgent first). Pass nextCursor back as cursor for the next page, with the same sort.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "tasks retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperTaskInbox.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse")
+    })
+    @GetMapping("/my/inbox")
+    public ResponseEntity<ResponseWrapper<TaskInboxResponse>> getMyInbox(Authentication authentication,
+                                                                         @RequestParam(required = false) Set<Status> status,
+                                                                         @RequestParam(required = false) Set<Priority> priority,
+                                                                         @RequestParam(required = false) LocalDate dueFrom,
+                                                                         @RequestParam(required = false) LocalDate dueTo,
+                                                                         @RequestParam(required = false) Long projectId,
+                                                                         @RequestParam(defaultValue = "DUE_DATE") TaskInboxFilter.Sort sort,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(defaultValue = "20") int size) {
+        AppUser user = userService.findByUsername(authentication.getName());
+        TaskInboxFilter filter = new TaskInboxFilter(status, priority, dueFrom, dueTo, projectId, sort);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ok(ResponseWrapper.success(taskService.getInbox(user.getUserId(), filter, cursor, pageSize)));
+    }
+
+    @Operation(summary = "query tasks with combined filters",
+            description = "All filters are optional and combined with AND: status, priority, due date range, project, " +
+                    "tag (any of, or all of with allTags=true), assignee, parent task and text (in title or description). Sorted by due date (undated " +
+                    "last) or priority; pass nextCursor back as cursor for the next page, with the same sort.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "tasks retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperTaskPage.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse")
+    })
+    @GetMapping("/query")
+    public ResponseEntity<ResponseWrapper<TaskPageResponse>> queryTasks(@RequestParam(required = false) Set<Status> status,
+                                                                       @RequestParam(required = false) Set<Priority> priority,
+                                                                       @RequestParam(required = false) LocalDate dueFrom,
+                                                                       @RequestParam(required = false) LocalDate dueTo,
+                                                                       @RequestParam(required = false) Long projectId,
+                                                                       @RequestParam(required = false) Set<Long> tag,
+                                                                       @RequestParam(defaultValue = "false") boolean allTags,
+                                                                       @RequestParam(required = false) Long assigneeId,
+                                                                       @RequestParam(required = false) Long parentId,
+                                                                       @RequestParam(required = false) String q,
+                                                                       @RequestParam(defaultValue = "DUE_DATE") TaskInboxFilter.Sort sort,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(defaultValue = "20") int size) {
+        TaskQueryFilter filter = new TaskQueryFilter(status, priority, dueFrom, dueTo, projectId, tag, allTags, assigneeId, parentId, q, sort);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ok(ResponseWrapper.success(taskService.queryTasks(filter, cursor, pageSize)));
+    }
+
     @Operation(summary = "Create a task related to a certain project")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "task created",
@@ -125,24 +219,47 @@ public class TaskController {
         return ResponseEntity.ok(ResponseWrapper.success(taskMapper.toResponse(task)));
     }
 
-//    @Operation(summary = "get advice of current tasks from gemini api")
-//    @ApiResponses({
-//            @ApiResponse(responseCode = "200", description = "Tasks Advice received",
-//                    content = @Content(mediaType = "application/json",
-//                            schema = @Schema(implementation = ResponseWrapper.class))),
-//    })
-//    @PostMapping("/tasks-advice")
-//    public ResponseEntity<ResponseWrapper<String>> getTasksAdvice (Authentication authentication) {
-//        String username = authentication.getName();
-//        AppUser user = userService.findByUsername(username);
-//        List<Status> statuses = List.of(Status.TODO, Status.IN_PROGRESS);
-//        List<TaskResponse> tasksResponses = taskService.getTasksByUserAndStatus(user.getUserId(), statuses).stream().map(taskMapper::toResponse).toList();
-//        List<TaskAdviceRequest> tasks = taskMapper.toTaskAdviceRequestList(tasksResponses);
-//        if (tasks.isEmpty())
-//            throw new ResourceNotFoundException("No tasks found");
-//        String message = geminiService.manageTasks(tasks);
-//        return ok(ResponseWrapper.success(message));
-//    }
+    @Operation(summary = "get advice of current tasks from gemini api",
+            description = "Served asynchronously; answered from the nightly precomputed advice or the cache while the task set is unchanged")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks Advice received",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseWrapper.class))),
+    })
+    @PostMapping("/tasks-advice")
+    public CompletableFuture<ResponseEntity<ResponseWrapper<String>>> getTasksAdvice(Authentication authentication) {
+        AppUser user = userService.findByUsername(authentication.getName());
+        return taskAdviceService.advise(user.getUserId())
+                .thenApply(message -> ok(ResponseWrapper.success(message)));
+    }
+
+    @Operation(summary = "stream advice of current tasks from gemini api",
+            description = "Server-Sent Events: 'chunk' events carry the advice as it is generated, then a single 'done' or 'error' event")
+    @GetMapping(value = "/tasks-advice/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTasksAdvice(Authentication authentication) {
+        AppUser user = userService.findByUsername(authentication.getName());
+        SseEmitter emitter = new SseEmitter(adviceStreamTimeout.toMillis());
+        CompletableFuture<Void> streaming = taskAdviceService.streamAdvice(user.getUserId(),
+                chunk -> emitter.send(SseEmitter.event().name("chunk").data(chunk)));
+        streaming.whenComplete((ignored, e) -> {
+            if (streaming.isCancelled())
+                return;
+            try {
+                emitter.send(e == null
+                        ? SseEmitter.event().name("done").data("")
+                        : SseEmitter.event().name("error").data(GeminiService.ERROR_MESSAGE));
+                emitter.complete();
+            } catch (IOException | IllegalStateException sendFailure) {
+                // client already gone
+                emitter.completeWithError(sendFailure);
+            }
+        });
+        // client disconnected or timed out: stop the model call
+        emitter.onCompletion(() -> streaming.cancel(true));
+        emitter.onTimeout(() -> streaming.cancel(true));
+        emitter.onError(e -> streaming.cancel(true));
+        return emitter;
+    }
 
     @Operation(summary = "Assign User to a task")
     @ApiResponses({
@@ -157,6 +274,34 @@ public class TaskController {
         return ResponseEntity.ok(ResponseWrapper.success(taskMapper.toResponse(task)));
     }
 
+    @Operation(summary = "Assign users to / unassign users from many tasks at once",
+            description = "Removals are applied first; unknown task or user ids are skipped")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "assignments updated",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperBulkTaskLinks.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse")
+    })
+    @PostMapping("/bulk/assignees")
+    public ResponseEntity<ResponseWrapper<BulkTaskLinksResponse>> bulkUpdateAssignees(@Valid @RequestBody BulkTaskLinksRequest request) {
+        BulkTaskLinksResponse response = taskService.updateAssignees(request.taskIds(), request.add(), request.remove());
+        return ok(ResponseWrapper.success(response));
+    }
+
+    @Operation(summary = "Add tags to / remove tags from many tasks at once",
+            description = "Removals are applied first; unknown task or tag ids are skipped")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "tags updated",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Wrappers.ResponseWrapperBulkTaskLinks.class))),
+            @ApiResponse(responseCode = "400", ref = "#/components/responses/BadRequestResponse")
+    })
+    @PostMapping("/bulk/tags")
+    public ResponseEntity<ResponseWrapper<BulkTaskLinksResponse>> bulkUpdateTags(@Valid @RequestBody BulkTaskLinksRequest request) {
+        BulkTaskLinksResponse response = taskService.updateTags(request.taskIds(), request.add(), request.remove());
+        return ok(ResponseWrapper.success(response));
+    }
+
     @Operation(summary = "Update task data")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "task updated",
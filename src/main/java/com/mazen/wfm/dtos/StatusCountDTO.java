@@ -0,0 +1,13 @@
+package com.mazen.wfm.dtos;
+
+import com.mazen.wfm.models.Status;
+
+import java.time.LocalDate;
+
+// A number of a project's tasks in (or moving into / out of) a status, on a day when day is set
+public record StatusCountDTO(Long projectId, LocalDate day, Status status, Long tasks) {
+
+    public StatusCountDTO(Long projectId, Status status, Long tasks) {
+        this(projectId, null, status, tasks);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mazen.wfm.dtos;
+
+import com.mazen.wfm.exceptions.BusinessException;
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position after the last task of an inbox or task query page: its sort keys (due date, with undated tasks sorting as
+ * {@link #UNDATED}, and {@link #rank priority rank}) and its id as the tie-breaker. Sent to clients as an
+ * opaque string that is only valid with the sort it was issued for.
+ */
+public record TaskInboxCursor(TaskInboxFilter.Sort sort, LocalDate dueDate, int priorityRank, long taskId) {
+
+    // stands in for a missing due date, so undated tasks sort last and keyset comparisons need no NULL cases
+    public static final LocalDate UNDATED = LocalDate.of(9999, 12, 31);
+
+    public static TaskInboxCursor after(TaskInboxFilter.Sort sort, Task task) {
+        return new TaskInboxCursor(sort, task.getDueDate() == null ? UNDATED : task.getDueDate(),
+                rank(task.getPriority()), task.getTaskId());
+    }
+
+    // higher is more urgent; the inbox query computes the same with a CASE over the priorities
+    public static int rank(Priority priority) {
+        return priority == null ? -1 : priority.ordinal();
+    }
+
+    public String encode() {
+        String raw = sort + "|" + dueDate + "|" + priorityRank + "|" + taskId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskInboxCursor decode(String cursor, TaskInboxFilter.Sort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            TaskInboxCursor decoded = new TaskInboxCursor(TaskInboxFilter.Sort.valueOf(parts[0]), LocalDate.parse(parts[1]),
+                    Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+            if (decoded.sort() == sort)
+                return decoded;
+        } catch (RuntimeException e) {
+            // reported below
+        }
+        throw new BusinessException("Invalid cursor for this sort");
+    }
+}
@@ -0,0 +1,19 @@
+package com.mazen.wfm.dtos;
+
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+// Inbox filters; null or empty means "any". Due dates are inclusive and leave out undated tasks when set.
+public record TaskInboxFilter(Set<Status> statuses, Set<Priority> priorities, LocalDate dueFrom, LocalDate dueTo,
+                              Long projectId, Sort sort) {
+
+    public enum Sort {
+        // soonest due first, undated last
+        DUE_DATE,
+        // most urgent first, then by due date
+        PRIORITY
+    }
+}
@@ -0,0 +1,7 @@
+package com.mazen.wfm.dtos;
+
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+
+// One task with one of its tags and one of its assignees (either null when it has none), as TaskBitmapIndex reads them
+public record TaskIndexDTO(Long taskId, Status status, Priority priority, Long tagId, Long userId) {}
@@ -0,0 +1,4 @@
+package com.mazen.wfm.dtos;
+
+// A task id with the id of its project, for writes that only have task ids at hand
+public record TaskProjectDTO(Long taskId, Long projectId) {}
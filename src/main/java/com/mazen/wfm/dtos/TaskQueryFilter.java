@@ -0,0 +1,14 @@
+package com.mazen.wfm.dtos;
+
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+// Task query filters, all combined with AND; null or empty means "any". Due dates are inclusive and leave out
+// undated tasks when set, tagIds matches tasks with any of the tags (all of them with allTags), text is a
+// case-insensitive substring of the title or description.
+public record TaskQueryFilter(Set<Status> statuses, Set<Priority> priorities, LocalDate dueFrom, LocalDate dueTo,
+                              Long projectId, Set<Long> tagIds, boolean allTags, Long assigneeId, Long parentTaskId, String text,
+                              TaskInboxFilter.Sort sort) {}
@@ -0,0 +1,10 @@
+package com.mazen.wfm.dtos;
+
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+
+import java.time.LocalDate;
+
+// What TaskPrioritizer needs to know about a task assigned to userId, read in one query instead of loading the entities
+public record TaskRankingDTO(Long userId, Long taskId, Priority priority, LocalDate dueDate, Status parentStatus,
+                                     Long openSubtasks, Integer assignees) {}
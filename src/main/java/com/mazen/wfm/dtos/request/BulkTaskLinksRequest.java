@@ -0,0 +1,17 @@
+package com.mazen.wfm.dtos.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.Set;
+
+// Ids (users or tags) to link to / unlink from every task in taskIds; removals are applied first
+public record BulkTaskLinksRequest(
+        @NotEmpty(message = "Task ids are required")
+        @Size(max = 1000, message = "At most 1000 tasks per request")
+        Set<Long> taskIds,
+        @Size(max = 100, message = "At most 100 ids to add per request")
+        Set<Long> add,
+        @Size(max = 100, message = "At most 100 ids to remove per request")
+        Set<Long> remove
+) {}
@@ -0,0 +1,24 @@
+package com.mazen.wfm.dtos.response;
+
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public record ArchivedTaskResponse(
+        Long taskId,
+        String title,
+        String description,
+        Status status,
+        Priority priority,
+        LocalDate dueDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime archivedAt,
+        Long projectId,
+        Long parentTaskId,
+        Set<Long> assigneeIds,
+        Set<Long> tagIds
+) {}
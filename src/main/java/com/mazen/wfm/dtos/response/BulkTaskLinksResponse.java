@@ -0,0 +1,4 @@
+package com.mazen.wfm.dtos.response;
+
+// Number of task links (task_assignments / task_tags rows) actually created and deleted
+public record BulkTaskLinksResponse(int added, int removed) {}
@@ -0,0 +1,6 @@
+package com.mazen.wfm.dtos.response;
+
+import java.time.LocalDate;
+
+// One day of a burndown: open (TODO / IN_PROGRESS) against finished (DONE / ARCHIVED) tasks at the end of the day
+public record BurndownDayResponse(LocalDate day, long remaining, long completed) {}
@@ -0,0 +1,9 @@
+package com.mazen.wfm.dtos.response;
+
+import com.mazen.wfm.models.Status;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// One day of a cumulative flow diagram: the project's tasks per status at the end of the day (so far, for today)
+public record CfdDayResponse(LocalDate day, Map<Status, Long> tasks) {}
@@ -0,0 +1,6 @@
+package com.mazen.wfm.dtos.response;
+
+import com.mazen.wfm.models.ChangeLogEntry;
+
+// Tombstone in a sync page: the row is gone (for a task or project, with the comments / tasks under it)
+public record SyncDeletion(ChangeLogEntry.EntityType type, Long id) {}
@@ -0,0 +1,12 @@
+package com.mazen.wfm.dtos.response;
+
+import java.util.List;
+
+// One page of GET /api/sync: the latest state of every row changed in it, and the rows deleted. Pass cursor
+// as since on the next call; hasMore means the next page is ready now rather than after the next change.
+public record SyncResponse(List<ProjectResponse> projects,
+                           List<TaskResponse> tasks,
+                           List<CommentResponse> comments,
+                           List<SyncDeletion> deleted,
+                           long cursor,
+                           boolean hasMore) {}
@@ -0,0 +1,7 @@
+package com.mazen.wfm.dtos.response;
+
+import java.util.List;
+
+// One page of the user's inbox; nextCursor is null on the last page. openTasks counts all the user's open
+// (TODO / IN_PROGRESS) tasks, whatever the filter.
+public record TaskInboxResponse(List<TaskResponse> tasks, String nextCursor, long openTasks) {}
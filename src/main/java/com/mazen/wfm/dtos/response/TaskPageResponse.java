@@ -0,0 +1,6 @@
+package com.mazen.wfm.dtos.response;
+
+import java.util.List;
+
+// One page of a task query; nextCursor is null on the last page
+public record TaskPageResponse(List<TaskResponse> tasks, String nextCursor) {}
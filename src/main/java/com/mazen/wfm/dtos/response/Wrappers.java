@@ -38,5 +38,40 @@ public class Wrappers {
                 arraySchema = @Schema(description = "payload data"))
         private List<TaskResponse> data;
     }
+    public static class ResponseWrapperBulkTaskLinks extends ResponseWrapper<BulkTaskLinksResponse> {
+        @Schema(description = "payload data", implementation = BulkTaskLinksResponse.class)
+        private BulkTaskLinksResponse data;
+    }
+    public static class ResponseWrapperTaskInbox extends ResponseWrapper<TaskInboxResponse> {
+        @Schema(description = "payload data", implementation = TaskInboxResponse.class)
+        private TaskInboxResponse data;
+    }
+    public static class ResponseWrapperTaskPage extends ResponseWrapper<TaskPageResponse> {
+        @Schema(description = "payload data", implementation = TaskPageResponse.class)
+        private TaskPageResponse data;
+    }
+    public static class ResponseWrapperArchivedTask extends ResponseWrapper<ArchivedTaskResponse> {
+        @Schema(description = "payload data", implementation = ArchivedTaskResponse.class)
+        private ArchivedTaskResponse data;
+    }
+    public static class ResponseWrapperArchivedTaskList extends ResponseWrapper<List<ArchivedTaskResponse>> {
+        @ArraySchema(schema = @Schema(implementation = ArchivedTaskResponse.class),
+                arraySchema = @Schema(description = "payload data"))
+        private List<ArchivedTaskResponse> data;
+    }
+    public static class ResponseWrapperCfd extends ResponseWrapper<List<CfdDayResponse>> {
+        @ArraySchema(schema = @Schema(implementation = CfdDayResponse.class),
+                arraySchema = @Schema(description = "payload data"))
+        private List<CfdDayResponse> data;
+    }
+    public static class ResponseWrapperBurndown extends ResponseWrapper<List<BurndownDayResponse>> {
+        @ArraySchema(schema = @Schema(implementation = BurndownDayResponse.class),
+                arraySchema = @Schema(description = "payload data"))
+        private List<BurndownDayResponse> data;
+    }
+    public static class ResponseWrapperSync extends ResponseWrapper<SyncResponse> {
+        @Schema(description = "payload data", implementation = SyncResponse.class)
+        private SyncResponse data;
+    }
 
 }
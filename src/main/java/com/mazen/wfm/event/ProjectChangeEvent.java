@@ -0,0 +1,34 @@
+package com.mazen.wfm.event;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+// Something in a project changed; streamed to the project's subscribers by ProjectEventBroker once committed.
+// commentId is only set for comment changes, taskId for task and comment changes.
+public record ProjectChangeEvent(Long projectId, Type type, Long taskId, Long commentId, LocalDateTime occurredAt) {
+
+    public enum Type {
+        TASK_CREATED, TASK_UPDATED, TASK_DELETED, TASK_ASSIGNED, COMMENT_ADDED, COMMENT_DELETED, PROJECT_UPDATED, PROJECT_DELETED;
+
+        // the SSE event name, e.g. task_updated
+        public String eventName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static ProjectChangeEvent task(Long projectId, Type type, Long taskId) {
+        return new ProjectChangeEvent(projectId, type, taskId, null, LocalDateTime.now());
+    }
+
+    public static ProjectChangeEvent comment(Long projectId, Type type, Long taskId, Long commentId) {
+        return new ProjectChangeEvent(projectId, type, taskId, commentId, LocalDateTime.now());
+    }
+
+    public static ProjectChangeEvent projectUpdated(Long projectId) {
+        return new ProjectChangeEvent(projectId, Type.PROJECT_UPDATED, null, null, LocalDateTime.now());
+    }
+
+    public static ProjectChangeEvent projectDeleted(Long projectId) {
+        return new ProjectChangeEvent(projectId, Type.PROJECT_DELETED, null, null, LocalDateTime.now());
+    }
+}
@@ -28,4 +28,15 @@ public class TaskAssignmentEvent {
         this.userName = user.getUsername();
         this.assignedAt = LocalDateTime.now();
     }
+
+    // Built straight from a query, without loading the task or the user
+    public TaskAssignmentEvent(Long taskId, String taskName, String taskDescription, Long userId, String userEmail, String userName) {
+        this.taskId = taskId;
+        this.taskName = taskName;
+        this.taskDescription = taskDescription;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.userName = userName;
+        this.assignedAt = LocalDateTime.now();
+    }
 }
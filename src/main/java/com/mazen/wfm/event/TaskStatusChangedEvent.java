@@ -0,0 +1,8 @@
+package com.mazen.wfm.event;
+
+import com.mazen.wfm.models.Status;
+
+import java.time.LocalDateTime;
+
+// A task entered (from null: was created), left (to null: was deleted) or changed status; see TaskStatusHistoryWriter
+public record TaskStatusChangedEvent(Long taskId, Long projectId, Status from, Status to, LocalDateTime changedAt) {}
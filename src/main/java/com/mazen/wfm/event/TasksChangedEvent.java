@@ -0,0 +1,7 @@
+package com.mazen.wfm.event;
+
+import java.util.Collection;
+
+// Rows of these tasks were written (or deleted) in bulk, by id only; CoalescedReadService drops what it serves
+// of them once committed. Writes of single tasks publish a ProjectChangeEvent instead.
+public record TasksChangedEvent(Collection<Long> taskIds) {}
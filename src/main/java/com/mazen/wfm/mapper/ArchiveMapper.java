@@ -0,0 +1,17 @@
+package com.mazen.wfm.mapper;
+
+import com.mazen.wfm.dtos.response.ArchivedTaskResponse;
+import com.mazen.wfm.dtos.response.CommentResponse;
+import com.mazen.wfm.models.ArchivedComment;
+import com.mazen.wfm.models.ArchivedTask;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ArchiveMapper {
+    ArchivedTaskResponse toResponse(ArchivedTask task);
+
+    // the archive keeps author ids only
+    @Mapping(target = "authorName", ignore = true)
+    CommentResponse toResponse(ArchivedComment comment);
+}
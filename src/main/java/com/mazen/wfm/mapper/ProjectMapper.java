@@ -19,9 +19,11 @@ public interface ProjectMapper {
     @Mapping(target = "tasks", ignore = true)
     @Mapping(target = "createdAt", expression = "java(java.time.LocalDateTime.now())")
     @Mapping(target = "owner", ignore = true) // will be set in the service
+    @Mapping(target = "deletedAt", ignore = true)
     Project toEntity(CreateProjectRequest request);
 
     // Update: apply changes from request → existing entity
+    @Mapping(target = "deletedAt", ignore = true)
     void updateEntityFromRequest(UpdateProjectRequest request, @MappingTarget Project project);
 
     // Convert entity → response DTO
@@ -0,0 +1,33 @@
+package com.mazen.wfm.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds a {@code handler} tag (e.g. {@code TaskController.getTask}) to the {@code http.server.requests}
+ * timer so latency histograms can be read per controller method, not only per URI template.
+ */
+@Component
+public class ControllerMethodObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private static final String NO_HANDLER = "none";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(KeyValue.of(MetricNames.TAG_HANDLER, handler(context)));
+    }
+
+    private String handler(ServerRequestObservationContext context) {
+        if (context.getCarrier() == null)
+            return NO_HANDLER;
+        Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method)
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        return NO_HANDLER;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mazen.wfm.metrics;
+
+/**
+ * Names and tag keys of the application's own meters. Dashboards and SLO alerts are built on these,
+ * so treat them as a public contract: add new ones freely, but don't rename existing ones.
+ */
+public final class MetricNames {
+
+    // Timer: JWT validation and user lookup in JwtAuthenticationFilter, tagged with outcome
+    public static final String JWT_AUTHENTICATION = "wfm.auth.jwt";
+
+    // Distribution summaries: SQL statements / entities loaded by Hibernate per HTTP request, tagged with method and uri
+    public static final String REQUEST_STATEMENTS = "wfm.hibernate.request.statements";
+    public static final String REQUEST_ENTITY_LOADS = "wfm.hibernate.request.entity.loads";
+    // Counter: requests that issued more statements than their StatementBudget, tagged with method and uri
+    public static final String REQUEST_BUDGET_EXCEEDED = "wfm.hibernate.request.budget.exceeded";
+
+    // Gauge: hit ratio of a Hibernate second-level cache region since startup, tagged with region
+    public static final String CACHE_HIT_RATIO = "wfm.hibernate.cache.hit.ratio";
+
+    // Gauges: connection permits free / threads queued for one (virtual-thread mode only)
+    public static final String CONNECTION_PERMITS_AVAILABLE = "wfm.datasource.permits.available";
+    public static final String CONNECTION_PERMITS_WAITING = "wfm.datasource.permits.waiting";
+    // Counter: connections handed out by the read/write routing data source, tagged with target (primary, replica)
+    // and reason (write, read, read_your_writes, no_transaction); only when a replica is configured
+    public static final String DATASOURCE_ROUTED = "wfm.datasource.routed";
+
+    // Timer: time from a streaming task-advice request to the first chunk sent to the client
+    public static final String ADVICE_FIRST_CHUNK = "wfm.gemini.advice.first.chunk";
+    // Counter: task advice answered with the local ordering instead of the model, tagged with reason
+    // (circuit_open, bulkhead_full, timeout, error)
+    public static final String ADVICE_FALLBACK = "wfm.gemini.advice.fallback";
+    // Counter: lookups of nightly precomputed advice, tagged with outcome (hit, stale, miss)
+    public static final String ADVICE_STORED = "wfm.gemini.advice.stored";
+    // Counter: users handled by the advice precompute job, tagged with outcome (stored, failed, skipped)
+    public static final String ADVICE_PRECOMPUTED = "wfm.gemini.advice.precomputed";
+
+    // Counter: requests to rate-limited routes, tagged with route and outcome (allowed, rejected)
+    public static final String RATE_LIMIT_REQUESTS = "wfm.ratelimit.requests";
+    // Gauge: client buckets currently tracked by the rate limiter
+    public static final String RATE_LIMIT_BUCKETS = "wfm.ratelimit.buckets";
+
+    // Counter: single-entity reads behind a SingleFlight, tagged with name (task, project) and outcome
+    // (led: loaded it, shared: got the result of a load already running or just finished)
+    public static final String SINGLE_FLIGHT_REQUESTS = "wfm.singleflight.requests";
+
+    // Counter: task queries with assignee or tag filters, tagged with the outcome of the bitmap index lookup
+    // (narrowed, empty, too_many, not_ready)
+    public static final String TASK_INDEX_LOOKUPS = "wfm.taskindex.lookups";
+    // Gauge: live tasks in the bitmap index
+    public static final String TASK_INDEX_TASKS = "wfm.taskindex.tasks";
+
+    // Counter: task status transitions appended to task_status_history, tagged with outcome (written, failed)
+    public static final String STATUS_HISTORY_WRITES = "wfm.statushistory.writes";
+
+    // Gauge: open project event streams (GET /api/projects/{id}/events)
+    public static final String PROJECT_EVENT_SUBSCRIBERS = "wfm.projectevents.subscribers";
+    // Counter: subscribers whose buffer overflowed and who were sent a resync instead of the dropped events
+    public static final String PROJECT_EVENT_RESYNCS = "wfm.projectevents.resyncs";
+
+    // Counters: tasks moved into the archive tables / restored from them
+    public static final String TASKS_ARCHIVED = "wfm.tasks.archived";
+    public static final String TASKS_RESTORED = "wfm.tasks.restored";
+
+    // Timer: duration of a scheduled job run, tagged with job and outcome
+    public static final String SCHEDULED_JOB = "wfm.scheduler.job";
+
+    // Tag added to http.server.requests: ControllerSimpleName.method of the handler that served the request
+    public static final String TAG_HANDLER = "handler";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_URI = "uri";
+    public static final String TAG_METHOD = "method";
+    public static final String TAG_JOB = "job";
+    public static final String TAG_REGION = "region";
+    public static final String TAG_REASON = "reason";
+    public static final String TAG_ROUTE = "route";
+    public static final String TAG_TARGET = "target";
+    public static final String TAG_NAME = "name";
+
+    private MetricNames() {
+    }
+}
@@ -0,0 +1,64 @@
+package com.mazen.wfm.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Per-thread counters of the SQL statements Hibernate prepares and the entities it loads. A request
+ * filter opens a window with {@link #begin()} and reads it back with {@link #end()}; outside of a
+ * window the hooks cost a single ThreadLocal read.
+ */
+public final class RequestQueryStatistics {
+
+    private static final ThreadLocal<Counters> CURRENT = new ThreadLocal<>();
+
+    public static final StatementInspector STATEMENT_INSPECTOR = sql -> {
+        Counters counters = CURRENT.get();
+        if (counters != null)
+            counters.statements++;
+        return sql;
+    };
+
+    public static final PostLoadEventListener ENTITY_LOAD_LISTENER = new PostLoadEventListener() {
+        @Override
+        public void onPostLoad(PostLoadEvent event) {
+            Counters counters = CURRENT.get();
+            if (counters != null)
+                counters.entityLoads++;
+        }
+    };
+
+    private RequestQueryStatistics() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new Counters());
+    }
+
+    /**
+     * Counters of the current window so far, or {@code null} when no window is open on this thread.
+     */
+    public static Counters current() {
+        return CURRENT.get();
+    }
+
+    public static Counters end() {
+        Counters counters = CURRENT.get();
+        CURRENT.remove();
+        return counters;
+    }
+
+    public static final class Counters {
+        private long statements;
+        private long entityLoads;
+
+        public long statements() {
+            return statements;
+        }
+
+        public long entityLoads() {
+            return entityLoads;
+        }
+    }
+}
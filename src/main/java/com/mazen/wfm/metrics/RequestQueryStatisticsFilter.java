@@ -0,0 +1,106 @@
+package com.mazen.wfm.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many SQL statements and entity loads each HTTP request caused, tagged with the
+ * request's URI template, and flags requests that go over their {@link StatementBudget}.
+ * Registered ahead of the security chain so the JWT user lookup is counted too.
+ */
+@Slf4j
+public class RequestQueryStatisticsFilter extends OncePerRequestFilter {
+
+    // Request attribute holding the statement count of the finished request (Long), read by tests
+    public static final String STATEMENTS_ATTRIBUTE = RequestQueryStatisticsFilter.class.getName() + ".statements";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final Map<Method, Integer> budgets = new ConcurrentHashMap<>();
+    // uri -> last time an over-budget warning was logged, so a hot N+1 endpoint doesn't flood the log
+    private final Map<String, Long> lastWarning = new ConcurrentHashMap<>();
+
+    public RequestQueryStatisticsFilter(MeterRegistry meterRegistry, int defaultBudget) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestQueryStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStatistics.Counters counters = RequestQueryStatistics.end();
+            request.setAttribute(STATEMENTS_ATTRIBUTE, counters.statements());
+            String uri = uriTemplate(request);
+            summary(MetricNames.REQUEST_STATEMENTS, "SQL statements prepared while serving the request", request, uri)
+                    .record(counters.statements());
+            summary(MetricNames.REQUEST_ENTITY_LOADS, "Entities loaded by Hibernate while serving the request", request, uri)
+                    .record(counters.entityLoads());
+            checkBudget(request, uri, counters.statements());
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, String uri, long statements) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        int budget = handler instanceof HandlerMethod method ? budgetOf(method) : defaultBudget;
+        if (statements <= budget)
+            return;
+
+        meterRegistry.counter(MetricNames.REQUEST_BUDGET_EXCEEDED,
+                MetricNames.TAG_METHOD, request.getMethod(), MetricNames.TAG_URI, uri).increment();
+        long now = System.nanoTime();
+        Long previous = lastWarning.get(uri);
+        if (previous == null || now - previous > LOG_INTERVAL_NANOS) {
+            lastWarning.put(uri, now);
+            log.warn("SQL statement budget exceeded: {} {} issued {} statements (budget {})",
+                    request.getMethod(), uri, statements, budget);
+        }
+    }
+
+    private int budgetOf(HandlerMethod handlerMethod) {
+        return budgets.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            StatementBudget budget = AnnotatedElementUtils.findMergedAnnotation(method, StatementBudget.class);
+            if (budget == null)
+                budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), StatementBudget.class);
+            return budget != null ? budget.value() : defaultBudget;
+        });
+    }
+
+    private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag(MetricNames.TAG_METHOD, request.getMethod())
+                .tag(MetricNames.TAG_URI, uri)
+                .register(meterRegistry);
+    }
+
+    static String uriTemplate(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
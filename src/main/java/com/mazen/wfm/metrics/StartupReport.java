@@ -0,0 +1,83 @@
+package com.mazen.wfm.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Logs where startup went once the application is ready: the phases in order (those of 10 ms and more), and the beans that took longest
+ * to create, each by its own time (without the dependencies it created on the way). Reads the timeline the
+ * {@link BufferingApplicationStartup} of WfmApplication records; the whole of it is at /actuator/startup.
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+    private static final Duration MIN_PHASE = Duration.ofMillis(10);
+
+    private final ApplicationStartup applicationStartup;
+    private final int slowestBeans;
+
+    public StartupReport(ApplicationStartup applicationStartup,
+                         @Value("${wfm.startup.report.slowest-beans:15}") int slowestBeans) {
+        this.applicationStartup = applicationStartup;
+        this.slowestBeans = slowestBeans;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        // nothing recorded without the buffering startup (tests, other launchers)
+        if (slowestBeans <= 0 || !(applicationStartup instanceof BufferingApplicationStartup buffering))
+            return;
+        List<TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+        Map<Long, Duration> nested = new HashMap<>();
+        for (TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null)
+                nested.merge(parentId, event.getDuration(), Duration::plus);
+        }
+        // phases repeat (one spring.data.repository.init per repository): summed per name, in order of first start
+        Map<String, Duration> phases = new LinkedHashMap<>();
+        for (TimelineEvent event : events)
+            if (!BEAN_STEP.equals(event.getStartupStep().getName()))
+                phases.merge(event.getStartupStep().getName(), event.getDuration(), Duration::plus);
+        log.info("Startup phases: {}", phases.entrySet().stream()
+                .filter(phase -> phase.getValue().compareTo(MIN_PHASE) >= 0)
+                .map(phase -> phase.getKey() + " " + phase.getValue().toMillis() + " ms")
+                .collect(Collectors.joining(", ")));
+        log.info("Slowest beans, own time: {}", events.stream()
+                .filter(event -> BEAN_STEP.equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing((TimelineEvent event) -> ownTime(event, nested)).reversed())
+                .limit(slowestBeans)
+                .map(event -> beanName(event.getStartupStep()) + " " + ownTime(event, nested).toMillis() + " ms")
+                .collect(Collectors.joining(", ")));
+    }
+
+    private static Duration ownTime(TimelineEvent event, Map<Long, Duration> nested) {
+        return event.getDuration().minus(nested.getOrDefault(event.getStartupStep().getId(), Duration.ZERO));
+    }
+
+    private static String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("?");
+    }
+}
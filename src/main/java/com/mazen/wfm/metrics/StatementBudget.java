@@ -0,0 +1,18 @@
+package com.mazen.wfm.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a request to the annotated handler (or every handler of the
+ * annotated controller) is expected to issue. Requests without one use
+ * {@code wfm.sql.statement-budget.default}. Going over the budget is logged and counted in
+ * {@link MetricNames#REQUEST_BUDGET_EXCEEDED}; the request itself is never failed.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    int value();
+}
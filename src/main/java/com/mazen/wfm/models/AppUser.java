@@ -9,7 +9,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +28,9 @@ import java.util.Set;
 @Entity
 @Builder
 @Table(name = "app_user")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "app_user")
+@NaturalIdCache(region = "app_user_natural_id")
 @NoArgsConstructor
 @AllArgsConstructor
 public class AppUser implements UserDetails{
@@ -32,6 +39,7 @@ public class AppUser implements UserDetails{
     @Column(name = "user_id") // explicitly map to DB column
     private Long userId;
 
+    @NaturalId
     @Column(unique = true, nullable = false, length = 50)
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
     @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "Username can only contain letters, numbers, and underscores")
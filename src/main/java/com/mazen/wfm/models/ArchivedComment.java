@@ -0,0 +1,29 @@
+package com.mazen.wfm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Comment of an archived task, moved along with it
+@Entity
+@Table(name = "archived_comments", indexes = @Index(name = "idx_archived_comments_task", columnList = "task_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedComment {
+    @Id
+    private Long commentId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    private String content;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,53 @@
+package com.mazen.wfm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// Cold copy of an archived task (see TaskArchiveService): same columns and ids as tasks, references kept as
+// plain ids so the hot tables never hold foreign keys into the archive or the other way round
+@Entity
+@Table(name = "archived_tasks", indexes = @Index(name = "idx_archived_tasks_project", columnList = "project_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTask {
+    @Id
+    private Long taskId;
+
+    private String title;
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Enumerated(EnumType.STRING)
+    private Priority priority;
+
+    private LocalDate dueDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime archivedAt;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "parent_task_id")
+    private Long parentTaskId;
+
+    @ElementCollection
+    @CollectionTable(name = "archived_task_assignments", joinColumns = @JoinColumn(name = "task_id"))
+    @Column(name = "user_id")
+    private Set<Long> assigneeIds = new HashSet<>();
+
+    @ElementCollection
+    @CollectionTable(name = "archived_task_tags", joinColumns = @JoinColumn(name = "task_id"))
+    @Column(name = "tag_id")
+    private Set<Long> tagIds = new HashSet<>();
+}
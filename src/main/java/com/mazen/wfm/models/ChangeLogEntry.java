@@ -0,0 +1,46 @@
+package com.mazen.wfm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// A project, task or comment was written (or deleted) in the transaction that appended this row. seq is the
+// global change sequence GET /api/sync pages by; superseded rows are compacted away (ChangeLogRepository.compact).
+// Assignee and tag changes are logged as changes of their task.
+@Entity
+@Immutable
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_project", columnList = "project_id, seq"),
+        @Index(name = "idx_change_log_entity", columnList = "entity_type, entity_id, seq"),
+        @Index(name = "idx_change_log_changed_at", columnList = "changed_at")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    public enum EntityType { PROJECT, TASK, COMMENT }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
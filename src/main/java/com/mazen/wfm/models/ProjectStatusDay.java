@@ -0,0 +1,44 @@
+package com.mazen.wfm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Number of a project's tasks (live and archived) in a status at the end of a day, rolled up nightly from
+// task_status_history by ProjectAnalyticsService. Days without tasks in a status have no row.
+@Entity
+@Table(name = "project_status_daily", indexes = @Index(name = "idx_project_status_daily_project", columnList = "project_id, on_day"))
+@IdClass(ProjectStatusDay.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectStatusDay {
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    // "day" is a keyword in H2
+    @Id
+    @Column(name = "on_day")
+    private LocalDate day;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(nullable = false)
+    private long tasks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long projectId;
+        private LocalDate day;
+        private Status status;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mazen.wfm.models;
 
+import com.mazen.wfm.services.TaskIndexEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -7,7 +8,14 @@ import lombok.NoArgsConstructor;
 import java.util.Set;
 
 @Entity
-@Table(name = "tasks")
+// keeps the in-memory bitmap index in step with writes through the entity
+@EntityListeners(TaskIndexEntityListener.class)
+// Indexes for the filters of GET /api/tasks/query: project (with status), parent task and due date
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_project_status", columnList = "project_id, status"),
+        @Index(name = "idx_tasks_parent", columnList = "parent_task_id"),
+        @Index(name = "idx_tasks_due_date", columnList = "due_date, task_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,12 +45,13 @@ public class Task {
     @ManyToOne
     @JoinColumn(name = "parent_task_id")
     private Task parentTask;
-    // Assigned users
+    // Assigned users; the primary key (task_id, user_id) serves lookups by task, the index those by user (inbox)
     @ManyToMany
     @JoinTable(
             name = "task_assignments",
             joinColumns = @JoinColumn(name = "task_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_task_assignments_user_task", columnList = "user_id, task_id")
     )
     private Set<AppUser> assignees = new java.util.HashSet<>();
     // Tags
@@ -0,0 +1,31 @@
+package com.mazen.wfm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Gemini advice precomputed for a user by the nightly job; only valid while the prompt it answered is unchanged
+@Entity
+@Table(name = "task_advice")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskAdvice {
+    // one stored answer per user (AppUser.userId)
+    @Id
+    private Long userId;
+
+    // GeminiService.adviceKey of the task list the advice was generated for
+    @Column(nullable = false, length = 64)
+    private String promptHash;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String advice;
+
+    // when the user's tasks were read, not when the model answered
+    @Column(nullable = false)
+    private LocalDateTime generatedAt;
+}
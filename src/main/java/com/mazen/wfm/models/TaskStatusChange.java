@@ -0,0 +1,42 @@
+package com.mazen.wfm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// One status transition of a task, appended by TaskStatusHistoryWriter and never changed. fromStatus is null when
+// the task was created, toStatus when it was deleted. Plain ids, so history outlives the task.
+@Entity
+@Immutable
+@Table(name = "task_status_history", indexes = {
+        @Index(name = "idx_task_status_history_project", columnList = "project_id, changed_at"),
+        @Index(name = "idx_task_status_history_task", columnList = "task_id, changed_at"),
+        // arrivals and departures across all projects (ProjectAnalyticsService)
+        @Index(name = "idx_task_status_history_changed_at", columnList = "changed_at")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatusChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Enumerated(EnumType.STRING)
+    private Status fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    private Status toStatus;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
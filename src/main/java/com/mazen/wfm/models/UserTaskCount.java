@@ -0,0 +1,22 @@
+package com.mazen.wfm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A user's number of open (TODO / IN_PROGRESS) assigned tasks, kept up to date by the writes that change it
+// (UserTaskCountRepository.refresh) so the inbox doesn't count thousands of assignments per request
+@Entity
+@Table(name = "user_task_counts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTaskCount {
+    // AppUser.userId
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long openTasks;
+}
@@ -0,0 +1,10 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.AppUser;
+
+import java.util.Optional;
+
+public interface AppUserRepositoryCustom {
+    // Natural-id lookup: served from the second-level cache without SQL once the user has been loaded
+    Optional<AppUser> findByUsername(String username);
+}
@@ -0,0 +1,23 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.AppUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class AppUserRepositoryCustomImpl implements AppUserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<AppUser> findByUsername(String username) {
+        if (username == null)
+            return Optional.empty();
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(AppUser.class)
+                .loadOptional(username);
+    }
+}
@@ -0,0 +1,12 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.ArchivedComment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedCommentRepository extends JpaRepository<ArchivedComment, Long> {
+    List<ArchivedComment> findByTaskIdOrderByCreatedAt(Long taskId);
+}
@@ -0,0 +1,141 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.dtos.StatusCountDTO;
+import com.mazen.wfm.models.ArchivedTask;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Archive reads, plus the set-based copies between the hot tables (tasks, comments, task_assignments,
+ * task_tags) and their archive counterparts. Rows keep their ids both ways. Each write names its target
+ * table as native query space and clears the persistence context afterwards, like the join-table writes
+ * in {@link TaskRepository}.
+ */
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    @EntityGraph(attributePaths = {"assigneeIds", "tagIds"})
+    Optional<ArchivedTask> findWithLinksByTaskId(Long taskId);
+
+    @EntityGraph(attributePaths = {"assigneeIds", "tagIds"})
+    Page<ArchivedTask> findByProjectId(Long projectId, Pageable pageable);
+
+    @Query("SELECT a.taskId FROM ArchivedTask a WHERE a.projectId = :projectId")
+    List<Long> findTaskIdsByProjectId(@Param("projectId") Long projectId, Pageable pageable);
+
+    long countByProjectId(Long projectId);
+
+    // archived tasks still count towards their project's analytics
+    @Query("SELECT new com.mazen.wfm.dtos.StatusCountDTO(a.projectId, a.status, COUNT(a)) FROM ArchivedTask a " +
+            "GROUP BY a.projectId, a.status")
+    List<StatusCountDTO> countByProjectAndStatus();
+
+    @Query("SELECT new com.mazen.wfm.dtos.StatusCountDTO(a.projectId, a.status, COUNT(a)) FROM ArchivedTask a " +
+            "WHERE a.projectId = :projectId GROUP BY a.projectId, a.status")
+    List<StatusCountDTO> countByStatus(@Param("projectId") Long projectId);
+
+    // Hot -> archive
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_tasks"))
+    @Query(value = "INSERT INTO archived_tasks (task_id, title, description, status, priority, due_date, created_at, " +
+            "updated_at, project_id, parent_task_id, archived_at) " +
+            "SELECT task_id, title, description, status, priority, due_date, created_at, updated_at, project_id, " +
+            "parent_task_id, :archivedAt FROM tasks WHERE task_id IN (:taskIds)",
+            nativeQuery = true)
+    int archiveTasks(@Param("taskIds") Collection<Long> taskIds, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_task_assignments"))
+    @Query(value = "INSERT INTO archived_task_assignments (task_id, user_id) " +
+            "SELECT task_id, user_id FROM task_assignments WHERE task_id IN (:taskIds)",
+            nativeQuery = true)
+    int archiveAssignees(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_task_tags"))
+    @Query(value = "INSERT INTO archived_task_tags (task_id, tag_id) " +
+            "SELECT task_id, tag_id FROM task_tags WHERE task_id IN (:taskIds)",
+            nativeQuery = true)
+    int archiveTags(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_comments"))
+    @Query(value = "INSERT INTO archived_comments (comment_id, task_id, author_id, content, created_at) " +
+            "SELECT comment_id, task_id, author_id, content, created_at FROM comments WHERE task_id IN (:taskIds)",
+            nativeQuery = true)
+    int archiveComments(@Param("taskIds") Collection<Long> taskIds);
+
+    // Archive -> hot. The parent link is only restored when the parent is live, and links to users or tags
+    // that no longer exist are dropped.
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tasks"))
+    @Query(value = "INSERT INTO tasks (task_id, title, description, status, priority, due_date, created_at, " +
+            "updated_at, project_id, parent_task_id) " +
+            "SELECT a.task_id, a.title, a.description, :status, a.priority, a.due_date, a.created_at, :restoredAt, " +
+            "a.project_id, (SELECT p.task_id FROM tasks p WHERE p.task_id = a.parent_task_id) " +
+            "FROM archived_tasks a WHERE a.task_id = :taskId",
+            nativeQuery = true)
+    int restoreTask(@Param("taskId") Long taskId, @Param("status") String status, @Param("restoredAt") LocalDateTime restoredAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_assignments"))
+    @Query(value = "INSERT INTO task_assignments (task_id, user_id) " +
+            "SELECT a.task_id, a.user_id FROM archived_task_assignments a JOIN app_user u ON u.user_id = a.user_id " +
+            "WHERE a.task_id = :taskId",
+            nativeQuery = true)
+    int restoreAssignees(@Param("taskId") Long taskId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "INSERT INTO task_tags (task_id, tag_id) " +
+            "SELECT a.task_id, a.tag_id FROM archived_task_tags a JOIN tags t ON t.tag_id = a.tag_id " +
+            "WHERE a.task_id = :taskId",
+            nativeQuery = true)
+    int restoreTags(@Param("taskId") Long taskId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments"))
+    @Query(value = "INSERT INTO comments (comment_id, task_id, author_id, content, created_at) " +
+            "SELECT c.comment_id, c.task_id, c.author_id, c.content, c.created_at " +
+            "FROM archived_comments c JOIN app_user u ON u.user_id = c.author_id WHERE c.task_id = :taskId",
+            nativeQuery = true)
+    int restoreComments(@Param("taskId") Long taskId);
+
+    // Removal from the archive, after a restore or when the project is purged
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_comments"))
+    @Query(value = "DELETE FROM archived_comments WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteCommentsByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_task_assignments"))
+    @Query(value = "DELETE FROM archived_task_assignments WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteAssigneesByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_task_tags"))
+    @Query(value = "DELETE FROM archived_task_tags WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteTagsByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "archived_tasks"))
+    @Query(value = "DELETE FROM archived_tasks WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+}
@@ -0,0 +1,68 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.ChangeLogEntry;
+import com.mazen.wfm.models.ChangeLogEntry.EntityType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The change log behind GET /api/sync. Writes call {@link #changed} / {@link #tasksChanged} in the transaction
+ * of the write, so an entry commits (or rolls back) together with the change it records;
+ * deletions of tasks are logged before the rows go, while their project is still known.
+ */
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_log"))
+    @Query(value = "INSERT INTO change_log (entity_type, entity_id, project_id, deleted, changed_at) " +
+            "SELECT 'TASK', task_id, project_id, :deleted, :changedAt FROM tasks WHERE task_id IN (:taskIds)",
+            nativeQuery = true)
+    int logTasks(@Param("taskIds") Collection<Long> taskIds, @Param("deleted") boolean deleted,
+                 @Param("changedAt") LocalDateTime changedAt);
+
+    default void tasksChanged(Collection<Long> taskIds) {
+        if (!taskIds.isEmpty())
+            logTasks(taskIds, false, LocalDateTime.now());
+    }
+
+    default void tasksDeleted(Collection<Long> taskIds) {
+        if (!taskIds.isEmpty())
+            logTasks(taskIds, true, LocalDateTime.now());
+    }
+
+    default void changed(EntityType type, Long entityId, Long projectId, boolean deleted) {
+        save(new ChangeLogEntry(null, type, entityId, projectId, deleted, LocalDateTime.now()));
+    }
+
+    List<ChangeLogEntry> findByProjectIdInAndSeqGreaterThanOrderBySeq(Collection<Long> projectIds, long seq, Pageable pageable);
+
+    // the newest entry written before the given time; see SyncService on why cursors stop there
+    @Query("SELECT c.seq FROM ChangeLogEntry c WHERE c.changedAt < :before ORDER BY c.changedAt DESC, c.seq DESC LIMIT 1")
+    Optional<Long> findSeqWrittenBefore(@Param("before") LocalDateTime before);
+
+    // Drops entries a later entry for the same row supersedes; a sync from any cursor still ends on each row's
+    // latest state, deletions included
+    @Modifying
+    @Query(value = "DELETE FROM change_log c WHERE EXISTS (SELECT 1 FROM change_log n " +
+            "WHERE n.entity_type = c.entity_type AND n.entity_id = c.entity_id AND n.seq > c.seq)",
+            nativeQuery = true)
+    int compact();
+
+    // a purged project's tombstone stands for everything that was in it
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.projectId = :projectId AND c.entityType <> :keep")
+    int deleteByProjectIdExcept(@Param("projectId") Long projectId, @Param("keep") EntityType keep);
+}
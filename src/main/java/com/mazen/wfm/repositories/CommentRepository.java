@@ -2,7 +2,12 @@ package com.mazen.wfm.repositories;
 
 import com.mazen.wfm.models.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +17,8 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     // Find all comments made by a user
     List<Comment> findByAuthor_UserId(Long userId);
-}
\ No newline at end of file
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.task.taskId IN :taskIds")
+    int deleteByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+}
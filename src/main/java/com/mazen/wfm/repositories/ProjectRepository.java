@@ -2,6 +2,9 @@ package com.mazen.wfm.repositories;
 
 import com.mazen.wfm.models.Project;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -9,7 +12,18 @@ import java.util.List;
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     // Find all projects owned by a user
     List<Project> findByOwner_UserId(Long owner_id);
+    List<Project> findByOwner_UserIdAndDeletedAtIsNull(Long owner_id);
 
     // Search projects by name (case-insensitive contains)
     List<Project> findByNameContainingIgnoreCase(String name);
+    List<Project> findByNameContainingIgnoreCaseAndDeletedAtIsNull(String name);
+
+    // Soft-deleted projects still waiting to be purged, oldest first
+    @Query("SELECT p.projectId FROM Project p WHERE p.deletedAt IS NOT NULL ORDER BY p.deletedAt")
+    List<Long> findDeletedProjectIds();
+
+    // Last step of a purge, once the project has no tasks left
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Project p WHERE p.projectId = :projectId")
+    int deleteProjectById(@Param("projectId") Long projectId);
 }
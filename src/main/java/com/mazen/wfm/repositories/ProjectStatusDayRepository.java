@@ -0,0 +1,29 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.ProjectStatusDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProjectStatusDayRepository extends JpaRepository<ProjectStatusDay, ProjectStatusDay.Key> {
+
+    List<ProjectStatusDay> findByProjectIdAndDayBetween(Long projectId, LocalDate from, LocalDate to);
+
+    // the rolled-up range is the same for every project: the nightly rollup covers them all at once
+    @Query("SELECT MIN(d.day) FROM ProjectStatusDay d")
+    Optional<LocalDate> findFirstDay();
+
+    @Query("SELECT MAX(d.day) FROM ProjectStatusDay d")
+    Optional<LocalDate> findLastDay();
+
+    @Modifying
+    @Query("DELETE FROM ProjectStatusDay d WHERE d.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") Long projectId);
+}
@@ -0,0 +1,10 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.Tag;
+
+import java.util.Optional;
+
+public interface TagRepositoryCustom {
+    // Natural-id lookup: served from the second-level cache without SQL once the tag has been loaded
+    Optional<Tag> findByName(String name);
+}
@@ -0,0 +1,23 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class TagRepositoryCustomImpl implements TagRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Tag> findByName(String name) {
+        if (name == null)
+            return Optional.empty();
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Tag.class)
+                .loadOptional(name);
+    }
+}
@@ -0,0 +1,37 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.ChangeLogEntry;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.TaskAdvice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TaskAdviceRepository extends JpaRepository<TaskAdvice, Long> {
+
+    // Active users - a task in one of the given statuses changed after :since - whose stored advice is missing,
+    // generated before :refreshBefore, or older than a change to one of those tasks. A change is an update of the
+    // task row or a change_log entry for it, which assignee and tag changes also write.
+    @Query("SELECT DISTINCT u.userId FROM Task t JOIN t.assignees u " +
+            "WHERE u.active = true AND t.status IN :statuses AND t.project.deletedAt IS NULL " +
+            "AND (t.updatedAt > :since OR EXISTS (SELECT c FROM ChangeLogEntry c " +
+            "     WHERE c.entityType = :task AND c.entityId = t.taskId AND c.changedAt > :since)) " +
+            "AND NOT EXISTS (SELECT a FROM TaskAdvice a WHERE a.userId = u.userId " +
+            "     AND a.generatedAt >= :refreshBefore AND a.generatedAt >= t.updatedAt " +
+            "     AND NOT EXISTS (SELECT c FROM ChangeLogEntry c " +
+            "         WHERE c.entityType = :task AND c.entityId = t.taskId AND c.changedAt > a.generatedAt)) " +
+            "ORDER BY u.userId")
+    List<Long> findUsersNeedingAdvice(@Param("statuses") List<Status> statuses,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("refreshBefore") LocalDateTime refreshBefore,
+                                      @Param("task") ChangeLogEntry.EntityType task);
+
+    default List<Long> findUsersNeedingAdvice(List<Status> statuses, LocalDateTime since, LocalDateTime refreshBefore) {
+        return findUsersNeedingAdvice(statuses, since, refreshBefore, ChangeLogEntry.EntityType.TASK);
+    }
+}
@@ -1,19 +1,31 @@
 package com.mazen.wfm.repositories;
 
+import com.mazen.wfm.dtos.StatusCountDTO;
+import com.mazen.wfm.dtos.TaskIndexDTO;
+import com.mazen.wfm.dtos.TaskProjectDTO;
+import com.mazen.wfm.dtos.TaskRankingDTO;
+import com.mazen.wfm.event.TaskAssignmentEvent;
 import com.mazen.wfm.models.Status;
 import com.mazen.wfm.models.Task;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
 
     // Find all tasks by project
     List<Task> findByProject_ProjectId(Long projectId);
@@ -21,6 +33,7 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     // Find all tasks assigned to a specific user
     List<Task> findByAssignees_UserId(Long userId);
+    List<Task> findByAssignees_UserIdAndProject_DeletedAtIsNull(Long userId);
 
     // Find tasks by status
     List<Task> findByStatus(Status status);
@@ -35,7 +48,140 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByProject_ProjectIdAndStatus(Long projectId, Status status);
 
     @Query("SELECT t FROM Task t JOIN t.assignees u " +
-            "WHERE u.userId = :userId AND t.status IN :statuses")
+            "WHERE u.userId = :userId AND t.status IN :statuses AND t.project.deletedAt IS NULL")
     List<Task> findTasksByUserIdAndStatuses(@Param("userId") Long userId,
                                             @Param("statuses") List<Status> statuses);
+
+    // Ranking inputs of the given users' tasks; openSubtasks counts subtasks in one of the given statuses too
+    @Query("SELECT new com.mazen.wfm.dtos.TaskRankingDTO(u.userId, t.taskId, t.priority, t.dueDate, p.status, " +
+            "(SELECT COUNT(s) FROM Task s WHERE s.parentTask = t AND s.status IN :statuses), SIZE(t.assignees)) " +
+            "FROM Task t JOIN t.assignees u LEFT JOIN t.parentTask p " +
+            "WHERE u.userId IN :userIds AND t.status IN :statuses AND t.project.deletedAt IS NULL")
+    List<TaskRankingDTO> findRankingByUserIdsAndStatuses(@Param("userIds") Collection<Long> userIds,
+                                                         @Param("statuses") List<Status> statuses);
+
+    @EntityGraph(attributePaths = {"project", "assignees", "tags"})
+    List<Task> findByTaskIdIn(Collection<Long> taskIds);
+
+    // Index rows of the given tasks: one per (tag, assignee) pair, so a task with 3 tags and 2 assignees gives 6
+    @Query("SELECT new com.mazen.wfm.dtos.TaskIndexDTO(t.taskId, t.status, t.priority, g.tagId, u.userId) " +
+            "FROM Task t LEFT JOIN t.tags g LEFT JOIN t.assignees u WHERE t.taskId IN :taskIds")
+    List<TaskIndexDTO> findIndexRows(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query("SELECT t.taskId FROM Task t WHERE t.taskId > :after ORDER BY t.taskId")
+    List<Long> findTaskIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    // Users whose open-task count a change to these tasks may affect (see UserTaskCountRepository.refresh)
+    @Query("SELECT DISTINCT u.userId FROM Task t JOIN t.assignees u WHERE t.taskId IN :taskIds")
+    List<Long> findAssigneeIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query("SELECT DISTINCT u.userId FROM Task t JOIN t.assignees u WHERE t.project.projectId = :projectId")
+    List<Long> findAssigneeIdsByProjectId(@Param("projectId") Long projectId);
+
+    // Tasks of a soft-deleted project are gone for reads and writes from the moment of the delete, though the
+    // purge may take a while to reach their rows (see ProjectService#deleteProject)
+    boolean existsByTaskIdAndProject_DeletedAtIsNull(Long taskId);
+
+    @Query("SELECT COUNT(t) FROM Task t JOIN t.assignees u WHERE u.userId = :userId AND t.status IN :statuses " +
+            "AND t.project.deletedAt IS NULL")
+    long countByUserIdAndStatuses(@Param("userId") Long userId, @Param("statuses") List<Status> statuses);
+
+    // Bulk link writes: set-based SQL on the join tables, no task or collection is loaded. The native-spaces
+    // hint limits the flush and second-level cache invalidation to the join table; the persistence context is
+    // cleared afterwards, as any collection loaded in it is stale.
+
+    // the given tasks, less those of a soft-deleted project
+    String LIVE_TASK_IDS = "SELECT t.task_id FROM tasks t JOIN projects p ON p.project_id = t.project_id " +
+            "WHERE t.task_id IN (:taskIds) AND p.deleted_at IS NULL";
+
+    // Assignments addAssignees(taskIds, userIds) would create, one per existing task and user not yet assigned
+    @Query("SELECT new com.mazen.wfm.event.TaskAssignmentEvent(t.taskId, t.title, t.description, u.userId, u.email, u.username) " +
+            "FROM Task t, AppUser u " +
+            "WHERE t.taskId IN :taskIds AND u.userId IN :userIds AND u NOT MEMBER OF t.assignees " +
+            "AND t.project.deletedAt IS NULL")
+    List<TaskAssignmentEvent> findNewAssignments(@Param("taskIds") Collection<Long> taskIds,
+                                                 @Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_assignments"))
+    @Query(value = "INSERT INTO task_assignments (task_id, user_id) " +
+            "SELECT t.task_id, u.user_id FROM tasks t JOIN projects p ON p.project_id = t.project_id CROSS JOIN app_user u " +
+            "WHERE t.task_id IN (:taskIds) AND u.user_id IN (:userIds) AND p.deleted_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM task_assignments a WHERE a.task_id = t.task_id AND a.user_id = u.user_id)",
+            nativeQuery = true)
+    int addAssignees(@Param("taskIds") Collection<Long> taskIds, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_assignments"))
+    @Query(value = "DELETE FROM task_assignments WHERE user_id IN (:userIds) AND task_id IN (" + LIVE_TASK_IDS + ")",
+            nativeQuery = true)
+    int removeAssignees(@Param("taskIds") Collection<Long> taskIds, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "INSERT INTO task_tags (task_id, tag_id) " +
+            "SELECT t.task_id, g.tag_id FROM tasks t JOIN projects p ON p.project_id = t.project_id CROSS JOIN tags g " +
+            "WHERE t.task_id IN (:taskIds) AND g.tag_id IN (:tagIds) AND p.deleted_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM task_tags x WHERE x.task_id = t.task_id AND x.tag_id = g.tag_id)",
+            nativeQuery = true)
+    int addTags(@Param("taskIds") Collection<Long> taskIds, @Param("tagIds") Collection<Long> tagIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "DELETE FROM task_tags WHERE tag_id IN (:tagIds) AND task_id IN (" + LIVE_TASK_IDS + ")",
+            nativeQuery = true)
+    int removeTags(@Param("taskIds") Collection<Long> taskIds, @Param("tagIds") Collection<Long> tagIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_assignments"))
+    @Query(value = "DELETE FROM task_assignments WHERE task_id = :taskId", nativeQuery = true)
+    int clearAssignees(@Param("taskId") Long taskId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "DELETE FROM task_tags WHERE task_id = :taskId", nativeQuery = true)
+    int clearTags(@Param("taskId") Long taskId);
+
+    // Project deletion, a batch of task ids at a time: subtask links, join rows, then the tasks (comments go first,
+    // see CommentRepository#deleteByTaskIds)
+    @Query("SELECT t.taskId FROM Task t WHERE t.project.projectId = :projectId")
+    List<Long> findTaskIdsByProjectId(@Param("projectId") Long projectId, Pageable pageable);
+
+    long countByProject_ProjectId(Long projectId);
+
+    @Query("SELECT new com.mazen.wfm.dtos.TaskProjectDTO(t.taskId, t.project.projectId) FROM Task t WHERE t.taskId IN :taskIds")
+    List<TaskProjectDTO> findTaskProjects(@Param("taskIds") Collection<Long> taskIds);
+
+    // Current status counts, for the analytics rollup (every project) and for today's figures (one project)
+    @Query("SELECT new com.mazen.wfm.dtos.StatusCountDTO(t.project.projectId, t.status, COUNT(t)) FROM Task t " +
+            "GROUP BY t.project.projectId, t.status")
+    List<StatusCountDTO> countByProjectAndStatus();
+
+    @Query("SELECT new com.mazen.wfm.dtos.StatusCountDTO(t.project.projectId, t.status, COUNT(t)) FROM Task t " +
+            "WHERE t.project.projectId = :projectId GROUP BY t.project.projectId, t.status")
+    List<StatusCountDTO> countByStatus(@Param("projectId") Long projectId);
+
+    // Archival candidates: in the given status since before the cutoff, and no live subtask pointing at them
+    // (subtasks go first, their parents in a later batch)
+    @Query("SELECT t.taskId FROM Task t WHERE t.status = :status AND t.updatedAt < :before " +
+            "AND NOT EXISTS (SELECT 1 FROM Task s WHERE s.parentTask = t) ORDER BY t.taskId")
+    List<Long> findArchivableTaskIds(@Param("status") Status status, @Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.parentTask = NULL WHERE t.parentTask.taskId IN :taskIds")
+    int detachSubtasks(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_assignments"))
+    @Query(value = "DELETE FROM task_assignments WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteAssigneesByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "DELETE FROM task_tags WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int deleteTagsByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Task t WHERE t.taskId IN :taskIds")
+    int deleteByTaskIds(@Param("taskIds") Collection<Long> taskIds);
 }
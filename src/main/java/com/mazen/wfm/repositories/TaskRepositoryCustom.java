@@ -0,0 +1,17 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.dtos.TaskInboxCursor;
+import com.mazen.wfm.dtos.TaskInboxFilter;
+import com.mazen.wfm.models.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+    // Keyset page of the user's assigned tasks: ids of up to limit tasks matching the filter that sort after the
+    // cursor (from the start when it is null), in the filter's order
+    List<Long> findInboxTaskIds(Long userId, TaskInboxFilter filter, TaskInboxCursor after, int limit);
+
+    // Same keyset paging over any tasks matching the specification (see TaskSpecifications), in the given order
+    List<Long> findTaskIds(Specification<Task> spec, TaskInboxFilter.Sort sort, TaskInboxCursor after, int limit);
+}
@@ -0,0 +1,122 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.dtos.TaskInboxCursor;
+import com.mazen.wfm.dtos.TaskInboxFilter;
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String DUE = "COALESCE(t.dueDate, :undated)";
+    private static final String RANK = Arrays.stream(Priority.values())
+            .map(p -> "WHEN " + Priority.class.getName() + "." + p.name() + " THEN " + TaskInboxCursor.rank(p))
+            .collect(Collectors.joining(" ", "CASE t.priority ", " ELSE " + TaskInboxCursor.rank(null) + " END"));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Starts from the user's rows in task_assignments (idx_task_assignments_user_task) and reaches each task by
+    // its primary key (and its project by the project's); only that user's assignments are filtered and sorted,
+    // never the whole tasks table
+    @Override
+    public List<Long> findInboxTaskIds(Long userId, TaskInboxFilter filter, TaskInboxCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT t.taskId FROM Task t JOIN t.assignees u " +
+                "WHERE u.userId = :userId AND t.project.deletedAt IS NULL");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        parameters.put("undated", TaskInboxCursor.UNDATED);
+        if (filter.statuses() != null && !filter.statuses().isEmpty()) {
+            jpql.append(" AND t.status IN :statuses");
+            parameters.put("statuses", filter.statuses());
+        }
+        if (filter.priorities() != null && !filter.priorities().isEmpty()) {
+            jpql.append(" AND t.priority IN :priorities");
+            parameters.put("priorities", filter.priorities());
+        }
+        if (filter.dueFrom() != null) {
+            jpql.append(" AND t.dueDate >= :dueFrom");
+            parameters.put("dueFrom", filter.dueFrom());
+        }
+        if (filter.dueTo() != null) {
+            jpql.append(" AND t.dueDate <= :dueTo");
+            parameters.put("dueTo", filter.dueTo());
+        }
+        if (filter.projectId() != null) {
+            jpql.append(" AND t.project.projectId = :projectId");
+            parameters.put("projectId", filter.projectId());
+        }
+
+        String afterDue = "(" + DUE + " > :afterDue OR (" + DUE + " = :afterDue AND t.taskId > :afterId))";
+        if (filter.sort() == TaskInboxFilter.Sort.PRIORITY) {
+            if (after != null) {
+                jpql.append(" AND (").append(RANK).append(" < :afterRank OR (")
+                        .append(RANK).append(" = :afterRank AND ").append(afterDue).append("))");
+                parameters.put("afterRank", after.priorityRank());
+            }
+            jpql.append(" ORDER BY ").append(RANK).append(" DESC, ").append(DUE).append(", t.taskId");
+        } else {
+            if (after != null)
+                jpql.append(" AND ").append(afterDue);
+            jpql.append(" ORDER BY ").append(DUE).append(", t.taskId");
+        }
+        if (after != null) {
+            parameters.put("afterDue", after.dueDate());
+            parameters.put("afterId", after.taskId());
+        }
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class).setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    // The inbox order and keyset condition above, built with the criteria API so the specification's predicates
+    // go into the same WHERE clause
+    @Override
+    public List<Long> findTaskIds(Specification<Task> spec, TaskInboxFilter.Sort sort, TaskInboxCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> task = query.from(Task.class);
+        Path<Long> id = task.get("taskId");
+        Expression<LocalDate> due = cb.coalesce(task.get("dueDate"), TaskInboxCursor.UNDATED);
+        CriteriaBuilder.SimpleCase<Priority, Integer> rank = cb.selectCase(task.get("priority"));
+        for (Priority priority : Priority.values())
+            rank.when(priority, TaskInboxCursor.rank(priority));
+        rank.otherwise(TaskInboxCursor.rank(null));
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate matching = spec.toPredicate(task, query, cb);
+        if (matching != null)
+            where.add(matching);
+        if (after != null) {
+            Predicate afterDue = cb.or(cb.greaterThan(due, after.dueDate()),
+                    cb.and(cb.equal(due, after.dueDate()), cb.greaterThan(id, after.taskId())));
+            where.add(sort == TaskInboxFilter.Sort.PRIORITY
+                    ? cb.or(cb.lessThan(rank, after.priorityRank()), cb.and(cb.equal(rank, after.priorityRank()), afterDue))
+                    : afterDue);
+        }
+        query.select(id).where(where.toArray(Predicate[]::new));
+        if (sort == TaskInboxFilter.Sort.PRIORITY)
+            query.orderBy(cb.desc(rank), cb.asc(due), cb.asc(id));
+        else
+            query.orderBy(cb.asc(due), cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
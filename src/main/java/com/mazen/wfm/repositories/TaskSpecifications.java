@@ -0,0 +1,92 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.dtos.TaskQueryFilter;
+import com.mazen.wfm.models.Task;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filters of {@code GET /api/tasks/query}, one {@link Specification} each, combined by {@link #matching}. Links
+ * (assignee, tags) are tested with EXISTS rather than joined, so a task matches at most once and paging stays
+ * on distinct task rows. When the task bitmap index can answer the link filters, {@link #hasIdIn} with its ids
+ * takes the place of {@link #matchingLinks}. Tasks of a soft-deleted project never match.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> matching(TaskQueryFilter filter) {
+        return matchingColumns(filter).and(matchingLinks(filter));
+    }
+
+    // Filters on the task row itself
+    public static Specification<Task> matchingColumns(TaskQueryFilter filter) {
+        Specification<Task> spec = (task, query, cb) -> cb.isNull(task.get("project").get("deletedAt"));
+        if (filter.statuses() != null && !filter.statuses().isEmpty())
+            spec = spec.and((task, query, cb) -> task.get("status").in(filter.statuses()));
+        if (filter.priorities() != null && !filter.priorities().isEmpty())
+            spec = spec.and((task, query, cb) -> task.get("priority").in(filter.priorities()));
+        if (filter.dueFrom() != null)
+            spec = spec.and((task, query, cb) -> cb.greaterThanOrEqualTo(task.get("dueDate"), filter.dueFrom()));
+        if (filter.dueTo() != null)
+            spec = spec.and((task, query, cb) -> cb.lessThanOrEqualTo(task.get("dueDate"), filter.dueTo()));
+        if (filter.projectId() != null)
+            spec = spec.and((task, query, cb) -> cb.equal(task.get("project").get("projectId"), filter.projectId()));
+        if (filter.parentTaskId() != null)
+            spec = spec.and((task, query, cb) -> cb.equal(task.get("parentTask").get("taskId"), filter.parentTaskId()));
+        if (filter.text() != null && !filter.text().isBlank())
+            spec = spec.and(containsText(filter.text().strip()));
+        return spec;
+    }
+
+    // Filters on the join tables: assignee and tags
+    public static Specification<Task> matchingLinks(TaskQueryFilter filter) {
+        Specification<Task> spec = Specification.unrestricted();
+        if (filter.assigneeId() != null)
+            spec = spec.and(linkedTo("assignees", "userId", Set.of(filter.assigneeId())));
+        if (hasTags(filter) && filter.allTags())
+            for (Long tagId : filter.tagIds())
+                spec = spec.and(linkedTo("tags", "tagId", Set.of(tagId)));
+        else if (hasTags(filter))
+            spec = spec.and(linkedTo("tags", "tagId", filter.tagIds()));
+        return spec;
+    }
+
+    public static boolean hasLinkFilters(TaskQueryFilter filter) {
+        return filter.assigneeId() != null || hasTags(filter);
+    }
+
+    public static Specification<Task> hasIdIn(Collection<Long> taskIds) {
+        return (task, query, cb) -> task.get("taskId").in(taskIds);
+    }
+
+    private static boolean hasTags(TaskQueryFilter filter) {
+        return filter.tagIds() != null && !filter.tagIds().isEmpty();
+    }
+
+    // EXISTS (SELECT 1 FROM <join table> WHERE task_id = t.task_id AND <linked id> IN (...)), served by the join
+    // table's primary key
+    private static Specification<Task> linkedTo(String collection, String idAttribute, Collection<?> ids) {
+        return (task, query, cb) -> {
+            Subquery<Integer> link = query.subquery(Integer.class);
+            Root<Task> linked = link.correlate(task);
+            link.select(cb.literal(1)).where(linked.join(collection).get(idAttribute).in(ids));
+            return cb.exists(link);
+        };
+    }
+
+    // Substring match, so no index helps; the other filters should narrow the rows it has to look at
+    private static Specification<Task> containsText(String text) {
+        String pattern = "%" + text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (task, query, cb) -> cb.or(
+                cb.like(cb.lower(task.get("title")), pattern, '\\'),
+                cb.like(cb.lower(task.get("description")), pattern, '\\'));
+    }
+}
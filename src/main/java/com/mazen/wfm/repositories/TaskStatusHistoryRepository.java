@@ -0,0 +1,41 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.dtos.StatusCountDTO;
+import com.mazen.wfm.models.TaskStatusChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads of the append-only status history; rows are written by TaskStatusHistoryWriter in JDBC batches. The
+ * per-day counts are what ProjectAnalyticsService rolls the daily snapshots back with: transitions into a status
+ * add a task to it that day, transitions out of it remove one.
+ */
+@Repository
+public interface TaskStatusHistoryRepository extends JpaRepository<TaskStatusChange, Long> {
+
+    @Query("SELECT MIN(h.changedAt) FROM TaskStatusChange h")
+    Optional<LocalDateTime> findFirstChangedAt();
+
+    @Query("SELECT new com.mazen.wfm.dtos.StatusCountDTO(h.projectId, cast(h.changedAt as LocalDate), h.toStatus, COUNT(h)) " +
+            "FROM TaskStatusChange h WHERE h.changedAt >= :since AND h.toStatus IS NOT NULL " +
+            "GROUP BY h.projectId, cast(h.changedAt as LocalDate), h.toStatus")
+    List<StatusCountDTO> countArrivalsSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.mazen.wfm.dtos.StatusCountDTO(h.projectId, cast(h.changedAt as LocalDate), h.fromStatus, COUNT(h)) " +
+            "FROM TaskStatusChange h WHERE h.changedAt >= :since AND h.fromStatus IS NOT NULL " +
+            "GROUP BY h.projectId, cast(h.changedAt as LocalDate), h.fromStatus")
+    List<StatusCountDTO> countDeparturesSince(@Param("since") LocalDateTime since);
+
+    List<TaskStatusChange> findByTaskIdOrderByChangedAt(Long taskId);
+
+    @Modifying
+    @Query("DELETE FROM TaskStatusChange h WHERE h.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") Long projectId);
+}
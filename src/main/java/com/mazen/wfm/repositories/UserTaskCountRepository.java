@@ -0,0 +1,45 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.UserTaskCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserTaskCountRepository extends JpaRepository<UserTaskCount, Long> {
+
+    // scalar read, so a count loaded earlier in the same session can't hide a later recount
+    @Query("SELECT c.openTasks FROM UserTaskCount c WHERE c.userId = :userId")
+    Optional<Long> findOpenTasksByUserId(@Param("userId") Long userId);
+
+    // Recounts the given users' open tasks from task_assignments (an index range per user) and upserts the result;
+    // tasks of a soft-deleted project don't count. Idempotent, so callers just name the users a write may have
+    // affected, after the write.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_task_counts"))
+    @Query(value = "MERGE INTO user_task_counts c " +
+            "USING (SELECT u.user_id, (SELECT COUNT(*) FROM task_assignments a JOIN tasks t ON t.task_id = a.task_id " +
+            "                          JOIN projects p ON p.project_id = t.project_id " +
+            "                          WHERE a.user_id = u.user_id AND t.status IN (:statuses) AND p.deleted_at IS NULL) AS open_tasks " +
+            "       FROM app_user u WHERE u.user_id IN (:userIds)) s " +
+            "ON c.user_id = s.user_id " +
+            "WHEN MATCHED THEN UPDATE SET open_tasks = s.open_tasks " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, open_tasks) VALUES (s.user_id, s.open_tasks)",
+            nativeQuery = true)
+    int recount(@Param("userIds") Collection<Long> userIds, @Param("statuses") Collection<String> openStatuses);
+
+    default void refresh(Collection<Long> userIds, List<Status> openStatuses) {
+        if (!userIds.isEmpty())
+            recount(userIds, openStatuses.stream().map(Enum::name).toList());
+    }
+}
@@ -0,0 +1,36 @@
+package com.mazen.wfm.scheduler;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.services.TaskAdviceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "gemini.advice.precompute.enabled", havingValue = "true", matchIfMissing = true)
+public class AdvicePrecomputeScheduler {
+
+    private final TaskAdviceService taskAdviceService;
+    private final MeterRegistry meterRegistry;
+
+    public AdvicePrecomputeScheduler(TaskAdviceService taskAdviceService, MeterRegistry meterRegistry) {
+        this.taskAdviceService = taskAdviceService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Run every night, off-peak for both users and the model
+    @Scheduled(cron = "${gemini.advice.precompute.cron:0 0 3 * * *}")
+    public void precomputeAdvice() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            taskAdviceService.precompute();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer(MetricNames.SCHEDULED_JOB,
+                    MetricNames.TAG_JOB, "advice-precompute", MetricNames.TAG_OUTCOME, outcome));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mazen.wfm.scheduler;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.services.ProjectAnalyticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+@ConditionalOnProperty(name = "wfm.analytics.rollup.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsRollupScheduler {
+
+    private final ProjectAnalyticsService projectAnalyticsService;
+    private final MeterRegistry meterRegistry;
+
+    public AnalyticsRollupScheduler(ProjectAnalyticsService projectAnalyticsService, MeterRegistry meterRegistry) {
+        this.projectAnalyticsService = projectAnalyticsService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Run every night just after midnight, before the archive job moves tasks away; a missed night is caught up
+    @Scheduled(cron = "${wfm.analytics.rollup.cron:0 30 0 * * *}")
+    public void rollUp() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            projectAnalyticsService.rollUp(LocalDate.now());
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer(MetricNames.SCHEDULED_JOB,
+                    MetricNames.TAG_JOB, "analytics-rollup", MetricNames.TAG_OUTCOME, outcome));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mazen.wfm.scheduler;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.services.SyncService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "wfm.sync.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeLogCompactionScheduler {
+
+    private final SyncService syncService;
+    private final MeterRegistry meterRegistry;
+
+    public ChangeLogCompactionScheduler(SyncService syncService, MeterRegistry meterRegistry) {
+        this.syncService = syncService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Run every night, off peak; the log otherwise grows with every write
+    @Scheduled(cron = "${wfm.sync.compaction.cron:0 0 4 * * *}")
+    public void compact() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            syncService.compact();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer(MetricNames.SCHEDULED_JOB,
+                    MetricNames.TAG_JOB, "changelog-compaction", MetricNames.TAG_OUTCOME, outcome));
+        }
+    }
+}
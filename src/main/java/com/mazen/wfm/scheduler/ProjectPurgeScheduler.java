@@ -0,0 +1,36 @@
+package com.mazen.wfm.scheduler;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.services.ProjectPurger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "wfm.project.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class ProjectPurgeScheduler {
+
+    private final ProjectPurger projectPurger;
+    private final MeterRegistry meterRegistry;
+
+    public ProjectPurgeScheduler(ProjectPurger projectPurger, MeterRegistry meterRegistry) {
+        this.projectPurger = projectPurger;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Soft-deleted projects disappear within a minute or so, however large
+    @Scheduled(fixedDelayString = "${wfm.project.purge.interval:1m}", initialDelayString = "${wfm.project.purge.interval:1m}")
+    public void purgeDeletedProjects() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            projectPurger.purgeDeleted();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer(MetricNames.SCHEDULED_JOB,
+                    MetricNames.TAG_JOB, "project-purge", MetricNames.TAG_OUTCOME, outcome));
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.mazen.wfm.scheduler;
 
+import com.mazen.wfm.metrics.MetricNames;
 import com.mazen.wfm.services.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -10,16 +13,26 @@ import java.time.LocalDate;
 public class ReminderScheduler {
 
     private final TaskService taskService;
+    private final MeterRegistry meterRegistry;
 
-    public ReminderScheduler(TaskService taskService) {
+    public ReminderScheduler(TaskService taskService, MeterRegistry meterRegistry) {
         this.taskService = taskService;
+        this.meterRegistry = meterRegistry;
     }
 
     // Run every day
     @Scheduled(fixedRate = 24 * 60 * 60 * 1000)
     public void sendTaskReminders() {
-        LocalDate now = LocalDate.now();
-        LocalDate upcoming = now.plusDays(3); // tasks due in next 3 days
-        taskService.sendReminders(now, upcoming);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            LocalDate now = LocalDate.now();
+            LocalDate upcoming = now.plusDays(3); // tasks due in next 3 days
+            taskService.sendReminders(now, upcoming);
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer(MetricNames.SCHEDULED_JOB,
+                    MetricNames.TAG_JOB, "task-reminders", MetricNames.TAG_OUTCOME, outcome));
+        }
     }
 }
@@ -0,0 +1,36 @@
+package com.mazen.wfm.scheduler;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.services.TaskArchiveService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "wfm.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiveScheduler {
+
+    private final TaskArchiveService taskArchiveService;
+    private final MeterRegistry meterRegistry;
+
+    public TaskArchiveScheduler(TaskArchiveService taskArchiveService, MeterRegistry meterRegistry) {
+        this.taskArchiveService = taskArchiveService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Run every night, before the advice precompute
+    @Scheduled(cron = "${wfm.archive.cron:0 0 2 * * *}")
+    public void archiveTasks() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            taskArchiveService.archive();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer(MetricNames.SCHEDULED_JOB,
+                    MetricNames.TAG_JOB, "task-archive", MetricNames.TAG_OUTCOME, outcome));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.mazen.wfm.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mazen.wfm.config.RateLimitProperties;
+import com.mazen.wfm.dtos.response.ResponseWrapper;
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket limit on the expensive routes of {@link RateLimitProperties}, per route and client: the
+ * authenticated user when {@link JwtAuthenticationFilter} (which runs first) found one, the remote address
+ * otherwise. Requests over the limit get 429 with a {@code Retry-After} header and never reach the
+ * controller. Buckets live in a bounded cache and are dropped once idle, when they would be full anyway.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final List<LimitedRoute> routes;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoClock;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this(properties, meterRegistry, objectMapper, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper, LongSupplier nanoClock) {
+        this.enabled = properties.enabled();
+        this.routes = properties.routes().stream().map(LimitedRoute::of).toList();
+        // evicting a bucket before it has refilled would hand its client a fresh burst
+        Duration idleTimeout = routes.stream().map(route -> route.config().period())
+                .reduce(properties.idleTimeout(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxKeys())
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.nanoClock = nanoClock;
+        Gauge.builder(MetricNames.RATE_LIMIT_BUCKETS, buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
+        @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        LimitedRoute route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(route.config().name() + '|' + clientKey(request),
+                key -> new TokenBucket(route.config().capacity(), route.config().period(), now));
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            count(route, "allowed");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        count(route, "rejected");
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.debug("Rate limited {} {} for {} on route {}", request.getMethod(), request.getRequestURI(), clientKey(request), route.config().name());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ResponseWrapper.error("Too many requests, retry in " + retryAfter + "s"));
+    }
+
+    private LimitedRoute match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        for (LimitedRoute route : routes) {
+            if (route.matches(request.getMethod(), path))
+                return route;
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken))
+            return "user:" + authentication.getName();
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void count(LimitedRoute route, String outcome) {
+        meterRegistry.counter(MetricNames.RATE_LIMIT_REQUESTS,
+                MetricNames.TAG_ROUTE, route.config().name(), MetricNames.TAG_OUTCOME, outcome).increment();
+    }
+
+    private record LimitedRoute(RateLimitProperties.Route config, PathPattern pattern) {
+
+        static LimitedRoute of(RateLimitProperties.Route config) {
+            return new LimitedRoute(config, PathPatternParser.defaultInstance.parse(config.pattern()));
+        }
+
+        boolean matches(String method, PathContainer path) {
+            return (config.method() == null || config.method().isBlank() || config.method().equalsIgnoreCase(method))
+                    && pattern.matches(path);
+        }
+    }
+}
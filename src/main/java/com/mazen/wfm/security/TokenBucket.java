@@ -0,0 +1,38 @@
+package com.mazen.wfm.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of {@code capacity} tokens refilled at {@code capacity} per {@code period}, kept as a single
+ * "theoretical arrival time" (GCRA): the instant the bucket would be full again if nothing else were taken.
+ * Taking a token pushes it one refill interval further; a request is refused when that would put it more
+ * than a full bucket ahead of now. One compare-and-set per request, no locks and no refill thread.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, Duration period, long nowNanos) {
+        if (capacity < 1 || period.isNegative() || period.isZero())
+            throw new IllegalArgumentException("Token bucket needs a positive capacity and period");
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /** Takes a token: 0 when one was available, otherwise how long (in nanos) until one will be. */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0)
+                return wait;
+            if (fullAt.compareAndSet(current, next))
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.response.ProjectResponse;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.event.ProjectChangeEvent;
+import com.mazen.wfm.event.TasksChangedEvent;
+import com.mazen.wfm.mapper.ProjectMapper;
+import com.mazen.wfm.mapper.TaskMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Single-entity reads that get hit by many clients at once (a task linked in a busy channel): concurrent
+ * requests for the same task or project share one load and mapping, see {@link SingleFlight}. The mapped
+ * response is served for {@code wfm.single-flight.freshness} after it was loaded, or until a write evicts it:
+ * every task, comment and project write publishes a {@link ProjectChangeEvent} or a {@link TasksChangedEvent}
+ * (bulk writes, archiving, purges, the seeder), and what it touched is dropped once it has committed.
+ */
+@Service
+public class CoalescedReadService {
+
+    private final TaskService taskService;
+    private final ProjectService projectService;
+    private final TaskMapper taskMapper;
+    private final ProjectMapper projectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<Long, TaskResponse> tasks;
+    private final SingleFlight<Long, ProjectResponse> projects;
+
+    public CoalescedReadService(TaskService taskService, ProjectService projectService,
+                                TaskMapper taskMapper, ProjectMapper projectMapper,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                @Value("${wfm.single-flight.freshness:100ms}") Duration freshness,
+                                @Value("${wfm.single-flight.join-timeout:2s}") Duration joinTimeout,
+                                @Value("${wfm.single-flight.max-keys:10000}") long maxKeys) {
+        this.taskService = taskService;
+        this.projectService = projectService;
+        this.taskMapper = taskMapper;
+        this.projectMapper = projectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.tasks = new SingleFlight<>("task", freshness, joinTimeout, maxKeys, meterRegistry);
+        this.projects = new SingleFlight<>("project", freshness, joinTimeout, maxKeys, meterRegistry);
+    }
+
+    // loaded and mapped in one transaction: the response is shared, the entity must not be
+    public TaskResponse getTask(Long taskId) {
+        return tasks.get(taskId, () -> readOnlyTransaction.execute(status -> taskMapper.toResponse(taskService.getTaskById(taskId))));
+    }
+
+    public ProjectResponse getProject(Long projectId) {
+        return projects.get(projectId, () -> readOnlyTransaction.execute(status -> projectMapper.toResponse(projectService.getProjectById(projectId))));
+    }
+
+    // fallbackExecution: changes made outside a transaction are committed already
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChange(ProjectChangeEvent event) {
+        switch (event.type()) {
+            // task responses carry the project's name, and none of a deleted project's tasks may be served
+            case PROJECT_UPDATED, PROJECT_DELETED -> {
+                projects.invalidate(event.projectId());
+                tasks.invalidateAll();
+            }
+            default -> tasks.invalidate(event.taskId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        event.taskIds().forEach(tasks::invalidate);
+    }
+}
@@ -2,14 +2,18 @@ package com.mazen.wfm.services;
 
 import com.mazen.wfm.dtos.request.CommentRequest;
 import com.mazen.wfm.dtos.request.CreateCommentRequest;
+import com.mazen.wfm.event.ProjectChangeEvent;
 import com.mazen.wfm.exceptions.ResourceNotFoundException;
 import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.ChangeLogEntry;
 import com.mazen.wfm.models.Comment;
 import com.mazen.wfm.models.Task;
 import com.mazen.wfm.models.UserRole;
 import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ChangeLogRepository;
 import com.mazen.wfm.repositories.CommentRepository;
 import com.mazen.wfm.repositories.TaskRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,15 +28,21 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final TaskRepository taskRepository;
     private final AppUserRepository appUserRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, AppUserRepository appUserRepository) {
+    public CommentService(CommentRepository commentRepository, TaskRepository taskRepository, AppUserRepository appUserRepository,
+                          ChangeLogRepository changeLogRepository, ApplicationEventPublisher eventPublisher) {
         this.commentRepository = commentRepository;
         this.appUserRepository = appUserRepository;
         this.taskRepository = taskRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Comment addComment(CreateCommentRequest request, String username) {
         Task task = taskRepository.findById(request.taskId())
+                .filter(t -> t.getProject().getDeletedAt() == null)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not Found"));
         AppUser author = appUserRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not Found"));
@@ -42,13 +52,17 @@ public class CommentService {
         comment.setContent(request.content());
         comment.setCreatedAt(LocalDateTime.now());
 
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        publishChange(saved, ProjectChangeEvent.Type.COMMENT_ADDED);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Comment getCommentById(Long commentId) {
         return commentRepository.findById(commentId).orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
     }
 
+    @Transactional(readOnly = true)
     public List<Comment> getCommentsByTask(Long taskId) {
         return commentRepository.findByTask_TaskId(taskId);
     }
@@ -63,6 +77,15 @@ public class CommentService {
         if (!comment.getAuthor().getUserId().equals(currentUser.getUserId()) && currentUser.getRole() != UserRole.ADMIN)
             throw new AccessDeniedException("You are not allowed to delete this comment");
         commentRepository.deleteById(commentId);
+        publishChange(comment, ProjectChangeEvent.Type.COMMENT_DELETED);
+    }
+
+    // logged for GET /api/sync, and streamed to the project's subscribers once the transaction commits (ProjectEventBroker)
+    private void publishChange(Comment comment, ProjectChangeEvent.Type type) {
+        Task task = comment.getTask();
+        changeLogRepository.changed(ChangeLogEntry.EntityType.COMMENT, comment.getCommentId(), task.getProject().getProjectId(),
+                type == ProjectChangeEvent.Type.COMMENT_DELETED);
+        eventPublisher.publishEvent(ProjectChangeEvent.comment(task.getProject().getProjectId(), type, task.getTaskId(), comment.getCommentId()));
     }
 
 }
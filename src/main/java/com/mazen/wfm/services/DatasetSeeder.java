@@ -0,0 +1,298 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.config.SeedProperties;
+import com.mazen.wfm.event.TasksChangedEvent;
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.repositories.UserTaskCountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates the synthetic dataset of {@link SeedProperties} for load and performance testing: users, tags and
+ * projects, then tasks with nested subtasks, assignees, tags and comments, piled onto the first projects, users
+ * and tags as {@code skew} asks. Rows go in as JDBC batches, {@code batchSize} tasks with all their rows per
+ * transaction, so ten million tasks take minutes instead of the hours entity saves would (on PostgreSQL, with
+ * {@code reWriteBatchedInserts=true} on the URL, every batch is sent as multi-row INSERTs).
+ * <p>
+ * Seeding is idempotent: seeded rows are recognised by name and seeded tasks are counted, so running it again
+ * only tops the dataset up, and a run cut short carries on with the next batch. Each batch draws from a random
+ * generator seeded with its number, so the same settings give the same dataset. Seeded tasks are logged for
+ * GET /api/sync and reach the task index, but have no status history: analytics see them in their status from
+ * the start.
+ */
+@Slf4j
+@Service
+public class DatasetSeeder {
+
+    static final String USER_PREFIX = "seeduser";
+    static final String TAG_PREFIX = "seed-tag-";
+    static final String PROJECT_PREFIX = "Seed project ";
+    // seeded users log in with this password
+    static final String PASSWORD = "password";
+
+    // weighted by repetition: mostly finished or waiting, a few archived
+    private static final Status[] STATUSES = {Status.TODO, Status.TODO, Status.TODO, Status.IN_PROGRESS,
+            Status.IN_PROGRESS, Status.DONE, Status.DONE, Status.DONE, Status.DONE, Status.ARCHIVED};
+    private static final Priority[] PRIORITIES = {Priority.LOW, Priority.LOW, Priority.LOW, Priority.MEDIUM,
+            Priority.MEDIUM, Priority.MEDIUM, Priority.MEDIUM, Priority.HIGH, Priority.HIGH, Priority.URGENT};
+    // a subtask's parent is one of the tasks generated just before it
+    private static final int RECENT_PARENTS = 64;
+    private static final int REFRESH_BATCH = 1000;
+
+    private static final String INSERT_USER = "INSERT INTO app_user (username, password, full_name, email, role, active, created_at) " +
+            "VALUES (?, ?, ?, ?, 'USER', TRUE, ?)";
+    private static final String INSERT_TAG = "INSERT INTO tags (name) VALUES (?)";
+    private static final String INSERT_PROJECT = "INSERT INTO projects (name, description, created_at, owner_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_TASK = "INSERT INTO tasks (title, status, priority, due_date, created_at, updated_at, " +
+            "project_id, parent_task_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ASSIGNEE = "INSERT INTO task_assignments (task_id, user_id) VALUES (?, ?)";
+    private static final String INSERT_TASK_TAG = "INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?)";
+    private static final String INSERT_COMMENT = "INSERT INTO comments (task_id, author_id, content, created_at) VALUES (?, ?, ?, ?)";
+    private static final String LOG_PROJECTS = "INSERT INTO change_log (entity_type, entity_id, project_id, deleted, changed_at) " +
+            "SELECT 'PROJECT', p.project_id, p.project_id, FALSE, ? FROM projects p WHERE p.name LIKE ? " +
+            "AND NOT EXISTS (SELECT 1 FROM change_log c WHERE c.entity_type = 'PROJECT' AND c.entity_id = p.project_id)";
+    // by id range: a task created meanwhile by someone else falls into it at worst, and is logged twice
+    private static final String LOG_TASKS = "INSERT INTO change_log (entity_type, entity_id, project_id, deleted, changed_at) " +
+            "SELECT 'TASK', t.task_id, t.project_id, FALSE, ? FROM tasks t WHERE t.task_id BETWEEN ? AND ?";
+    private static final String LOG_COMMENTS = "INSERT INTO change_log (entity_type, entity_id, project_id, deleted, changed_at) " +
+            "SELECT 'COMMENT', c.comment_id, t.project_id, FALSE, ? FROM comments c JOIN tasks t ON t.task_id = c.task_id " +
+            "WHERE c.task_id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final UserTaskCountRepository userTaskCountRepository;
+    private final TaskBitmapIndex taskIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DatasetSeeder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, PasswordEncoder passwordEncoder,
+                         UserTaskCountRepository userTaskCountRepository, TaskBitmapIndex taskIndex,
+                         ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.userTaskCountRepository = userTaskCountRepository;
+        this.taskIndex = taskIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Tops the seeded dataset up to the given size; returns the number of tasks inserted. */
+    public long seed(SeedProperties plan) {
+        if (plan.users() < 1 || plan.projects() < 1 || plan.batchSize() < 1)
+            throw new IllegalArgumentException("wfm.seed needs at least one user, one project and a batch size");
+        long started = System.nanoTime();
+        List<Long> userIds = ensureUsers(plan.users());
+        List<Long> tagIds = ensureTags(plan.tags());
+        Dataset dataset = new Dataset(plan, userIds, tagIds, ensureProjects(plan.projects(), userIds));
+        long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks t JOIN projects p ON p.project_id = t.project_id " +
+                "WHERE p.name LIKE ?", Long.class, PROJECT_PREFIX + "%");
+        log.info("Seeding {} tasks over {} projects and {} users; {} there already", plan.tasks(),
+                dataset.projectIds().size(), dataset.userIds().size(), existing);
+
+        long inserted = 0;
+        for (long from = existing; from < plan.tasks(); ) {
+            long batch = from / plan.batchSize();
+            int size = (int) (Math.min((batch + 1) * plan.batchSize(), plan.tasks()) - from);
+            long first = from;
+            transactionTemplate.executeWithoutResult(status ->
+                    insertBatch(dataset, new Random(plan.randomSeed() * 31 + batch), first, size));
+            inserted += size;
+            from += size;
+            log.debug("Seeded {} of {} tasks", from, plan.tasks());
+        }
+        // the open-task counts the services maintain write by write
+        if (inserted > 0)
+            for (List<Long> users : partition(dataset.userIds()))
+                transactionTemplate.executeWithoutResult(status -> userTaskCountRepository.refresh(users, TaskPrioritizer.OPEN_STATUSES));
+        log.info("Seeded {} tasks in {} s", inserted, (System.nanoTime() - started) / 1_000_000_000);
+        return inserted;
+    }
+
+    private List<Long> ensureUsers(int count) {
+        return transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT username FROM app_user WHERE username LIKE ?", String.class, USER_PREFIX + "%"));
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> rows = new ArrayList<>();
+            String password = null;
+            for (int i = 0; i < count; i++) {
+                String username = USER_PREFIX + i;
+                if (existing.contains(username))
+                    continue;
+                // one hash for all: encoding is deliberately slow
+                if (password == null)
+                    password = passwordEncoder.encode(PASSWORD);
+                rows.add(new Object[]{username, password, "Seed User " + i, username + "@example.com", now});
+            }
+            jdbcTemplate.batchUpdate(INSERT_USER, rows);
+            return jdbcTemplate.queryForList("SELECT user_id FROM app_user WHERE username LIKE ? ORDER BY user_id",
+                    Long.class, USER_PREFIX + "%");
+        });
+    }
+
+    private List<Long> ensureTags(int count) {
+        return transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT name FROM tags WHERE name LIKE ?", String.class, TAG_PREFIX + "%"));
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < count; i++)
+                if (!existing.contains(TAG_PREFIX + i))
+                    rows.add(new Object[]{TAG_PREFIX + i});
+            jdbcTemplate.batchUpdate(INSERT_TAG, rows);
+            return jdbcTemplate.queryForList("SELECT tag_id FROM tags WHERE name LIKE ? ORDER BY tag_id",
+                    Long.class, TAG_PREFIX + "%");
+        });
+    }
+
+    private List<Long> ensureProjects(int count, List<Long> userIds) {
+        return transactionTemplate.execute(status -> {
+            Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT name FROM projects WHERE name LIKE ?", String.class, PROJECT_PREFIX + "%"));
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < count; i++)
+                if (!existing.contains(PROJECT_PREFIX + i))
+                    rows.add(new Object[]{PROJECT_PREFIX + i, "Generated for load testing", now, userIds.get(i % userIds.size())});
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_PROJECT, rows);
+                jdbcTemplate.update(LOG_PROJECTS, now, PROJECT_PREFIX + "%");
+            }
+            return jdbcTemplate.queryForList("SELECT project_id FROM projects WHERE name LIKE ? ORDER BY project_id",
+                    Long.class, PROJECT_PREFIX + "%");
+        });
+    }
+
+    private void insertBatch(Dataset dataset, Random random, long first, int size) {
+        SeedProperties plan = dataset.plan();
+        int[] project = new int[size];
+        int[] parent = new int[size];
+        int[] depth = new int[size];
+        int maxDepth = 0;
+        for (int i = 0; i < size; i++) {
+            parent[i] = -1;
+            if (i > 0 && random.nextDouble() < plan.subtaskRatio()) {
+                int candidate = i - 1 - random.nextInt(Math.min(i, RECENT_PARENTS));
+                if (depth[candidate] < plan.subtaskDepth()) {
+                    parent[i] = candidate;
+                    depth[i] = depth[candidate] + 1;
+                    project[i] = project[candidate];
+                    maxDepth = Math.max(maxDepth, depth[i]);
+                    continue;
+                }
+            }
+            project[i] = pick(random, dataset.projectIds().size(), plan.skew());
+        }
+
+        // a level at a time, so every parent has its id before its subtasks go in
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        long[] taskIds = new long[size];
+        for (int level = 0; level <= maxDepth; level++) {
+            List<Integer> tasks = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (depth[i] != level)
+                    continue;
+                LocalDateTime createdAt = now.minusDays(random.nextInt(365));
+                LocalDate dueDate = random.nextInt(5) == 0 ? null : today.plusDays(random.nextInt(181) - 90);
+                tasks.add(i);
+                rows.add(new Object[]{"Seed task " + (first + i), STATUSES[random.nextInt(STATUSES.length)].name(),
+                        PRIORITIES[random.nextInt(PRIORITIES.length)].name(), dueDate, createdAt, createdAt,
+                        dataset.projectIds().get(project[i]), parent[i] < 0 ? null : taskIds[parent[i]]});
+            }
+            long[] ids = insertTasks(rows);
+            for (int k = 0; k < ids.length; k++)
+                taskIds[tasks.get(k)] = ids[k];
+        }
+
+        List<Object[]> assignees = new ArrayList<>();
+        List<Object[]> tags = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            for (Long userId : distinct(random, dataset.userIds(), random.nextInt(plan.maxAssignees() + 1), plan.skew()))
+                assignees.add(new Object[]{taskIds[i], userId});
+            for (Long tagId : distinct(random, dataset.tagIds(), random.nextInt(plan.maxTags() + 1), plan.skew()))
+                tags.add(new Object[]{taskIds[i], tagId});
+            int count = random.nextInt(2 * plan.commentsPerTask() + 1);
+            for (int c = 0; c < count; c++)
+                comments.add(new Object[]{taskIds[i], dataset.userIds().get(pick(random, dataset.userIds().size(), plan.skew())),
+                        "Seed comment " + c, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ASSIGNEE, assignees);
+        jdbcTemplate.batchUpdate(INSERT_TASK_TAG, tags);
+        jdbcTemplate.batchUpdate(INSERT_COMMENT, comments);
+
+        long min = Arrays.stream(taskIds).min().orElseThrow();
+        long max = Arrays.stream(taskIds).max().orElseThrow();
+        jdbcTemplate.update(LOG_TASKS, now, min, max);
+        jdbcTemplate.update(LOG_COMMENTS, now, min, max);
+        List<Long> seeded = Arrays.stream(taskIds).boxed().toList();
+        taskIndex.changed(seeded);
+        eventPublisher.publishEvent(new TasksChangedEvent(seeded));
+    }
+
+    // one JDBC batch, reading back the generated ids in row order
+    private long[] insertTasks(List<Object[]> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_TASK, new String[]{"task_id"})) {
+                for (Object[] row : rows) {
+                    for (int c = 0; c < row.length; c++)
+                        StatementCreatorUtils.setParameterValue(statement, c + 1, SqlTypeValue.TYPE_UNKNOWN, row[c]);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                long[] ids = new long[rows.size()];
+                int k = 0;
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next() && k < ids.length)
+                        ids[k++] = keys.getLong(1);
+                }
+                if (k != ids.length)
+                    throw new IllegalStateException("The driver returned " + k + " task ids for " + ids.length + " rows");
+                return ids;
+            }
+        });
+    }
+
+    // 0 .. bound-1, the lower the likelier the higher the skew (uniform at 0)
+    private static int pick(Random random, int bound, double skew) {
+        return Math.min(bound - 1, (int) (bound * Math.pow(random.nextDouble(), 1 + skew)));
+    }
+
+    private static Set<Long> distinct(Random random, List<Long> ids, int count, double skew) {
+        Set<Long> picked = new HashSet<>();
+        // skewed picks repeat; give up on the count rather than loop on a short list
+        for (int attempt = 0; attempt < 2 * count && picked.size() < Math.min(count, ids.size()); attempt++)
+            picked.add(ids.get(pick(random, ids.size(), skew)));
+        return picked;
+    }
+
+    private static List<List<Long>> partition(List<Long> ids) {
+        List<List<Long>> parts = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += REFRESH_BATCH)
+            parts.add(ids.subList(i, Math.min(i + REFRESH_BATCH, ids.size())));
+        return parts;
+    }
+
+    private record Dataset(SeedProperties plan, List<Long> userIds, List<Long> tagIds, List<Long> projectIds) {}
+}
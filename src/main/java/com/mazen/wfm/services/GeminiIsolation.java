@@ -0,0 +1,20 @@
+package com.mazen.wfm.services;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.time.Duration;
+
+/**
+ * What keeps a slow or failing Vertex AI from spilling over into the rest of the application: model
+ * calls run on the bulkhead's own bounded pool, each gets {@code timeout} (time to the first chunk when
+ * streaming), and the circuit breaker stops calling the model while it keeps failing.
+ */
+public record GeminiIsolation(CircuitBreaker circuitBreaker, ThreadPoolBulkhead bulkhead, Duration timeout)
+        implements AutoCloseable {
+
+    @Override
+    public void close() throws Exception {
+        bulkhead.close();
+    }
+}
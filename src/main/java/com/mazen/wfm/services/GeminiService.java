@@ -1,56 +1,417 @@
 package com.mazen.wfm.services;
 
 
-import com.google.cloud.vertexai.VertexAI;
-import com.google.cloud.vertexai.api.GenerateContentResponse;
-import com.google.cloud.vertexai.generativeai.GenerativeModel;
-import com.google.cloud.vertexai.generativeai.ResponseHandler;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.mazen.wfm.dtos.request.TaskAdviceRequest;
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.models.Priority;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class GeminiService {
 
-    // Inject the API key from application.properties
-    @Value("${gemini.api.key}")
-    private String geminiApiKey;
-    @Value("${gemini.project-id}")
-    private String projectId;
+    static final String NO_TASKS_MESSAGE = "No tasks provided. Please provide at least one task for analysis.";
+    public static final String ERROR_MESSAGE = "Could not generate advice due to an internal error";
 
-    @Value("${gemini.location}")
-    private String location;
+    static final String FALLBACK_HEADER = "AI advice is unavailable right now. Suggested order, by priority and due date:";
 
-    @Value("${gemini.model}")
-    private String modelName;
+    private final TaskAdviceModel model;
+    private final GeminiIsolation isolation;
+    private final MeterRegistry meterRegistry;
+    private final Timer firstChunkTimer;
+    // prompt hash -> advice; identical task sets share one model call, even while it is still running
+    private final AsyncCache<String, String> adviceCache;
 
-    public String manageTasks(List<TaskAdviceRequest> tasks) {
-        // The Google Cloud Project ID and location for Vertex AI
-//        String projectId = "gen-lang-client-0824456149";
-//        String location = "us-central1";
-//        String modelName = "gemini-1.5-flash-001";
+    public GeminiService(@Lazy TaskAdviceModel model,
+                         GeminiIsolation isolation,
+                         @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+                         MeterRegistry meterRegistry,
+                         @Value("${gemini.advice.cache.max-size:10000}") long maxSize,
+                         @Value("${gemini.advice.cache.ttl:6h}") Duration ttl) {
+        this.model = model;
+        this.isolation = isolation;
+        this.meterRegistry = meterRegistry;
+        this.firstChunkTimer = Timer.builder(MetricNames.ADVICE_FIRST_CHUNK)
+                .description("Time from a streaming advice request to its first chunk")
+                .register(meterRegistry);
+        this.adviceCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, adviceCache, "gemini.advice");
+    }
+
+    /**
+     * Advice on how to approach the given tasks. The model call runs on the Gemini bulkhead, so the returned
+     * future never ties up the caller. It never completes exceptionally: when the model fails, times out or
+     * is shut off by the bulkhead or circuit breaker, the answer is a local ordering of the tasks, which is
+     * not cached.
+     */
+    public CompletableFuture<String> manageTasks(List<TaskAdviceRequest> tasks) {
         if (tasks == null || tasks.isEmpty()) {
-            return "No tasks provided. Please provide at least one task for analysis.";
+            return CompletableFuture.completedFuture(NO_TASKS_MESSAGE);
         }
-        try (VertexAI vertexAI = new VertexAI(projectId, location)) {
-            GenerativeModel model = new GenerativeModel(modelName, vertexAI);
+        return generateAdvice(tasks).exceptionally(e -> fallBack(tasks, e));
+    }
 
-            // Construct the prompt for the task manager
-            String promptText = buildPromptForTaskAnalysis(tasks);
+    /**
+     * The model's advice on the given (non-empty) tasks, through the same cache as {@link #manageTasks}, but
+     * failing instead of falling back: for callers that would rather have no advice than the local ordering.
+     */
+    public CompletableFuture<String> generateAdvice(List<TaskAdviceRequest> tasks) {
+        // Construct the prompt for the task manager
+        String promptText = buildPromptForTaskAnalysis(tasks);
+
+        return adviceCache.get(hash(promptText), (key, executor) -> {
+            try {
+                return submit(new AdviceCall(promptText, key));
+            } catch (CallNotPermittedException | BulkheadFullException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
 
-            GenerateContentResponse response = model.generateContent(promptText);
-            return ResponseHandler.getText(response);
+    // Identifies the prompt the given tasks turn into: advice stored under the same key still answers it
+    public String adviceKey(List<TaskAdviceRequest> tasks) {
+        return hash(buildPromptForTaskAnalysis(tasks));
+    }
+
+    /**
+     * Streams advice on the given tasks to {@code listener} chunk by chunk, on the Gemini bulkhead. A cached
+     * answer is delivered at once as a single chunk; a streamed one is cached once complete. The listener's
+     * blocking sends pace the model (chunks are pulled one at a time), and cancelling the returned future
+     * stops the upstream call. If the model cannot be used or fails before its first chunk, the local
+     * ordering is sent instead; the future fails if the model breaks off mid-answer or the listener fails.
+     */
+    public CompletableFuture<Void> streamTasks(List<TaskAdviceRequest> tasks, AdviceListener listener) {
+        if (tasks == null || tasks.isEmpty()) {
+            return deliver(NO_TASKS_MESSAGE, listener);
+        }
+        String promptText = buildPromptForTaskAnalysis(tasks);
+        String key = hash(promptText);
 
+        CompletableFuture<String> cached = adviceCache.getIfPresent(key);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return deliver(cached.join(), listener);
+        }
+        try {
+            return submit(new StreamingCall(promptText, key, tasks, listener));
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            return deliver(fallBack(tasks, e), listener);
+        }
+    }
+
+    static CompletableFuture<Void> deliver(String advice, AdviceListener listener) {
+        try {
+            listener.onChunk(advice);
+            return CompletableFuture.completedFuture(null);
         } catch (IOException e) {
-            // Handle exceptions, e.g., log the error
-            e.printStackTrace();
-            log.error("Error generating task advice: ", e);
-            return "Could not generate advice due to an internal error";
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface AdviceListener {
+        void onChunk(String text) throws IOException;
+    }
+
+    private <T> CompletableFuture<T> submit(ModelCall<T> call) {
+        CircuitBreaker circuitBreaker = isolation.circuitBreaker();
+        if (!circuitBreaker.tryAcquirePermission())
+            throw CallNotPermittedException.createCallNotPermittedException(circuitBreaker);
+        try {
+            isolation.bulkhead().executeRunnable(call);
+        } catch (BulkheadFullException e) {
+            circuitBreaker.releasePermission();
+            throw e;
+        }
+        return call.result;
+    }
+
+    private String fallBack(List<TaskAdviceRequest> tasks, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        String reason;
+        if (cause instanceof CallNotPermittedException) {
+            reason = "circuit_open";
+            log.debug("Gemini circuit breaker is open, serving local task ordering");
+        } else if (cause instanceof BulkheadFullException) {
+            reason = "bulkhead_full";
+            log.debug("Gemini bulkhead is full, serving local task ordering");
+        } else if (cause instanceof TimeoutException) {
+            reason = "timeout";
+            log.warn("Gemini did not answer within {}, serving local task ordering", isolation.timeout());
+        } else {
+            reason = "error";
+            log.error("Error generating task advice: ", cause);
+        }
+        meterRegistry.counter(MetricNames.ADVICE_FALLBACK, MetricNames.TAG_REASON, reason).increment();
+        return localAdvice(tasks);
+    }
+
+    // Highest priority first, then earliest due date; what a person would do without the model
+    static String localAdvice(List<TaskAdviceRequest> tasks) {
+        List<TaskAdviceRequest> ordered = tasks.stream()
+                .sorted(Comparator.comparing(TaskAdviceRequest::getPriority, Comparator.nullsLast(Comparator.<Priority>reverseOrder()))
+                        .thenComparing(TaskAdviceRequest::getDueDate, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder())))
+                .toList();
+        StringBuilder advice = new StringBuilder(FALLBACK_HEADER);
+        for (int i = 0; i < ordered.size(); i++) {
+            TaskAdviceRequest task = ordered.get(i);
+            advice.append('\n').append(i + 1).append(". ").append(task.getTitle())
+                    .append(" (priority ").append(task.getPriority() == null ? "not set" : task.getPriority());
+            if (task.getDueDate() != null)
+                advice.append(", due ").append(task.getDueDate());
+            advice.append(')');
+        }
+        return advice.toString();
+    }
+
+    /**
+     * A call to the model holding a circuit breaker permission, run on the bulkhead. Completing its result
+     * from outside (cancellation, timeout) interrupts the worker, as a blocked gRPC read only notices that
+     * way. The breaker sees exactly one outcome per call: success, failure, or - when the caller went away
+     * before the model answered - nothing.
+     */
+    private abstract class ModelCall<T> implements Runnable {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final long startedAt = System.nanoTime();
+        private Thread worker;
+        private boolean settled;
+
+        ModelCall() {
+            result.whenComplete((ignored, e) -> {
+                if (e != null)
+                    interruptWorker();
+            });
+        }
+
+        abstract void execute();
+
+        @Override
+        public final void run() {
+            if (!begin())
+                return;
+            try {
+                execute();
+            } finally {
+                end();
+            }
+        }
+
+        synchronized void succeeded() {
+            if (!settled) {
+                settled = true;
+                isolation.circuitBreaker().onSuccess(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void failed(Throwable e) {
+            if (!settled) {
+                settled = true;
+                isolation.circuitBreaker().onError(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS, e);
+            }
+        }
+
+        private synchronized boolean begin() {
+            if (result.isDone()) {
+                abandoned();
+                return false;
+            }
+            worker = Thread.currentThread();
+            return true;
+        }
+
+        // clears our interrupt so it cannot leak into the next task on this pooled thread
+        private synchronized void end() {
+            worker = null;
+            Thread.interrupted();
+            abandoned();
+        }
+
+        private synchronized void abandoned() {
+            if (!settled) {
+                settled = true;
+                isolation.circuitBreaker().releasePermission();
+            }
+        }
+
+        synchronized void interruptWorker() {
+            if (worker != null && worker != Thread.currentThread())
+                worker.interrupt();
+        }
+    }
+
+    private final class AdviceCall extends ModelCall<String> {
+        private final String prompt;
+        private final String key;
+
+        AdviceCall(String prompt, String key) {
+            this.prompt = prompt;
+            this.key = key;
+            CompletableFuture.delayedExecutor(isolation.timeout().toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                TimeoutException timeout = new TimeoutException();
+                if (fail(timeout))
+                    failed(timeout);
+            });
+        }
+
+        @Override
+        void execute() {
+            try {
+                String advice = model.generateAdvice(prompt);
+                succeeded();
+                result.complete(advice);
+            } catch (Exception e) {
+                failed(e);
+                fail(e);
+            }
+        }
+
+        // Out of the cache before the failure is seen: the cache drops a failed future only once its own callback
+        // runs, which may be after the caller's fallback, so a retry straight away could still get this one
+        private boolean fail(Throwable e) {
+            if (result.isDone())
+                return false;
+            adviceCache.asMap().remove(key, result);
+            return result.completeExceptionally(e);
+        }
+    }
+
+    private final class StreamingCall extends ModelCall<Void> {
+        private final String prompt;
+        private final String key;
+        private final List<TaskAdviceRequest> tasks;
+        private final AdviceListener listener;
+        private boolean streaming;
+        private TimeoutException timeout;
+
+        StreamingCall(String prompt, String key, List<TaskAdviceRequest> tasks, AdviceListener listener) {
+            this.prompt = prompt;
+            this.key = key;
+            this.tasks = tasks;
+            this.listener = listener;
+            CompletableFuture.delayedExecutor(isolation.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(this::timeOutIfWaiting);
+        }
+
+        @Override
+        void execute() {
+            if (timedOut() != null) {
+                // spent the whole timeout waiting in the bulkhead queue
+                sendFallBack(timedOut());
+                return;
+            }
+            StringBuilder advice = new StringBuilder();
+            try (Stream<String> chunks = model.streamAdvice(prompt)) {
+                Iterator<String> iterator = chunks.iterator();
+                while (!result.isDone() && iterator.hasNext()) {
+                    String chunk = iterator.next();
+                    if (!startStreaming())
+                        break;
+                    if (advice.isEmpty())
+                        firstChunkTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    advice.append(chunk);
+                    try {
+                        listener.onChunk(chunk);
+                    } catch (IOException e) {
+                        // receiver went away (client disconnected), not a model failure
+                        log.debug("Task advice stream receiver closed: {}", e.getMessage());
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                }
+                if (timedOut() != null) {
+                    sendFallBack(timedOut());
+                } else if (!result.isDone()) {
+                    adviceCache.put(key, CompletableFuture.completedFuture(advice.toString()));
+                    succeeded();
+                    result.complete(null);
+                }
+            } catch (Exception e) {
+                if (result.isCancelled())
+                    return;
+                if (timedOut() != null) {
+                    sendFallBack(timedOut());
+                } else if (advice.isEmpty()) {
+                    failed(e);
+                    sendFallBack(e);
+                } else {
+                    failed(e);
+                    log.error("Error streaming task advice: ", e);
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void sendFallBack(Throwable cause) {
+            Thread.interrupted();
+            try {
+                listener.onChunk(fallBack(tasks, cause));
+                result.complete(null);
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        // the model gets isolation.timeout() to produce its first chunk; after that the client's pace rules
+        private synchronized void timeOutIfWaiting() {
+            if (streaming || result.isDone())
+                return;
+            timeout = new TimeoutException("No advice chunk within " + isolation.timeout());
+            failed(timeout);
+            interruptWorker();
+        }
+
+        private synchronized boolean startStreaming() {
+            if (timeout != null)
+                return false;
+            streaming = true;
+            return true;
+        }
+
+        private synchronized TimeoutException timedOut() {
+            return timeout;
+        }
+    }
+
+    private static String hash(String prompt) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
@@ -66,10 +427,10 @@ public class GeminiService {
             promptBuilder.append("Description: ").append(task.getDescription()).append("\n");
             promptBuilder.append("Priority: ").append(task.getPriority()).append("\n");
             promptBuilder.append("Due Date: ").append(task.getDueDate()).append("\n");
-            promptBuilder.append("Number of assigned users: ").append(task.getAssignees().size()).append("\n\n");
+            promptBuilder.append("Number of assigned users: ").append(task.getAssignees() == null ? 0 : task.getAssignees().size()).append("\n\n");
         }
 
         promptBuilder.append("Based on this data, what is your professional advice?");
         return promptBuilder.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.StatusCountDTO;
+import com.mazen.wfm.dtos.response.BurndownDayResponse;
+import com.mazen.wfm.dtos.response.CfdDayResponse;
+import com.mazen.wfm.exceptions.BusinessException;
+import com.mazen.wfm.models.ProjectStatusDay;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.repositories.ArchivedTaskRepository;
+import com.mazen.wfm.repositories.ProjectStatusDayRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.repositories.TaskStatusHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cumulative flow and burndown per project. Past days are read from project_status_daily, a row per project,
+ * day and status that {@link #rollUp} adds every night, so a chart over years reads a few rows per day instead
+ * of replaying task_status_history; today is counted live. Archived tasks count as {@link Status#ARCHIVED}.
+ */
+@Slf4j
+@Service
+public class ProjectAnalyticsService {
+
+    static final int DEFAULT_DAYS = 30;
+    // about ten years of days per chart
+    static final int MAX_DAYS = 3660;
+
+    private static final String INSERT = "INSERT INTO project_status_daily (project_id, on_day, status, tasks) VALUES (?, ?, ?, ?)";
+
+    private final ProjectStatusDayRepository projectStatusDayRepository;
+    private final TaskStatusHistoryRepository taskStatusHistoryRepository;
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final ProjectService projectService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProjectAnalyticsService(ProjectStatusDayRepository projectStatusDayRepository,
+                                   TaskStatusHistoryRepository taskStatusHistoryRepository,
+                                   TaskRepository taskRepository,
+                                   ArchivedTaskRepository archivedTaskRepository,
+                                   ProjectService projectService,
+                                   JdbcTemplate jdbcTemplate) {
+        this.projectStatusDayRepository = projectStatusDayRepository;
+        this.taskStatusHistoryRepository = taskStatusHistoryRepository;
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.projectService = projectService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the rows of every day after the last rolled-up one up to yesterday; returns the number of rows written.
+     * The first run starts at the first recorded transition (or yesterday, without history). Each day is derived
+     * backwards from today's counts by undoing the transitions recorded since, so the rollup needs no earlier rows
+     * and running it twice a day writes nothing the second time.
+     */
+    @Transactional
+    public int rollUp(LocalDate today) {
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate start = projectStatusDayRepository.findLastDay()
+                .map(day -> day.plusDays(1))
+                .orElseGet(() -> taskStatusHistoryRepository.findFirstChangedAt()
+                        .map(LocalDateTime::toLocalDate)
+                        .filter(day -> day.isBefore(yesterday))
+                        .orElse(yesterday));
+        if (start.isAfter(yesterday))
+            return 0;
+
+        Map<Long, Map<Status, Long>> counts = new HashMap<>();
+        taskRepository.countByProjectAndStatus().forEach(count -> add(counts, count, 1));
+        archivedTaskRepository.countByProjectAndStatus().forEach(count -> add(counts, count, 1));
+
+        // net transitions per day: into a status adds one, out of it takes one away
+        Map<LocalDate, Map<Long, Map<Status, Long>>> changes = new HashMap<>();
+        LocalDateTime since = start.plusDays(1).atStartOfDay();
+        taskStatusHistoryRepository.countArrivalsSince(since)
+                .forEach(count -> add(changes.computeIfAbsent(count.day(), day -> new HashMap<>()), count, 1));
+        taskStatusHistoryRepository.countDeparturesSince(since)
+                .forEach(count -> add(changes.computeIfAbsent(count.day(), day -> new HashMap<>()), count, -1));
+
+        // counts hold the end of today; undoing a day's changes gives the end of the day before
+        List<Object[]> rows = new ArrayList<>();
+        for (LocalDate day = today; day.isAfter(start); day = day.minusDays(1)) {
+            changes.getOrDefault(day, Map.of()).forEach((projectId, byStatus) -> byStatus.forEach((status, change) ->
+                    counts.computeIfAbsent(projectId, id -> new EnumMap<>(Status.class)).merge(status, -change, Long::sum)));
+            addRows(rows, day.minusDays(1), counts);
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        log.info("Rolled up project status counts from {} to {}: {} rows", start, yesterday, rows.size());
+        return rows.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<CfdDayResponse> getCumulativeFlow(Long projectId, LocalDate from, LocalDate to) {
+        projectService.getProjectById(projectId);
+        LocalDate today = LocalDate.now();
+        LocalDate end = to == null ? today : to;
+        LocalDate begin = from == null ? end.minusDays(DEFAULT_DAYS) : from;
+        if (begin.isAfter(end))
+            throw new BusinessException("from must not be after to");
+        if (ChronoUnit.DAYS.between(begin, end) >= MAX_DAYS)
+            throw new BusinessException("At most " + MAX_DAYS + " days per request");
+
+        Map<LocalDate, Map<Status, Long>> days = new TreeMap<>();
+        LocalDate first = projectStatusDayRepository.findFirstDay().orElse(null);
+        LocalDate last = projectStatusDayRepository.findLastDay().orElse(null);
+        if (first != null) {
+            LocalDate lo = begin.isAfter(first) ? begin : first;
+            LocalDate hi = end.isBefore(last) ? end : last;
+            // a project without tasks in a status that day has no row for it
+            for (LocalDate day = lo; !day.isAfter(hi); day = day.plusDays(1))
+                days.put(day, zeros());
+            if (!lo.isAfter(hi))
+                for (ProjectStatusDay row : projectStatusDayRepository.findByProjectIdAndDayBetween(projectId, lo, hi))
+                    days.get(row.getDay()).put(row.getStatus(), row.getTasks());
+        }
+        if (!today.isBefore(begin) && !today.isAfter(end)) {
+            Map<Status, Long> live = zeros();
+            taskRepository.countByStatus(projectId).stream().filter(count -> count.status() != null)
+                    .forEach(count -> live.merge(count.status(), count.tasks(), Long::sum));
+            archivedTaskRepository.countByStatus(projectId).forEach(count -> live.merge(Status.ARCHIVED, count.tasks(), Long::sum));
+            days.put(today, live);
+        }
+        return days.entrySet().stream().map(day -> new CfdDayResponse(day.getKey(), day.getValue())).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<BurndownDayResponse> getBurndown(Long projectId, LocalDate from, LocalDate to) {
+        return getCumulativeFlow(projectId, from, to).stream()
+                .map(day -> new BurndownDayResponse(day.day(),
+                        day.tasks().get(Status.TODO) + day.tasks().get(Status.IN_PROGRESS),
+                        day.tasks().get(Status.DONE) + day.tasks().get(Status.ARCHIVED)))
+                .toList();
+    }
+
+    private static void add(Map<Long, Map<Status, Long>> counts, StatusCountDTO count, int sign) {
+        if (count.status() != null)
+            counts.computeIfAbsent(count.projectId(), id -> new EnumMap<>(Status.class))
+                    .merge(count.status(), sign * count.tasks(), Long::sum);
+    }
+
+    private static void addRows(List<Object[]> rows, LocalDate day, Map<Long, Map<Status, Long>> counts) {
+        counts.forEach((projectId, byStatus) -> byStatus.forEach((status, tasks) -> {
+            if (tasks > 0)
+                rows.add(new Object[]{projectId, Date.valueOf(day), status.name(), tasks});
+        }));
+    }
+
+    private static Map<Status, Long> zeros() {
+        Map<Status, Long> tasks = new EnumMap<>(Status.class);
+        for (Status status : Status.values())
+            tasks.put(status, 0L);
+        return tasks;
+    }
+}
@@ -0,0 +1,212 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.event.ProjectChangeEvent;
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Change feed per project over Server-Sent Events (GET /api/projects/{id}/events), so clients no longer poll
+ * the task list. Services publish a {@link ProjectChangeEvent}; once its transaction has committed it goes into
+ * the buffer of every subscriber of that project, which never blocks the publisher. A buffer is drained on a
+ * virtual thread only while it holds events, so an idle connection holds no thread at all.
+ * <p>
+ * A client too slow to keep up fills its buffer ({@code wfm.project-events.buffer-size}); the buffered events
+ * are then dropped and it gets a {@value #RESYNC} event instead, meaning: reload the project's tasks, then
+ * carry on with the events that follow. Nothing is replayed on reconnect, so clients load once after subscribing.
+ */
+@Slf4j
+@Service
+public class ProjectEventBroker {
+
+    static final String RESYNC = "resync";
+    static final String HEARTBEAT = "heartbeat";
+
+    /** Where a subscriber's events go: an SSE connection, or a test double. */
+    interface Sink {
+        void send(String name, Object data) throws IOException;
+
+        void close();
+    }
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("project-events-", 0).factory());
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Counter resyncs;
+
+    public ProjectEventBroker(MeterRegistry meterRegistry,
+                              @Value("${wfm.project-events.buffer-size:256}") int bufferSize,
+                              @Value("${wfm.project-events.timeout:30m}") Duration timeout) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.resyncs = meterRegistry.counter(MetricNames.PROJECT_EVENT_RESYNCS);
+        Gauge.builder(MetricNames.PROJECT_EVENT_SUBSCRIBERS, subscriberCount, AtomicInteger::get)
+                .description("Open project event streams")
+                .register(meterRegistry);
+    }
+
+    /** Opens a stream of the project's changes; the caller checks that the project exists. */
+    public SseEmitter subscribe(Long projectId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = subscribe(projectId, new Sink() {
+            @Override
+            public void send(String name, Object data) throws IOException {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return emitter;
+    }
+
+    Subscriber subscribe(Long projectId, Sink sink) {
+        Subscriber subscriber = new Subscriber(projectId, sink);
+        // added inside the map's atomic section, as unsubscribe removes: otherwise the last subscriber leaving in
+        // between could drop the set this one is about to join
+        subscribers.compute(projectId, (id, listening) -> {
+            Set<Subscriber> set = listening != null ? listening : ConcurrentHashMap.newKeySet();
+            if (set.add(subscriber))
+                subscriberCount.incrementAndGet();
+            return set;
+        });
+        return subscriber;
+    }
+
+    /** Whether anyone listens at all; lets bulk writes skip looking up which projects their tasks belong to. */
+    public boolean hasSubscribers() {
+        return subscriberCount.get() > 0;
+    }
+
+    // fallbackExecution: changes made outside a transaction are committed already
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChange(ProjectChangeEvent event) {
+        Set<Subscriber> listening = subscribers.get(event.projectId());
+        if (listening != null)
+            listening.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    // keeps proxies from closing quiet streams, and finds connections that are gone
+    @Scheduled(fixedDelayString = "${wfm.project-events.heartbeat-interval:20s}")
+    public void heartbeat() {
+        subscribers.values().forEach(listening -> listening.forEach(Subscriber::heartbeat));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().stream().flatMap(Set::stream).toList().forEach(Subscriber::close);
+        senders.shutdown();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.projectId, (id, listening) -> {
+            if (listening.remove(subscriber))
+                subscriberCount.decrementAndGet();
+            return listening.isEmpty() ? null : listening;
+        });
+    }
+
+    /** One stream: its bounded buffer, and at most one virtual thread sending from it at a time. */
+    final class Subscriber {
+
+        private final Long projectId;
+        private final Sink sink;
+        private final BlockingQueue<ProjectChangeEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long projectId, Sink sink) {
+            this.projectId = projectId;
+            this.sink = sink;
+        }
+
+        void offer(ProjectChangeEvent event) {
+            if (!buffer.offer(event)) {
+                // what is buffered is stale once anything is lost: drop it all, the client reloads
+                if (overflowed.compareAndSet(false, true))
+                    resyncs.increment();
+                buffer.clear();
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeatDue.set(true);
+            schedule();
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true))
+                return;
+            unsubscribe(this);
+            buffer.clear();
+            sink.close();
+        }
+
+        private void schedule() {
+            if (!closed.get() && draining.compareAndSet(false, true))
+                senders.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                do {
+                    sendPending();
+                    draining.set(false);
+                    // an offer between the last poll and the reset found draining still set
+                } while (hasPending() && draining.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                log.debug("Project {} event stream closed: {}", projectId, e.toString());
+                close();
+            }
+        }
+
+        private void sendPending() throws IOException {
+            if (heartbeatDue.getAndSet(false))
+                sink.send(HEARTBEAT, "");
+            while (!closed.get()) {
+                if (overflowed.getAndSet(false))
+                    sink.send(RESYNC, Map.of("projectId", projectId));
+                ProjectChangeEvent event = buffer.poll();
+                if (event == null)
+                    return;
+                sink.send(event.type().eventName(), event);
+                if (event.type() == ProjectChangeEvent.Type.PROJECT_DELETED)
+                    close();
+            }
+        }
+
+        private boolean hasPending() {
+            return !closed.get() && (!buffer.isEmpty() || overflowed.get() || heartbeatDue.get());
+        }
+    }
+}
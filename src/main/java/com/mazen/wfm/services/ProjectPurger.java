@@ -0,0 +1,139 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.event.TasksChangedEvent;
+import com.mazen.wfm.models.ChangeLogEntry;
+import com.mazen.wfm.repositories.ArchivedTaskRepository;
+import com.mazen.wfm.repositories.ChangeLogRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.ProjectStatusDayRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.repositories.TaskStatusHistoryRepository;
+import com.mazen.wfm.repositories.UserTaskCountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Deletes a project and everything under it with bulk DELETEs instead of cascading through the entities:
+ * per batch of tasks, their comments, subtask links, assignee and tag rows, then the tasks themselves; then
+ * the project's archived tasks the same way; the project last. Nothing is loaded but task ids, so memory
+ * stays flat whatever the project size.
+ * <p>
+ * Each batch runs in the caller's transaction when there is one (small projects, deleted inline) and in
+ * a transaction of its own otherwise (the background purge), which keeps locks and undo per batch bounded.
+ */
+@Slf4j
+@Service
+public class ProjectPurger {
+
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final ProjectRepository projectRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final UserTaskCountRepository userTaskCountRepository;
+    private final TaskStatusHistoryRepository taskStatusHistoryRepository;
+    private final ProjectStatusDayRepository projectStatusDayRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final TaskArchiveService taskArchiveService;
+    private final TaskBitmapIndex taskIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ProjectPurger(TaskRepository taskRepository,
+                         CommentRepository commentRepository,
+                         ProjectRepository projectRepository,
+                         ArchivedTaskRepository archivedTaskRepository,
+                         UserTaskCountRepository userTaskCountRepository,
+                         TaskStatusHistoryRepository taskStatusHistoryRepository,
+                         ProjectStatusDayRepository projectStatusDayRepository,
+                         ChangeLogRepository changeLogRepository,
+                         TaskArchiveService taskArchiveService,
+                         TaskBitmapIndex taskIndex,
+                         ApplicationEventPublisher eventPublisher,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${wfm.project.delete.batch-size:500}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.projectRepository = projectRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.userTaskCountRepository = userTaskCountRepository;
+        this.taskStatusHistoryRepository = taskStatusHistoryRepository;
+        this.projectStatusDayRepository = projectStatusDayRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.taskArchiveService = taskArchiveService;
+        this.taskIndex = taskIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /** Deletes the project with all its tasks, live and archived, their analytics and change log entries but the project's own; returns the number of tasks deleted. */
+    public long purge(Long projectId) {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> deleteTaskBatch(projectId));
+            deleted += batch;
+        } while (batch > 0);
+        do {
+            batch = transactionTemplate.execute(status -> deleteArchivedTaskBatch(projectId));
+            deleted += batch;
+        } while (batch > 0);
+        transactionTemplate.executeWithoutResult(status -> {
+            taskStatusHistoryRepository.deleteByProjectId(projectId);
+            projectStatusDayRepository.deleteByProjectId(projectId);
+            changeLogRepository.deleteByProjectIdExcept(projectId, ChangeLogEntry.EntityType.PROJECT);
+            projectRepository.deleteProjectById(projectId);
+        });
+        return deleted;
+    }
+
+    /** Purges every soft-deleted project; returns the number of projects purged. */
+    public int purgeDeleted() {
+        List<Long> projectIds = projectRepository.findDeletedProjectIds();
+        int purged = 0;
+        for (Long projectId : projectIds) {
+            try {
+                long tasks = purge(projectId);
+                purged++;
+                log.info("Purged deleted project {} with {} tasks", projectId, tasks);
+            } catch (RuntimeException e) {
+                // the batches done so far stay deleted; the next run carries on from there
+                log.warn("Could not purge deleted project {}: {}", projectId, e.toString());
+            }
+        }
+        return purged;
+    }
+
+    private int deleteTaskBatch(Long projectId) {
+        List<Long> taskIds = taskRepository.findTaskIdsByProjectId(projectId, PageRequest.of(0, batchSize));
+        if (taskIds.isEmpty())
+            return 0;
+        List<Long> assigneeIds = taskRepository.findAssigneeIds(taskIds);
+        commentRepository.deleteByTaskIds(taskIds);
+        // subtasks may sit in a later batch (or another project)
+        taskRepository.detachSubtasks(taskIds);
+        taskRepository.deleteAssigneesByTaskIds(taskIds);
+        taskRepository.deleteTagsByTaskIds(taskIds);
+        taskRepository.deleteByTaskIds(taskIds);
+        userTaskCountRepository.refresh(assigneeIds, TaskPrioritizer.OPEN_STATUSES);
+        taskIndex.changed(taskIds);
+        eventPublisher.publishEvent(new TasksChangedEvent(taskIds));
+        return taskIds.size();
+    }
+
+    private int deleteArchivedTaskBatch(Long projectId) {
+        List<Long> taskIds = archivedTaskRepository.findTaskIdsByProjectId(projectId, PageRequest.of(0, batchSize));
+        if (!taskIds.isEmpty())
+            taskArchiveService.deleteArchived(taskIds);
+        return taskIds.size();
+    }
+}
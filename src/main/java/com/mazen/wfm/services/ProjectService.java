@@ -3,16 +3,25 @@ package com.mazen.wfm.services;
 import com.mazen.wfm.dtos.request.CreateProjectRequest;
 import com.mazen.wfm.dtos.request.UpdateProjectRequest;
 import com.mazen.wfm.dtos.response.ProjectResponse;
+import com.mazen.wfm.event.ProjectChangeEvent;
 import com.mazen.wfm.exceptions.ResourceNotFoundException;
 import com.mazen.wfm.mapper.ProjectMapper;
 import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.ChangeLogEntry;
 import com.mazen.wfm.models.Project;
 import com.mazen.wfm.models.UserRole;
 import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ArchivedTaskRepository;
+import com.mazen.wfm.repositories.ChangeLogRepository;
 import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.repositories.UserTaskCountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -21,40 +30,67 @@ public class ProjectService {
 
     private final ProjectRepository projectRepository;
     private final AppUserRepository appUserRepository;
-//    private final TaskRepository taskRepository;
     private final ProjectMapper projectMapper;
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final UserTaskCountRepository userTaskCountRepository;
+    private final ProjectPurger projectPurger;
+    private final ChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long inlineDeleteMaxTasks;
 
-    public ProjectService(ProjectRepository projectRepository, AppUserRepository appUserRepository, ProjectMapper projectMapper) {
+    public ProjectService(ProjectRepository projectRepository, AppUserRepository appUserRepository, ProjectMapper projectMapper,
+                          TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository,
+                          UserTaskCountRepository userTaskCountRepository,
+                          ProjectPurger projectPurger, ChangeLogRepository changeLogRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${wfm.project.delete.inline-max-tasks:1000}") long inlineDeleteMaxTasks) {
         this.projectRepository = projectRepository;
-//        this.taskRepository = taskRepository;
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.userTaskCountRepository = userTaskCountRepository;
         this.appUserRepository = appUserRepository;
         this.projectMapper = projectMapper;
+        this.projectPurger = projectPurger;
+        this.changeLogRepository = changeLogRepository;
+        this.eventPublisher = eventPublisher;
+        this.inlineDeleteMaxTasks = inlineDeleteMaxTasks;
     }
 
     public ProjectResponse createProject(CreateProjectRequest request, String username) {
         AppUser owner = appUserRepository.findByUsername(username).orElseThrow(() -> new ResourceNotFoundException("Owner not found"));
         Project project = projectMapper.toEntity(request);
         project.setOwner(owner);
-        return projectMapper.toResponse(projectRepository.save(project));
+        Project saved = projectRepository.save(project);
+        logChange(saved.getProjectId(), false);
+        return projectMapper.toResponse(saved);
     }
 
+    @Transactional(readOnly = true)
     public Project getProjectById(Long projectId) {
-        return projectRepository.findById(projectId).orElseThrow(() -> new ResourceNotFoundException("Project Not Found"));
+        return projectRepository.findById(projectId)
+                .filter(project -> project.getDeletedAt() == null)
+                .orElseThrow(() -> new ResourceNotFoundException("Project Not Found"));
     }
 
+    @Transactional(readOnly = true)
     public List<Project> getProjectsByUserName(String username) {
         AppUser user = appUserRepository.findByUsername(username).orElseThrow(() -> new ResourceNotFoundException("User Not Found"));
-        return projectRepository.findByOwner_UserId(user.getUserId());
+        return projectRepository.findByOwner_UserIdAndDeletedAtIsNull(user.getUserId());
     }
 
+    @Transactional(readOnly = true)
     public List<Project> searchProjectsByName(String keyword) {
-        return projectRepository.findByNameContainingIgnoreCase(keyword);
+        return projectRepository.findByNameContainingIgnoreCaseAndDeletedAtIsNull(keyword);
     }
 
     public Project updateProject(long id, UpdateProjectRequest request) {
         Project project = this.getProjectById(id);
         projectMapper.updateEntityFromRequest(request, project);
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        logChange(id, false);
+        eventPublisher.publishEvent(ProjectChangeEvent.projectUpdated(id));
+        return saved;
     }
 
     public void deleteProject(String username, Long projectId) {
@@ -63,6 +99,24 @@ public class ProjectService {
         if (!currUser.getUserId().equals(project.getOwner().getUserId()) && currUser.getRole() != UserRole.ADMIN)  {
             throw new AuthorizationDeniedException("You are not the owner of the project");
         }
-        projectRepository.deleteById(projectId);
+        // Small projects go at once, archived tasks counted in as the purge deletes those too; large ones are hidden
+        // now, tasks included (no task read or write sees a task of a deleted project, nor do the open-task counts),
+        // and purged in batches by ProjectPurgeScheduler
+        long tasks = taskRepository.countByProject_ProjectId(projectId) + archivedTaskRepository.countByProjectId(projectId);
+        if (tasks <= inlineDeleteMaxTasks) {
+            projectPurger.purge(projectId);
+        } else {
+            project.setDeletedAt(LocalDateTime.now());
+            projectRepository.save(project);
+            userTaskCountRepository.refresh(taskRepository.findAssigneeIdsByProjectId(projectId), TaskPrioritizer.OPEN_STATUSES);
+        }
+        // the tombstone stands for everything in the project; ends the project's event streams
+        logChange(projectId, true);
+        eventPublisher.publishEvent(ProjectChangeEvent.projectDeleted(projectId));
+    }
+
+    // for GET /api/sync, in the transaction of the write
+    private void logChange(Long projectId, boolean deleted) {
+        changeLogRepository.changed(ChangeLogEntry.EntityType.PROJECT, projectId, projectId, deleted);
     }
 }
@@ -0,0 +1,116 @@
+package com.mazen.wfm.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller (the leader) runs the load on its own thread,
+ * callers arriving while it runs wait for and share its result, or its exception. A finished result is
+ * served for {@code freshness} more; a failed one is dropped at once, so the next caller tries again.
+ * Results are shared between threads, so they must be immutable (DTOs, not entities).
+ * <p>
+ * Every load is tagged with the generation it started in; {@link #invalidate} starts a new one, and a load
+ * that finishes in a later generation than it started is handed to its waiting callers but not kept, so a
+ * read from before a write can never be served after it. A caller waits at most {@code joinTimeout} for
+ * someone else's load and then loads on its own, so one stuck load cannot hold up every reader of its key.
+ */
+public final class SingleFlight<K, V> {
+
+    private final AsyncCache<K, V> flights;
+    // one counter for all keys: a load overlapping the invalidation of another key is not kept either, which
+    // only costs a reload
+    private final AtomicLong generation = new AtomicLong();
+    private final Duration joinTimeout;
+    private final Counter led;
+    private final Counter shared;
+    private final Counter timedOut;
+
+    public SingleFlight(String name, Duration freshness, Duration joinTimeout, long maxKeys, MeterRegistry meterRegistry) {
+        this(name, freshness, joinTimeout, maxKeys, meterRegistry, Ticker.systemTicker());
+    }
+
+    SingleFlight(String name, Duration freshness, Duration joinTimeout, long maxKeys, MeterRegistry meterRegistry, Ticker ticker) {
+        // loads still in flight never expire, only finished ones do
+        this.flights = Caffeine.newBuilder()
+                .expireAfterWrite(freshness)
+                .maximumSize(maxKeys)
+                .ticker(ticker)
+                .buildAsync();
+        this.joinTimeout = joinTimeout;
+        this.led = meterRegistry.counter(MetricNames.SINGLE_FLIGHT_REQUESTS, MetricNames.TAG_NAME, name, MetricNames.TAG_OUTCOME, "led");
+        this.shared = meterRegistry.counter(MetricNames.SINGLE_FLIGHT_REQUESTS, MetricNames.TAG_NAME, name, MetricNames.TAG_OUTCOME, "shared");
+        this.timedOut = meterRegistry.counter(MetricNames.SINGLE_FLIGHT_REQUESTS, MetricNames.TAG_NAME, name, MetricNames.TAG_OUTCOME, "timeout");
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        // read before the load can see any data, so a write it may have missed has bumped it by the time it ends
+        long started = generation.get();
+        CompletableFuture<V> existing = flights.asMap().putIfAbsent(key, flight);
+        if (existing != null) {
+            shared.increment();
+            return join(existing, loader);
+        }
+        led.increment();
+        try {
+            V value = loader.get();
+            // dropped before it completes: no caller arriving from now on gets the stale value
+            if (generation.get() != started)
+                flights.asMap().remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Forgets the key, so the next caller loads again. Callers already waiting on a load in flight still get
+     * its result; call this after the write has committed.
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        flights.synchronous().invalidate(key);
+    }
+
+    /** {@link #invalidate} for every key, for writes that change what all results are made of. */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        flights.synchronous().invalidateAll();
+    }
+
+    private V join(CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            return flight.get(joinTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the leader is stuck (a lock, a slow replica); this caller does not wait any longer, nor does it
+            // replace the leader's flight, which still serves the others when it ends
+            timedOut.increment();
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            // the leader's own exception (e.g. ResourceNotFoundException), so followers fail the same way
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error cause)
+                throw cause;
+            throw new CompletionException(e.getCause());
+        }
+    }
+}
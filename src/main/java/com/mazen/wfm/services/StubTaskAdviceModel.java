@@ -0,0 +1,30 @@
+package com.mazen.wfm.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Offline stand-in for Vertex: deterministic advice derived from the prompt, no network access
+@Component
+@ConditionalOnProperty(name = "gemini.stub", havingValue = "true")
+public class StubTaskAdviceModel implements TaskAdviceModel {
+
+    @Override
+    public String generateAdvice(String prompt) {
+        String first = prompt.lines()
+                .filter(line -> line.startsWith("Title: "))
+                .map(line -> line.substring("Title: ".length()))
+                .findFirst()
+                .orElse("the first task");
+        long count = prompt.lines().filter(line -> line.startsWith("--- Task ")).count();
+        return "Start with \"" + first + "\", then work through the remaining " + (count - 1)
+                + " task(s) by priority and due date.";
+    }
+
+    @Override
+    public Stream<String> streamAdvice(String prompt) {
+        return Arrays.stream(generateAdvice(prompt).split("(?<= )"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.response.CommentResponse;
+import com.mazen.wfm.dtos.response.ProjectResponse;
+import com.mazen.wfm.dtos.response.SyncDeletion;
+import com.mazen.wfm.dtos.response.SyncResponse;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.exceptions.BusinessException;
+import com.mazen.wfm.mapper.CommentMapper;
+import com.mazen.wfm.mapper.ProjectMapper;
+import com.mazen.wfm.mapper.TaskMapper;
+import com.mazen.wfm.models.ChangeLogEntry;
+import com.mazen.wfm.models.ChangeLogEntry.EntityType;
+import com.mazen.wfm.models.Comment;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.repositories.ChangeLogRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync for clients that keep a copy of some projects (GET /api/sync): the projects, tasks and comments
+ * written since a cursor, as their latest state or a tombstone, a page of change_log entries at a time. The
+ * cursor is a change_log seq, so a sync costs what changed since, not what exists.
+ * <p>
+ * A seq is taken when its entry is inserted but only becomes visible when the transaction commits, so a slow
+ * transaction can commit below a seq a client has already got past. Cursors therefore never move past entries
+ * younger than {@code wfm.sync.settle}: such rows are sent right away, and sent again by the next sync, which
+ * clients apply idempotently.
+ */
+@Slf4j
+@Service
+public class SyncService {
+
+    static final int MAX_PROJECTS = 50;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final ProjectMapper projectMapper;
+    private final TaskMapper taskMapper;
+    private final CommentMapper commentMapper;
+    private final Duration settle;
+
+    public SyncService(ChangeLogRepository changeLogRepository, ProjectRepository projectRepository,
+                       TaskRepository taskRepository, CommentRepository commentRepository,
+                       ProjectMapper projectMapper, TaskMapper taskMapper, CommentMapper commentMapper,
+                       @Value("${wfm.sync.settle:10s}") Duration settle) {
+        this.changeLogRepository = changeLogRepository;
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.projectMapper = projectMapper;
+        this.taskMapper = taskMapper;
+        this.commentMapper = commentMapper;
+        this.settle = settle;
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse getChanges(long since, Set<Long> projectIds, int limit) {
+        if (projectIds.isEmpty() || projectIds.size() > MAX_PROJECTS)
+            throw new BusinessException("Sync between 1 and " + MAX_PROJECTS + " projects at a time");
+        long settled = changeLogRepository.findSeqWrittenBefore(LocalDateTime.now().minus(settle)).orElse(0L);
+        List<ChangeLogEntry> entries = changeLogRepository.findByProjectIdInAndSeqGreaterThanOrderBySeq(
+                projectIds, since, PageRequest.of(0, limit + 1));
+        boolean more = entries.size() > limit;
+        if (more)
+            entries = entries.subList(0, limit);
+
+        // only the latest entry of each row counts; rows gone by now are tombstones whatever their entry says
+        Map<EntityType, Map<Long, ChangeLogEntry>> latest = new EnumMap<>(EntityType.class);
+        for (ChangeLogEntry entry : entries)
+            latest.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>()).put(entry.getEntityId(), entry);
+        List<SyncDeletion> deleted = new ArrayList<>();
+        Map<Long, Project> projects = load(latest, EntityType.PROJECT, deleted, ids -> projectRepository.findAllById(ids).stream()
+                .filter(project -> project.getDeletedAt() == null).toList(), Project::getProjectId);
+        Map<Long, Task> tasks = load(latest, EntityType.TASK, deleted, taskRepository::findByTaskIdIn, Task::getTaskId);
+        Map<Long, Comment> comments = load(latest, EntityType.COMMENT, deleted, commentRepository::findAllById, Comment::getCommentId);
+
+        long last = entries.isEmpty() ? Long.MAX_VALUE : entries.getLast().getSeq();
+        long cursor = Math.max(since, Math.min(last, settled));
+        List<ProjectResponse> projectResponses = projects.values().stream().map(projectMapper::toResponse).toList();
+        List<TaskResponse> taskResponses = tasks.values().stream().map(taskMapper::toResponse).toList();
+        List<CommentResponse> commentResponses = comments.values().stream().map(commentMapper::toResponse).toList();
+        return new SyncResponse(projectResponses, taskResponses, commentResponses, deleted, cursor, more && last <= settled);
+    }
+
+    /** Removes change log entries a later entry supersedes; returns the number removed. */
+    @Transactional
+    public int compact() {
+        int removed = changeLogRepository.compact();
+        log.info("Compacted the change log: {} superseded entries removed", removed);
+        return removed;
+    }
+
+    private static <T> Map<Long, T> load(Map<EntityType, Map<Long, ChangeLogEntry>> latest, EntityType type,
+                                         List<SyncDeletion> deleted, Function<Collection<Long>, List<T>> finder,
+                                         Function<T, Long> id) {
+        Map<Long, ChangeLogEntry> changed = latest.getOrDefault(type, Map.of());
+        List<Long> live = changed.values().stream().filter(entry -> !entry.isDeleted()).map(ChangeLogEntry::getEntityId).toList();
+        Map<Long, T> rows = live.isEmpty() ? Map.of() : finder.apply(live).stream()
+                .collect(Collectors.toMap(id, Function.identity()));
+        changed.keySet().stream().filter(entityId -> !rows.containsKey(entityId))
+                .forEach(entityId -> deleted.add(new SyncDeletion(type, entityId)));
+        // in change order
+        Map<Long, T> ordered = new LinkedHashMap<>();
+        live.stream().filter(rows::containsKey).forEach(entityId -> ordered.put(entityId, rows.get(entityId)));
+        return ordered;
+    }
+}
@@ -29,14 +29,17 @@ public class TagService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Tag getTagById(Long tagId) {
         return tagRepository.findById(tagId).orElseThrow(() -> new ResourceNotFoundException("Tag Not Found"));
     }
 
+    @Transactional(readOnly = true)
     public Tag getTagByName(String name) {
         return tagRepository.findByName(name).orElseThrow(() -> new ResourceNotFoundException("Tag Not Found"));
     }
 
+    @Transactional(readOnly = true)
     public List<Tag> getAllTags() {
         return tagRepository.findAll();
     }
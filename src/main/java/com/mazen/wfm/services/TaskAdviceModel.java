@@ -0,0 +1,20 @@
+package com.mazen.wfm.services;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * The generative model behind {@link GeminiService}: Vertex AI Gemini in production, or a local stub
+ * when {@code gemini.stub=true} (tests, offline development).
+ */
+public interface TaskAdviceModel {
+    String generateAdvice(String prompt) throws IOException;
+
+    /**
+     * The advice as it is generated. The stream is lazy: chunks are only requested from the model as
+     * the caller pulls them, and closing it abandons the rest of the answer.
+     */
+    default Stream<String> streamAdvice(String prompt) throws IOException {
+        return Stream.of(generateAdvice(prompt));
+    }
+}
@@ -0,0 +1,178 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.request.TaskAdviceRequest;
+import com.mazen.wfm.exceptions.ResourceNotFoundException;
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.models.TaskAdvice;
+import com.mazen.wfm.repositories.TaskAdviceRepository;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Task advice for a user: answered from the advice the nightly job stored when it still matches the
+ * user's tasks, generated by {@link GeminiService} otherwise.
+ */
+@Slf4j
+@Service
+public class TaskAdviceService {
+
+    // users whose tasks are read and mapped per round of the precompute job
+    private static final int PRECOMPUTE_BATCH_SIZE = 100;
+
+    private final GeminiService geminiService;
+    private final TaskService taskService;
+    private final TaskAdviceRepository taskAdviceRepository;
+    private final MeterRegistry meterRegistry;
+    private final int maxTasks;
+    private final Duration maxAge;
+    private final Duration activeWindow;
+    private final CronExpression schedule;
+    private final int parallelism;
+    private final RateLimiter rateLimiter;
+
+    public TaskAdviceService(GeminiService geminiService,
+                             TaskService taskService,
+                             TaskAdviceRepository taskAdviceRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${gemini.advice.max-tasks:20}") int maxTasks,
+                             @Value("${gemini.advice.stored.max-age:36h}") Duration maxAge,
+                             @Value("${gemini.advice.precompute.active-window:14d}") Duration activeWindow,
+                             @Value("${gemini.advice.precompute.cron:0 0 3 * * *}") String cron,
+                             @Value("${gemini.advice.precompute.parallelism:2}") int parallelism,
+                             @Value("${gemini.advice.precompute.calls-per-minute:60}") int callsPerMinute) {
+        this.geminiService = geminiService;
+        this.taskService = taskService;
+        this.taskAdviceRepository = taskAdviceRepository;
+        this.meterRegistry = meterRegistry;
+        this.maxTasks = maxTasks;
+        this.maxAge = maxAge;
+        this.activeWindow = activeWindow;
+        this.schedule = CronExpression.parse(cron);
+        this.parallelism = parallelism;
+        // one call every 60/n seconds rather than bursts of n at the top of each minute
+        this.rateLimiter = RateLimiter.of("gemini-precompute", RateLimiterConfig.custom()
+                .limitForPeriod(1)
+                .limitRefreshPeriod(Duration.ofMinutes(1).dividedBy(callsPerMinute))
+                .timeoutDuration(Duration.ofMinutes(1))
+                .build());
+    }
+
+    /** Advice on the user's open tasks; never completes exceptionally (see {@link GeminiService#manageTasks}). */
+    public CompletableFuture<String> advise(Long userId) {
+        List<TaskAdviceRequest> tasks = tasksFor(userId);
+        return storedAdvice(userId, tasks)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> geminiService.manageTasks(tasks));
+    }
+
+    /** Streams advice on the user's open tasks; stored advice comes as a single chunk (see {@link GeminiService#streamTasks}). */
+    public CompletableFuture<Void> streamAdvice(Long userId, GeminiService.AdviceListener listener) {
+        List<TaskAdviceRequest> tasks = tasksFor(userId);
+        return storedAdvice(userId, tasks)
+                .map(advice -> GeminiService.deliver(advice, listener))
+                .orElseGet(() -> geminiService.streamTasks(tasks, listener));
+    }
+
+    /**
+     * Generates and stores advice for every active user whose open tasks (or their assignees and tags) changed
+     * since their advice was last stored, who has none, or whose advice would be past max-age before the next
+     * run. At most {@code parallelism} model calls run at once (leaving the rest of the Gemini
+     * bulkhead to interactive requests), started no faster than the configured rate. Failed calls store
+     * nothing; those users get live advice until the next run. Returns the number of users stored.
+     */
+    public int precompute() {
+        LocalDateTime now = LocalDateTime.now();
+        // advice stored before this is too old to still be served when the next run comes
+        LocalDateTime refreshBefore = now.minus(maxAge).plus(runInterval(now));
+        List<Long> userIds = taskAdviceRepository.findUsersNeedingAdvice(
+                TaskPrioritizer.OPEN_STATUSES, now.minus(activeWindow), refreshBefore);
+        log.info("Precomputing task advice for {} users", userIds.size());
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger stored = new AtomicInteger();
+        try {
+            for (int from = 0; from < userIds.size(); from += PRECOMPUTE_BATCH_SIZE) {
+                List<Long> batch = userIds.subList(from, Math.min(from + PRECOMPUTE_BATCH_SIZE, userIds.size()));
+                LocalDateTime readAt = LocalDateTime.now();
+                List<CompletableFuture<?>> calls = new ArrayList<>();
+                for (Map.Entry<Long, List<TaskAdviceRequest>> entry : taskService.getAdviceRequests(batch, maxTasks).entrySet()) {
+                    permits.acquire();
+                    if (!rateLimiter.acquirePermission()) {
+                        permits.release();
+                        precomputed("skipped");
+                        continue;
+                    }
+                    calls.add(precompute(entry.getKey(), entry.getValue(), readAt)
+                            .whenComplete((ignored, e) -> permits.release())
+                            .thenRun(stored::incrementAndGet));
+                }
+                CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Task advice precompute interrupted after {} users", stored.get());
+        }
+        return stored.get();
+    }
+
+    // the gap between the job's next two runs
+    private Duration runInterval(LocalDateTime now) {
+        LocalDateTime next = schedule.next(now);
+        LocalDateTime afterNext = next == null ? null : schedule.next(next);
+        return afterNext == null ? Duration.ZERO : Duration.between(next, afterNext);
+    }
+
+    private CompletableFuture<Void> precompute(Long userId, List<TaskAdviceRequest> tasks, LocalDateTime readAt) {
+        return geminiService.generateAdvice(tasks)
+                .thenAccept(advice -> {
+                    taskAdviceRepository.save(new TaskAdvice(userId, geminiService.adviceKey(tasks), advice, readAt));
+                    precomputed("stored");
+                })
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.warn("Could not precompute task advice for user {}: {}", userId, e.toString());
+                        precomputed("failed");
+                    }
+                });
+    }
+
+    private Optional<String> storedAdvice(Long userId, List<TaskAdviceRequest> tasks) {
+        Optional<TaskAdvice> stored = taskAdviceRepository.findById(userId);
+        String outcome;
+        if (stored.isEmpty())
+            outcome = "miss";
+        else if (!stored.get().getPromptHash().equals(geminiService.adviceKey(tasks))
+                || stored.get().getGeneratedAt().isBefore(LocalDateTime.now().minus(maxAge)))
+            outcome = "stale";
+        else
+            outcome = "hit";
+        meterRegistry.counter(MetricNames.ADVICE_STORED, MetricNames.TAG_OUTCOME, outcome).increment();
+        return "hit".equals(outcome) ? stored.map(TaskAdvice::getAdvice) : Optional.empty();
+    }
+
+    // the user's open tasks, ranked and capped so the prompt stays small and its wording (the cache key) stable
+    private List<TaskAdviceRequest> tasksFor(Long userId) {
+        List<TaskAdviceRequest> tasks = taskService.getAdviceRequests(List.of(userId), maxTasks).getOrDefault(userId, List.of());
+        if (tasks.isEmpty())
+            throw new ResourceNotFoundException("No tasks found");
+        return tasks;
+    }
+
+    private void precomputed(String outcome) {
+        meterRegistry.counter(MetricNames.ADVICE_PRECOMPUTED, MetricNames.TAG_OUTCOME, outcome).increment();
+    }
+}
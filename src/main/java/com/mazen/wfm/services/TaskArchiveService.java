@@ -0,0 +1,174 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.event.ProjectChangeEvent;
+import com.mazen.wfm.event.TaskStatusChangedEvent;
+import com.mazen.wfm.exceptions.BusinessException;
+import com.mazen.wfm.exceptions.ResourceNotFoundException;
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.models.ArchivedComment;
+import com.mazen.wfm.models.ArchivedTask;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.repositories.ArchivedCommentRepository;
+import com.mazen.wfm.repositories.ArchivedTaskRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hot/cold storage of tasks. {@link #archive()} moves tasks that have been {@link Status#ARCHIVED} for a while,
+ * with their comments, assignee and tag rows, from the live tables into the archive tables, a batch per
+ * transaction, so the live tables (and their indexes) only hold work that can still change. Archived tasks are
+ * read through their own endpoints and can be {@link #restore restored} one at a time.
+ */
+@Slf4j
+@Service
+public class TaskArchiveService {
+
+    // restored tasks come back as DONE, so the next archive run does not take them straight back
+    static final Status RESTORED_STATUS = Status.DONE;
+
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final ArchivedCommentRepository archivedCommentRepository;
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final ProjectRepository projectRepository;
+    private final TaskService taskService;
+    private final TaskBitmapIndex taskIndex;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration minAge;
+
+    public TaskArchiveService(ArchivedTaskRepository archivedTaskRepository,
+                              ArchivedCommentRepository archivedCommentRepository,
+                              TaskRepository taskRepository,
+                              CommentRepository commentRepository,
+                              ProjectRepository projectRepository,
+                              TaskService taskService,
+                              TaskBitmapIndex taskIndex,
+                              MeterRegistry meterRegistry,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${wfm.archive.batch-size:500}") int batchSize,
+                              @Value("${wfm.archive.min-age:7d}") Duration minAge) {
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.archivedCommentRepository = archivedCommentRepository;
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.projectRepository = projectRepository;
+        this.taskService = taskService;
+        this.taskIndex = taskIndex;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.minAge = minAge;
+    }
+
+    /**
+     * Moves every task archived longer than the minimum age into the archive tables; returns the number moved.
+     * A failed batch is rolled back and left for the next run.
+     */
+    public long archive() {
+        LocalDateTime before = LocalDateTime.now().minus(minAge);
+        long moved = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> archiveBatch(before));
+                moved += batch;
+            } while (batch > 0);
+        } catch (RuntimeException e) {
+            log.warn("Task archival stopped after {} tasks: {}", moved, e.toString());
+        }
+        if (moved > 0)
+            log.info("Archived {} tasks", moved);
+        meterRegistry.counter(MetricNames.TASKS_ARCHIVED).increment(moved);
+        return moved;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArchivedTask> getArchivedTasksByProject(Long projectId, Pageable pageable) {
+        return archivedTaskRepository.findByProjectId(projectId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public ArchivedTask getArchivedTask(Long taskId) {
+        return archivedTaskRepository.findWithLinksByTaskId(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("No archived task with this id"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ArchivedComment> getArchivedComments(Long taskId) {
+        return archivedCommentRepository.findByTaskIdOrderByCreatedAt(taskId);
+    }
+
+    /**
+     * Moves an archived task back into the live tables, as {@link #RESTORED_STATUS}. Its parent link, assignees,
+     * tags and comments come back as far as what they point at still exists.
+     */
+    @Transactional
+    public Task restore(Long taskId) {
+        ArchivedTask archived = getArchivedTask(taskId);
+        projectRepository.findById(archived.getProjectId())
+                .filter(project -> project.getDeletedAt() == null)
+                .orElseThrow(() -> new BusinessException("The project of this task no longer exists"));
+        List<Long> ids = List.of(taskId);
+        archivedTaskRepository.restoreTask(taskId, RESTORED_STATUS.name(), LocalDateTime.now());
+        archivedTaskRepository.restoreAssignees(taskId);
+        archivedTaskRepository.restoreTags(taskId);
+        archivedTaskRepository.restoreComments(taskId);
+        deleteArchived(ids);
+        taskIndex.changed(ids);
+        // archiving leaves the status alone (the task stays ARCHIVED, only elsewhere), restoring changes it
+        eventPublisher.publishEvent(new TaskStatusChangedEvent(taskId, archived.getProjectId(), archived.getStatus(),
+                RESTORED_STATUS, LocalDateTime.now()));
+        taskService.publishChanges(ids, ProjectChangeEvent.Type.TASK_CREATED);
+        meterRegistry.counter(MetricNames.TASKS_RESTORED).increment();
+        return taskService.getTaskById(taskId);
+    }
+
+    /** Removes archived tasks with all their rows; used when their project is purged. */
+    void deleteArchived(List<Long> taskIds) {
+        archivedTaskRepository.deleteCommentsByTaskIds(taskIds);
+        archivedTaskRepository.deleteAssigneesByTaskIds(taskIds);
+        archivedTaskRepository.deleteTagsByTaskIds(taskIds);
+        archivedTaskRepository.deleteByTaskIds(taskIds);
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        List<Long> taskIds = taskRepository.findArchivableTaskIds(Status.ARCHIVED, before, PageRequest.of(0, batchSize));
+        if (taskIds.isEmpty())
+            return 0;
+        // to subscribers of the project and to clients syncing it, the task is gone
+        taskService.publishChanges(taskIds, ProjectChangeEvent.Type.TASK_DELETED);
+        archivedTaskRepository.archiveTasks(taskIds, LocalDateTime.now());
+        archivedTaskRepository.archiveAssignees(taskIds);
+        archivedTaskRepository.archiveTags(taskIds);
+        archivedTaskRepository.archiveComments(taskIds);
+        // ARCHIVED tasks are not open, so no user's open-task count changes (nor when restored as DONE)
+        commentRepository.deleteByTaskIds(taskIds);
+        taskRepository.deleteAssigneesByTaskIds(taskIds);
+        taskRepository.deleteTagsByTaskIds(taskIds);
+        taskRepository.deleteByTaskIds(taskIds);
+        taskIndex.changed(taskIds);
+        return taskIds.size();
+    }
+}
@@ -0,0 +1,345 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.TaskIndexDTO;
+import com.mazen.wfm.dtos.TaskQueryFilter;
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.repositories.TaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory secondary index of the live tasks: a compressed bitmap of task ids per tag, assignee, status and
+ * priority. "Tagged A and B, assigned to X, in progress" becomes a few bitmap intersections instead of joins
+ * over task_tags and task_assignments; {@link TaskService#queryTasks} then only sorts and pages the matching
+ * ids in SQL.
+ *
+ * <p>Built in the background once the application is ready, then kept up to date: whatever writes a task or its
+ * links marks the task {@link #changed}, and its rows are read again once the transaction has committed. While
+ * the index is not ready (still building, or {@code wfm.task-index.enabled=false}) lookups answer nothing and
+ * queries run in SQL alone. Task ids must fit in an int.
+ */
+@Slf4j
+@Service
+public class TaskBitmapIndex {
+
+    private static final RoaringBitmap NONE = new RoaringBitmap();
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readTransaction;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxCandidates;
+    private final int batchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // One reload reads and applies at a time: two reloads of a task (two commits) could otherwise read in one
+    // order and apply in the other, leaving the older rows indexed. Queries only wait for the apply.
+    private final Lock reloading = new ReentrantLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+    // guarded by lock
+    private Bitmaps bitmaps = new Bitmaps();
+    // tasks changed while a build runs, read again into the new bitmaps once it is done; guarded by lock
+    private Set<Long> changedDuringBuild;
+    private volatile boolean ready;
+
+    public TaskBitmapIndex(TaskRepository taskRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${wfm.task-index.enabled:true}") boolean enabled,
+                           @Value("${wfm.task-index.max-candidates:1000}") int maxCandidates,
+                           @Value("${wfm.task-index.batch-size:1000}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+        this.batchSize = batchSize;
+        // A transaction of its own, as reloads run after the writing one has finished. Not read-only, so a lagging
+        // replica can't hand back the rows as they were before the write.
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder(MetricNames.TASK_INDEX_TASKS, this, TaskBitmapIndex::size)
+                .description("Live tasks in the bitmap index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (enabled && building.compareAndSet(false, true))
+            Thread.ofVirtual().name("task-index-build").start(this::build);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of the tasks with the filter's assignee, tags, statuses and priorities, in ascending order. Empty when
+     * the index can't narrow the query down: not ready, or more than {@code wfm.task-index.max-candidates} match
+     * (a long IN list would cost more than the joins it saves).
+     */
+    public Optional<List<Long>> findCandidateIds(TaskQueryFilter filter) {
+        if (!ready)
+            return lookup("not_ready", Optional.empty());
+        RoaringBitmap matching;
+        lock.readLock().lock();
+        try {
+            matching = bitmaps.matching(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (matching.getCardinality() > maxCandidates)
+            return lookup("too_many", Optional.empty());
+        List<Long> ids = new ArrayList<>(matching.getCardinality());
+        matching.forEach((int taskId) -> ids.add((long) taskId));
+        return lookup(ids.isEmpty() ? "empty" : "narrowed", Optional.of(ids));
+    }
+
+    /**
+     * Marks tasks whose row or links the current transaction wrote or deleted. They are read again once it
+     * commits (right away outside a transaction), and dropped from the index when they no longer exist.
+     */
+    public void changed(Collection<Long> taskIds) {
+        if (taskIds.isEmpty() || !(ready || building.get()))
+            return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload(taskIds);
+            return;
+        }
+        PendingReload pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingReload.class::isInstance)
+                .map(PendingReload.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingReload reload = new PendingReload();
+                    TransactionSynchronizationManager.registerSynchronization(reload);
+                    return reload;
+                });
+        pending.taskIds.addAll(taskIds);
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reads every live task into new bitmaps, batchSize at a time, swaps them in and replays what changed meanwhile
+    void build() {
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Bitmaps fresh = new Bitmaps();
+            List<Long> ids;
+            long after = 0;
+            do {
+                long from = after;
+                ids = readTransaction.execute(status -> taskRepository.findTaskIdsAfter(from, PageRequest.of(0, batchSize)));
+                if (!ids.isEmpty()) {
+                    List<Long> batch = ids;
+                    fresh.replace(batch, readTransaction.execute(status -> taskRepository.findIndexRows(batch)));
+                    after = ids.getLast();
+                }
+            } while (ids.size() == batchSize);
+            fresh.optimize();
+
+            Set<Long> replay;
+            lock.writeLock().lock();
+            try {
+                bitmaps = fresh;
+                replay = changedDuringBuild;
+                changedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            reload(replay);
+            ready = true;
+            log.info("Task index built with {} tasks", size());
+        } catch (RuntimeException e) {
+            log.error("Could not build the task index, task queries will not use it", e);
+            lock.writeLock().lock();
+            try {
+                changedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            building.set(false);
+        }
+    }
+
+    private void reload(Collection<Long> taskIds) {
+        List<Long> ids = List.copyOf(taskIds);
+        try {
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                reloading.lock();
+                try {
+                    List<TaskIndexDTO> rows = readTransaction.execute(status -> taskRepository.findIndexRows(batch));
+                    lock.writeLock().lock();
+                    try {
+                        bitmaps.replace(batch, rows);
+                        if (changedDuringBuild != null)
+                            changedDuringBuild.addAll(batch);
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                } finally {
+                    reloading.unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            // the index may now be missing a change: stop answering from it until it has been built again
+            log.warn("Could not update the task index, rebuilding it", e);
+            ready = false;
+            buildInBackground();
+        }
+    }
+
+    private <T> T lookup(String outcome, T result) {
+        meterRegistry.counter(MetricNames.TASK_INDEX_LOOKUPS, MetricNames.TAG_OUTCOME, outcome).increment();
+        return result;
+    }
+
+    // Collects the tasks one transaction marked and reloads them once, after it has committed
+    private final class PendingReload implements TransactionSynchronization {
+
+        private final Set<Long> taskIds = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED)
+                reload(taskIds);
+        }
+    }
+
+    // What a task is indexed under, so a change can take it out of its old bitmaps
+    private record Entry(Status status, Priority priority, long[] tagIds, long[] userIds) {
+    }
+
+    // Not thread-safe; guarded by the index's lock
+    private static final class Bitmaps {
+
+        private final Map<Long, RoaringBitmap> byTag = new HashMap<>();
+        private final Map<Long, RoaringBitmap> byAssignee = new HashMap<>();
+        private final Map<Status, RoaringBitmap> byStatus = new EnumMap<>(Status.class);
+        private final Map<Priority, RoaringBitmap> byPriority = new EnumMap<>(Priority.class);
+        private final Map<Integer, Entry> entries = new HashMap<>();
+
+        // The rows (see TaskRepository#findIndexRows) replace what was indexed for these tasks; tasks without
+        // rows no longer exist
+        void replace(Collection<Long> taskIds, List<TaskIndexDTO> rows) {
+            for (Long taskId : taskIds)
+                remove(Math.toIntExact(taskId));
+            rows.stream()
+                    .collect(Collectors.groupingBy(TaskIndexDTO::taskId))
+                    .forEach((taskId, taskRows) -> add(Math.toIntExact(taskId), new Entry(
+                            taskRows.getFirst().status(),
+                            taskRows.getFirst().priority(),
+                            taskRows.stream().map(TaskIndexDTO::tagId).filter(id -> id != null).distinct().mapToLong(Long::longValue).toArray(),
+                            taskRows.stream().map(TaskIndexDTO::userId).filter(id -> id != null).distinct().mapToLong(Long::longValue).toArray())));
+        }
+
+        RoaringBitmap matching(TaskQueryFilter filter) {
+            List<RoaringBitmap> all = new ArrayList<>();
+            if (filter.assigneeId() != null)
+                all.add(byAssignee.getOrDefault(filter.assigneeId(), NONE));
+            if (filter.tagIds() != null && !filter.tagIds().isEmpty()) {
+                List<RoaringBitmap> tags = filter.tagIds().stream().map(id -> byTag.getOrDefault(id, NONE)).toList();
+                if (filter.allTags())
+                    all.addAll(tags);
+                else
+                    all.add(RoaringBitmap.or(tags.iterator()));
+            }
+            if (filter.statuses() != null && !filter.statuses().isEmpty())
+                all.add(RoaringBitmap.or(filter.statuses().stream().map(s -> byStatus.getOrDefault(s, NONE)).iterator()));
+            if (filter.priorities() != null && !filter.priorities().isEmpty())
+                all.add(RoaringBitmap.or(filter.priorities().stream().map(p -> byPriority.getOrDefault(p, NONE)).iterator()));
+            if (all.isEmpty())
+                throw new IllegalArgumentException("The filter has nothing the index can answer");
+
+            // smallest first, so every AND works on as few ids as possible
+            all.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            RoaringBitmap matching = all.getFirst().clone();
+            for (int i = 1; i < all.size() && !matching.isEmpty(); i++)
+                matching.and(all.get(i));
+            return matching;
+        }
+
+        void optimize() {
+            byTag.values().forEach(RoaringBitmap::runOptimize);
+            byAssignee.values().forEach(RoaringBitmap::runOptimize);
+            byStatus.values().forEach(RoaringBitmap::runOptimize);
+            byPriority.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private void add(int taskId, Entry entry) {
+            entries.put(taskId, entry);
+            if (entry.status() != null)
+                byStatus.computeIfAbsent(entry.status(), key -> new RoaringBitmap()).add(taskId);
+            if (entry.priority() != null)
+                byPriority.computeIfAbsent(entry.priority(), key -> new RoaringBitmap()).add(taskId);
+            for (long tagId : entry.tagIds())
+                byTag.computeIfAbsent(tagId, key -> new RoaringBitmap()).add(taskId);
+            for (long userId : entry.userIds())
+                byAssignee.computeIfAbsent(userId, key -> new RoaringBitmap()).add(taskId);
+        }
+
+        private void remove(int taskId) {
+            Entry entry = entries.remove(taskId);
+            if (entry == null)
+                return;
+            if (entry.status() != null)
+                byStatus.get(entry.status()).remove(taskId);
+            if (entry.priority() != null)
+                byPriority.get(entry.priority()).remove(taskId);
+            for (long tagId : entry.tagIds())
+                removeFrom(byTag, tagId, taskId);
+            for (long userId : entry.userIds())
+                removeFrom(byAssignee, userId, taskId);
+        }
+
+        // drops emptied bitmaps, as tags and users come and go
+        private static void removeFrom(Map<Long, RoaringBitmap> bitmaps, long key, int taskId) {
+            RoaringBitmap bitmap = bitmaps.get(key);
+            bitmap.remove(taskId);
+            if (bitmap.isEmpty())
+                bitmaps.remove(key);
+        }
+    }
+}
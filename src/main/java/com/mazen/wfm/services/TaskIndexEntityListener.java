@@ -0,0 +1,31 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.models.Task;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+/**
+ * Marks tasks written through the entity (saved, updated, removed) as changed in the {@link TaskBitmapIndex}.
+ * Writes that bypass it (join-table and bulk statements) mark their tasks themselves.
+ */
+public class TaskIndexEntityListener {
+
+    // Hibernate creates this through Spring while it starts up, before the index (which needs the repositories)
+    // can exist; it is looked up on use instead, and absent in slices without services (@DataJpaTest)
+    private final ObjectProvider<TaskBitmapIndex> taskIndex;
+
+    public TaskIndexEntityListener(ObjectProvider<TaskBitmapIndex> taskIndex) {
+        this.taskIndex = taskIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Task task) {
+        taskIndex.ifAvailable(index -> index.changed(List.of(task.getTaskId())));
+    }
+}
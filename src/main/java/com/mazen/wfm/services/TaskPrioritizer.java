@@ -0,0 +1,93 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.TaskRankingDTO;
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Deterministic "what should I do next" ranking of open tasks, the cheap answer to most questions we
+ * would otherwise send to Gemini. A task's score adds up:
+ * <ul>
+ *     <li>its priority (LOW 10 .. URGENT 40),</li>
+ *     <li>how close its due date is (up to 35 when due today, more the longer it is overdue, nothing a week out),</li>
+ *     <li>a bonus when it is a subtask of an open task (it unblocks the parent) and a penalty when it still
+ *     has open subtasks itself (it cannot be finished yet),</li>
+ *     <li>a bonus that shrinks with the number of assignees (nobody else is going to do a task you own alone).</li>
+ * </ul>
+ * Ties go to the earlier due date, then the older task. Selecting the top K keeps a heap of K tasks,
+ * so ranking costs O(n log k).
+ */
+@Component
+public class TaskPrioritizer {
+
+    public static final List<Status> OPEN_STATUSES = List.of(Status.TODO, Status.IN_PROGRESS);
+
+    private static final double UNSET_PRIORITY_WEIGHT = 15;
+    private static final double DUE_TODAY_WEIGHT = 35;
+    private static final double DUE_DECAY_PER_DAY = 5;
+    private static final double OVERDUE_WEIGHT_PER_DAY = 1;
+    private static final double MAX_OVERDUE_WEIGHT = 15;
+    private static final double UNBLOCKS_PARENT_BONUS = 10;
+    private static final double BLOCKED_PENALTY = 25;
+    private static final double SOLE_ASSIGNEE_BONUS = 10;
+
+    /** The best {@code k} of {@code tasks}, best first. */
+    public List<TaskRankingDTO> topK(Collection<TaskRankingDTO> tasks, int k, LocalDate today) {
+        if (k <= 0 || tasks.isEmpty())
+            return List.of();
+        Comparator<Ranked> bestFirst = Comparator.comparingDouble(Ranked::score).reversed()
+                .thenComparing(ranked -> ranked.task().dueDate(), Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(ranked -> ranked.task().taskId(), Comparator.nullsLast(Comparator.naturalOrder()));
+        // worst of the current top k on top, so it is the one evicted
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(Math.min(k, tasks.size()) + 1, bestFirst.reversed());
+        for (TaskRankingDTO task : tasks) {
+            heap.offer(new Ranked(task, score(task, today)));
+            if (heap.size() > k)
+                heap.poll();
+        }
+        List<Ranked> best = new ArrayList<>(heap);
+        best.sort(bestFirst);
+        return best.stream().map(Ranked::task).toList();
+    }
+
+    public double score(TaskRankingDTO task, LocalDate today) {
+        double score = priorityWeight(task.priority()) + dueDateWeight(task.dueDate(), today);
+        if (task.parentStatus() != null && OPEN_STATUSES.contains(task.parentStatus()))
+            score += UNBLOCKS_PARENT_BONUS;
+        if (task.openSubtasks() != null && task.openSubtasks() > 0)
+            score -= BLOCKED_PENALTY;
+        int assignees = task.assignees() == null ? 0 : task.assignees();
+        return score + SOLE_ASSIGNEE_BONUS / Math.max(1, assignees);
+    }
+
+    private static double priorityWeight(Priority priority) {
+        if (priority == null)
+            return UNSET_PRIORITY_WEIGHT;
+        return switch (priority) {
+            case LOW -> 10;
+            case MEDIUM -> 20;
+            case HIGH -> 30;
+            case URGENT -> 40;
+        };
+    }
+
+    private static double dueDateWeight(LocalDate dueDate, LocalDate today) {
+        if (dueDate == null)
+            return 0;
+        long days = ChronoUnit.DAYS.between(today, dueDate);
+        if (days < 0)
+            return DUE_TODAY_WEIGHT + Math.min(-days * OVERDUE_WEIGHT_PER_DAY, MAX_OVERDUE_WEIGHT);
+        return Math.max(0, DUE_TODAY_WEIGHT - days * DUE_DECAY_PER_DAY);
+    }
+
+    private record Ranked(TaskRankingDTO task, double score) {}
+}
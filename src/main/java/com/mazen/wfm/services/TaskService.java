@@ -1,28 +1,49 @@
 package com.mazen.wfm.services;
 
 //import com.mazen.wfm.config.RabbitMQConfig;
+import com.mazen.wfm.dtos.TaskInboxCursor;
+import com.mazen.wfm.dtos.TaskInboxFilter;
+import com.mazen.wfm.dtos.TaskQueryFilter;
+import com.mazen.wfm.dtos.TaskRankingDTO;
+import com.mazen.wfm.dtos.request.TaskAdviceRequest;
 import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.dtos.response.BulkTaskLinksResponse;
+import com.mazen.wfm.dtos.response.TaskInboxResponse;
+import com.mazen.wfm.dtos.response.TaskPageResponse;
+import com.mazen.wfm.event.ProjectChangeEvent;
 import com.mazen.wfm.event.TaskAssignmentEvent;
+import com.mazen.wfm.event.TaskStatusChangedEvent;
+import com.mazen.wfm.event.TasksChangedEvent;
 import com.mazen.wfm.exceptions.ResourceNotFoundException;
 import com.mazen.wfm.mapper.TaskMapper;
 import com.mazen.wfm.models.*;
 import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ChangeLogRepository;
 import com.mazen.wfm.repositories.ProjectRepository;
 import com.mazen.wfm.repositories.TagRepository;
 import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.repositories.TaskSpecifications;
+import com.mazen.wfm.repositories.UserTaskCountRepository;
 
 //import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,12 +54,20 @@ public class TaskService {
     private final ProjectRepository projectRepository;
     private final AppUserRepository appUserRepository;
     private final TagRepository tagRepository;
+    private final UserTaskCountRepository userTaskCountRepository;
     private final TaskMapper taskMapper;
+    private final TaskPrioritizer taskPrioritizer;
+    private final TaskBitmapIndex taskIndex;
+    private final ProjectEventBroker projectEvents;
+    private final ChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
 //    private final RabbitTemplate rabbitTemplate;
 //    private final EmailService emailService;
 
 
-    public TaskService(TaskRepository taskRepository, TaskMapper taskMapper, ProjectRepository projectRepository, AppUserRepository appUserRepository, TagRepository tagRepository
+    public TaskService(TaskRepository taskRepository, TaskMapper taskMapper, ProjectRepository projectRepository, AppUserRepository appUserRepository, TagRepository tagRepository,
+                       UserTaskCountRepository userTaskCountRepository, TaskPrioritizer taskPrioritizer, TaskBitmapIndex taskIndex,
+                       ProjectEventBroker projectEvents, ChangeLogRepository changeLogRepository, ApplicationEventPublisher eventPublisher
 //            , RabbitTemplate rabbitTemplate
     ) {
         this.taskRepository = taskRepository;
@@ -46,113 +75,298 @@ public class TaskService {
         this.projectRepository = projectRepository;
         this.appUserRepository = appUserRepository;
         this.tagRepository = tagRepository;
+        this.userTaskCountRepository = userTaskCountRepository;
+        this.taskPrioritizer = taskPrioritizer;
+        this.taskIndex = taskIndex;
+        this.projectEvents = projectEvents;
+        this.changeLogRepository = changeLogRepository;
+        this.eventPublisher = eventPublisher;
 //        this.rabbitTemplate = rabbitTemplate;
 //        this.emailService = emailService;
     }
 
     public Task createTask(Task task) {
-        Project project = projectRepository.findById(task.getProject().getProjectId()).orElseThrow(() -> new ResourceNotFoundException("Project Not Found"));
+        Project project = projectRepository.findById(task.getProject().getProjectId())
+                .filter(p -> p.getDeletedAt() == null)
+                .orElseThrow(() -> new ResourceNotFoundException("Project Not Found"));
         task.setProject(project);
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        publishStatusChange(saved, null, saved.getStatus());
+        publishChange(saved, ProjectChangeEvent.Type.TASK_CREATED);
+        return saved;
     }
 
+    // Tasks of a soft-deleted project are gone as soon as it is deleted, not once the purge reaches them
+    @Transactional(readOnly = true)
     public Task getTaskById(Long taskId) {
-        return taskRepository.findById(taskId).orElseThrow(() -> new ResourceNotFoundException("No task with this id"));
+        return taskRepository.findById(taskId)
+                .filter(task -> task.getProject().getDeletedAt() == null)
+                .orElseThrow(() -> new ResourceNotFoundException("No task with this id"));
     }
 
+    @Transactional(readOnly = true)
     public Page<Task> getTasksByProject(Long projectId, Pageable pageable) {
+        if (!isLiveProject(projectId))
+            return Page.empty(pageable);
         return taskRepository.findByProject_ProjectId(projectId, pageable);
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getTasksByProjectAndStatus(Long projectId, Status status) {
+        if (!isLiveProject(projectId))
+            return List.of();
         return taskRepository.findByProject_ProjectIdAndStatus(projectId, status);
     }
 
+    // projects are in the second-level cache, so this seldom costs a query
+    private boolean isLiveProject(Long projectId) {
+        return projectRepository.findById(projectId).filter(p -> p.getDeletedAt() == null).isPresent();
+    }
+
+    @Transactional(readOnly = true)
     public List<Task> getTasksByUser(Long userId) {
-        return taskRepository.findByAssignees_UserId(userId);
+        return taskRepository.findByAssignees_UserIdAndProject_DeletedAtIsNull(userId);
     }
+    @Transactional(readOnly = true)
     public List<Task> getTasksByUserAndStatus(Long userId, List<Status> statuses) {
         return taskRepository.findTasksByUserIdAndStatuses(userId, statuses);
     }
 
+    // A page of the user's assigned tasks, keyset-paged (see TaskInboxCursor) and mapped while the session is open
+    @Transactional(readOnly = true)
+    public TaskInboxResponse getInbox(Long userId, TaskInboxFilter filter, String cursor, int size) {
+        TaskInboxCursor after = cursor == null || cursor.isBlank() ? null : TaskInboxCursor.decode(cursor, filter.sort());
+        // one extra row tells whether there is a next page
+        TaskPageResponse page = toPage(taskRepository.findInboxTaskIds(userId, filter, after, size + 1), size, filter.sort());
+        return new TaskInboxResponse(page.tasks(), page.nextCursor(), getOpenTaskCount(userId));
+    }
+
+    // Any tasks matching the filter, a keyset page at a time in one query (see TaskSpecifications)
+    @Transactional(readOnly = true)
+    public TaskPageResponse queryTasks(TaskQueryFilter filter, String cursor, int size) {
+        TaskInboxCursor after = cursor == null || cursor.isBlank() ? null : TaskInboxCursor.decode(cursor, filter.sort());
+        Specification<Task> spec = TaskSpecifications.matching(filter);
+        // assignee and tag filters from the bitmap index when it can, instead of EXISTS over the join tables
+        if (TaskSpecifications.hasLinkFilters(filter)) {
+            Optional<List<Long>> candidates = taskIndex.findCandidateIds(filter);
+            if (candidates.isPresent() && candidates.get().isEmpty())
+                return new TaskPageResponse(List.of(), null);
+            if (candidates.isPresent())
+                spec = TaskSpecifications.matchingColumns(filter).and(TaskSpecifications.hasIdIn(candidates.get()));
+        }
+        List<Long> ids = taskRepository.findTaskIds(spec, filter.sort(), after, size + 1);
+        return toPage(ids, size, filter.sort());
+    }
+
+    // Loads the page's tasks with their links in one query and maps them in page order; more ids than size
+    // means there is a next page, starting after the last task kept
+    private TaskPageResponse toPage(List<Long> ids, int size, TaskInboxFilter.Sort sort) {
+        boolean more = ids.size() > size;
+        if (more)
+            ids = ids.subList(0, size);
+        Map<Long, Task> tasks = ids.isEmpty() ? Map.of() : taskRepository.findByTaskIdIn(ids).stream()
+                .collect(Collectors.toMap(Task::getTaskId, Function.identity()));
+        List<Task> page = ids.stream().map(tasks::get).filter(Objects::nonNull).toList();
+        String nextCursor = more && !page.isEmpty() ? TaskInboxCursor.after(sort, page.getLast()).encode() : null;
+        return new TaskPageResponse(page.stream().map(taskMapper::toResponse).toList(), nextCursor);
+    }
+
+    // Maintained count; users no write has touched yet are counted once (read-only here, the next write stores it)
+    private long getOpenTaskCount(Long userId) {
+        return userTaskCountRepository.findOpenTasksByUserId(userId)
+                .orElseGet(() -> taskRepository.countByUserIdAndStatuses(userId, TaskPrioritizer.OPEN_STATUSES));
+    }
+
+    // The user's open tasks they should pick up first, best first (see TaskPrioritizer)
+    @Transactional(readOnly = true)
+    public List<Task> getNextTasks(Long userId, int limit) {
+        return getNextTasks(List.of(userId), limit).getOrDefault(userId, List.of());
+    }
+
+    // Same for many users at once, in two queries; users without open tasks are left out
+    @Transactional(readOnly = true)
+    public Map<Long, List<Task>> getNextTasks(Collection<Long> userIds, int limit) {
+        if (userIds.isEmpty())
+            return Map.of();
+        LocalDate today = LocalDate.now();
+        Map<Long, List<Long>> ranked = taskRepository.findRankingByUserIdsAndStatuses(userIds, TaskPrioritizer.OPEN_STATUSES).stream()
+                .collect(Collectors.groupingBy(TaskRankingDTO::userId)).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> taskPrioritizer.topK(entry.getValue(), limit, today).stream()
+                        .map(TaskRankingDTO::taskId)
+                        .toList()));
+        Set<Long> taskIds = ranked.values().stream().flatMap(List::stream).collect(Collectors.toSet());
+        if (taskIds.isEmpty())
+            return Map.of();
+        Map<Long, Task> tasks = taskRepository.findByTaskIdIn(taskIds).stream()
+                .collect(Collectors.toMap(Task::getTaskId, Function.identity()));
+        Map<Long, List<Task>> next = new HashMap<>();
+        ranked.forEach((userId, ids) -> next.put(userId, ids.stream().map(tasks::get).filter(Objects::nonNull).toList()));
+        return next;
+    }
+
+    // Gemini prompt input: each user's next tasks as advice requests, mapped while the session is still open
+    @Transactional(readOnly = true)
+    public Map<Long, List<TaskAdviceRequest>> getAdviceRequests(Collection<Long> userIds, int limit) {
+        Map<Long, List<TaskAdviceRequest>> requests = new HashMap<>();
+        getNextTasks(userIds, limit).forEach((userId, tasks) -> requests.put(userId,
+                taskMapper.toTaskAdviceRequestList(tasks.stream().map(taskMapper::toResponse).toList())));
+        return requests;
+    }
+
+    @Transactional(readOnly = true)
     public List<Task> getTasksByStatus(Status status) {
         return taskRepository.findByStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getOverdueTasks(LocalDate today) {
         return taskRepository.findByDueDateBefore(today);
     }
 
     public Task updateTask(long id, TaskRequest request) {
         Task existingTask = this.getTaskById(id);
+        Status before = existingTask.getStatus();
+        boolean wasOpen = TaskPrioritizer.OPEN_STATUSES.contains(before);
         taskMapper.updateEntityFromRequest(request, existingTask);
         existingTask.setUpdatedAt(LocalDateTime.now());
-        return taskRepository.save(existingTask);
+        Task saved = taskRepository.save(existingTask);
+        if (wasOpen != TaskPrioritizer.OPEN_STATUSES.contains(saved.getStatus()))
+            refreshOpenTaskCounts(taskRepository.findAssigneeIds(List.of(id)));
+        publishStatusChange(saved, before, saved.getStatus());
+        publishChange(saved, ProjectChangeEvent.Type.TASK_UPDATED);
+        return saved;
     }
 
     public void deleteTask(Long taskId) {
-        taskRepository.deleteById(taskId);
+        List<Long> assigneeIds = taskRepository.findAssigneeIds(List.of(taskId));
+        // what deleteById does, keeping hold of the task for its history
+        taskRepository.findById(taskId).filter(task -> task.getProject().getDeletedAt() == null).ifPresent(task -> {
+            taskRepository.delete(task);
+            publishStatusChange(task, task.getStatus(), null);
+            publishChange(task, ProjectChangeEvent.Type.TASK_DELETED);
+        });
+        refreshOpenTaskCounts(assigneeIds);
     }
 
-    public Task assignUsersToTask(Long taskId, Set<Long> userIds) throws ResponseStatusException {
-        Task task = this.getTaskById(taskId);
-        Set<AppUser> users = new HashSet<>(appUserRepository.findAllById(userIds));
+    // Recorded in task_status_history once the transaction commits (TaskStatusHistoryWriter); creation and
+    // deletion count as transitions from / to no status, so the analytics rollups add up
+    private void publishStatusChange(Task task, Status from, Status to) {
+        if (from != to)
+            eventPublisher.publishEvent(new TaskStatusChangedEvent(task.getTaskId(), task.getProject().getProjectId(),
+                    from, to, LocalDateTime.now()));
+    }
 
-        if (users.isEmpty())
+    // Logged for GET /api/sync in this transaction, and streamed to the project's subscribers once it
+    // commits (ProjectEventBroker)
+    private void publishChange(Task task, ProjectChangeEvent.Type type) {
+        changeLogRepository.changed(ChangeLogEntry.EntityType.TASK, task.getTaskId(), task.getProject().getProjectId(),
+                type == ProjectChangeEvent.Type.TASK_DELETED);
+        eventPublisher.publishEvent(ProjectChangeEvent.task(task.getProject().getProjectId(), type, task.getTaskId()));
+    }
+
+    // For writes that only have task ids: the change log takes their projects from the tasks table (so deleted
+    // tasks are logged before they go); for events they are only looked up when someone is listening
+    void publishChanges(Collection<Long> taskIds, ProjectChangeEvent.Type type) {
+        if (type == ProjectChangeEvent.Type.TASK_DELETED)
+            changeLogRepository.tasksDeleted(taskIds);
+        else
+            changeLogRepository.tasksChanged(taskIds);
+        eventPublisher.publishEvent(new TasksChangedEvent(List.copyOf(taskIds)));
+        if (projectEvents.hasSubscribers())
+            taskRepository.findTaskProjects(taskIds).forEach(task ->
+                    eventPublisher.publishEvent(ProjectChangeEvent.task(task.projectId(), type, task.taskId())));
+    }
+
+    // Join-table writes only: neither the task's current assignees nor its tags are loaded (see updateAssignees)
+    public Task assignUsersToTask(Long taskId, Set<Long> userIds) throws ResponseStatusException {
+        requireTask(taskId);
+        if (appUserRepository.findAllById(userIds).isEmpty())
             throw new ResourceNotFoundException("No valid users found for given IDs");
 
-        if (task.getAssignees() == null)
-            task.setAssignees(new HashSet<>());
-
-        Set<AppUser> existing = task.getAssignees();
-        Set<AppUser> newUsers = users.stream()
-                .filter(u -> !existing.contains(u))
-                .collect(Collectors.toSet());
-
-        existing.addAll(newUsers);
-        taskRepository.save(task);
-//        newUsers.forEach(user -> {
-//            TaskAssignmentEvent event = new TaskAssignmentEvent(task, user);
-//            rabbitTemplate.convertAndSend(
-//                    RabbitMQConfig.TASK_ASSIGNMENT_EXCHANGE,
-//                    "task.assigned.email",
-//                    event
-//            );
-//
-//            rabbitTemplate.convertAndSend(
-//                    RabbitMQConfig.TASK_ASSIGNMENT_EXCHANGE,
-//                    "task.assigned.websocket",
-//                    event
-//            );
-//        });
-        return task;
+        updateAssignees(Set.of(taskId), userIds, null);
+        return this.getTaskById(taskId);
     }
 
     public Task assignTags(Set<Long> tagIds, Long taskId) {
-        Task task = this.getTaskById(taskId);
-        Set<Tag> tags = new HashSet<>(tagRepository.findAllById(tagIds));
-        if (tags.isEmpty())
+        requireTask(taskId);
+        if (tagRepository.findAllById(tagIds).isEmpty())
             throw new ResourceNotFoundException("No valid tags found for given IDs");
 
-        if (task.getTags() == null)
-            task.setTags(new HashSet<>());
+        updateTags(Set.of(taskId), tagIds, null);
+        return this.getTaskById(taskId);
+    }
 
-        task.getTags().addAll(tags);
-        return taskRepository.save(task);
+    // Bulk variants: set-based writes to task_assignments / task_tags for every pair of task and id, removals
+    // first; tasks, users and tags that don't exist are skipped. Nothing is loaded, so the cost depends on the
+    // pairs touched rather than on how many assignees or tags the tasks already have.
+    public BulkTaskLinksResponse updateAssignees(Set<Long> taskIds, Set<Long> add, Set<Long> remove) {
+        int removed = isEmpty(remove) ? 0 : taskRepository.removeAssignees(taskIds, remove);
+        if (removed > 0)
+            refreshOpenTaskCounts(remove);
+        if (isEmpty(add)) {
+            if (removed > 0) {
+                taskIndex.changed(taskIds);
+                publishChanges(taskIds, ProjectChangeEvent.Type.TASK_ASSIGNED);
+            }
+            return new BulkTaskLinksResponse(0, removed);
+        }
+        List<TaskAssignmentEvent> assignments = taskRepository.findNewAssignments(taskIds, add);
+        int added = assignments.isEmpty() ? 0 : taskRepository.addAssignees(taskIds, add);
+        if (added > 0)
+            refreshOpenTaskCounts(add);
+        if (removed + added > 0) {
+            taskIndex.changed(taskIds);
+            publishChanges(taskIds, ProjectChangeEvent.Type.TASK_ASSIGNED);
+        }
+        // one event per new (task, user) pair
+        assignments.forEach(eventPublisher::publishEvent);
+        return new BulkTaskLinksResponse(added, removed);
+    }
+
+    public BulkTaskLinksResponse updateTags(Set<Long> taskIds, Set<Long> add, Set<Long> remove) {
+        int removed = isEmpty(remove) ? 0 : taskRepository.removeTags(taskIds, remove);
+        int added = isEmpty(add) ? 0 : taskRepository.addTags(taskIds, add);
+        if (removed + added > 0) {
+            taskIndex.changed(taskIds);
+            publishChanges(taskIds, ProjectChangeEvent.Type.TASK_UPDATED);
+        }
+        return new BulkTaskLinksResponse(added, removed);
+    }
+
+    private static boolean isEmpty(Set<Long> ids) {
+        return ids == null || ids.isEmpty();
     }
 
     public void clearTags (Long taskId) {
-        Task task = this.getTaskById(taskId);
-        task.getTags().clear();
-        taskRepository.save(task);
+        requireTask(taskId);
+        if (taskRepository.clearTags(taskId) > 0) {
+            taskIndex.changed(List.of(taskId));
+            publishChanges(List.of(taskId), ProjectChangeEvent.Type.TASK_UPDATED);
+        }
     }
 
     public void clearAssignees (Long taskId) {
-        Task task = this.getTaskById(taskId);
-        task.getAssignees().clear();
-        taskRepository.save(task);
+        requireTask(taskId);
+        List<Long> assigneeIds = taskRepository.findAssigneeIds(List.of(taskId));
+        taskRepository.clearAssignees(taskId);
+        refreshOpenTaskCounts(assigneeIds);
+        if (!assigneeIds.isEmpty()) {
+            taskIndex.changed(List.of(taskId));
+            publishChanges(List.of(taskId), ProjectChangeEvent.Type.TASK_ASSIGNED);
+        }
+    }
+
+    // after any write that changes who is assigned to an open task, or whether an assigned task is open
+    private void refreshOpenTaskCounts(Collection<Long> userIds) {
+        userTaskCountRepository.refresh(userIds, TaskPrioritizer.OPEN_STATUSES);
+    }
+
+    private void requireTask(Long taskId) {
+        if (!taskRepository.existsByTaskIdAndProject_DeletedAtIsNull(taskId))
+            throw new ResourceNotFoundException("No task with this id");
     }
 
+    @Transactional(readOnly = true)
     public void sendReminders(LocalDate now, LocalDate upcoming) {
         List<Task> tasks = taskRepository.findByDueDateBetweenAndStatusIn(now, upcoming, List.of(Status.TODO, Status.IN_PROGRESS));
 
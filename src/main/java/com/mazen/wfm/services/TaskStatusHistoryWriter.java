@@ -0,0 +1,109 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.event.TaskStatusChangedEvent;
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends task status transitions to task_status_history off the request path: a transition is queued once the
+ * transaction that made it has committed (rolled back ones never get here) and written with the others in JDBC
+ * batches every {@code wfm.status-history.flush-interval}. When the queue is full the request that fills it
+ * writes what is queued itself, so a burst slows writers down instead of losing history. Whatever is queued
+ * at shutdown is written then; a crash loses at most one interval.
+ */
+@Slf4j
+@Service
+public class TaskStatusHistoryWriter {
+
+    private static final String INSERT = "INSERT INTO task_status_history (task_id, project_id, from_status, to_status, changed_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final BlockingQueue<TaskStatusChangedEvent> queue;
+    // one flush at a time; a lock, not synchronized, so a virtual thread waiting on it or writing under it
+    // unmounts instead of pinning its carrier
+    private final Lock flushing = new ReentrantLock();
+    private final int batchSize;
+    private final Counter written;
+    private final Counter failed;
+
+    public TaskStatusHistoryWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${wfm.status-history.batch-size:500}") int batchSize,
+                                   @Value("${wfm.status-history.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        // a flush from the listener runs after the caller's commit, on a connection that transaction still holds
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.written = meterRegistry.counter(MetricNames.STATUS_HISTORY_WRITES, MetricNames.TAG_OUTCOME, "written");
+        this.failed = meterRegistry.counter(MetricNames.STATUS_HISTORY_WRITES, MetricNames.TAG_OUTCOME, "failed");
+    }
+
+    // fallbackExecution: changes made outside a transaction are committed already
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(TaskStatusChangedEvent event) {
+        while (!queue.offer(event))
+            flush();
+    }
+
+    /** Writes everything queued so far. */
+    @Scheduled(fixedDelayString = "${wfm.status-history.flush-interval:1s}")
+    public void flush() {
+        flushing.lock();
+        try {
+            List<TaskStatusChangedEvent> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // a failed batch is logged and dropped: retrying would hold up the transitions queued behind it
+    private void write(List<TaskStatusChangedEvent> batch) {
+        try {
+            writeTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, event) -> {
+                        statement.setLong(1, event.taskId());
+                        statement.setLong(2, event.projectId());
+                        statement.setString(3, event.from() == null ? null : event.from().name());
+                        statement.setString(4, event.to() == null ? null : event.to().name());
+                        statement.setTimestamp(5, Timestamp.valueOf(event.changedAt()));
+                    }));
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            failed.increment(batch.size());
+            log.error("Could not write {} task status changes", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mazen.wfm.services;
+
+import com.google.api.gax.rpc.ServerStream;
+import com.google.cloud.vertexai.VertexAI;
+import com.google.cloud.vertexai.api.GenerateContentRequest;
+import com.google.cloud.vertexai.api.GenerateContentResponse;
+import com.google.cloud.vertexai.generativeai.ContentMaker;
+import com.google.cloud.vertexai.generativeai.GenerativeModel;
+import com.google.cloud.vertexai.generativeai.ResponseHandler;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+// One client for the lifetime of the application; building VertexAI per call re-did the channel and auth setup every time.
+// Created on the first advice request rather than at startup (GeminiService injects it lazily)
+@Component
+@Lazy
+@ConditionalOnProperty(name = "gemini.stub", havingValue = "false", matchIfMissing = true)
+public class VertexTaskAdviceModel implements TaskAdviceModel {
+
+    private final VertexAI vertexAI;
+    private final GenerativeModel model;
+    private final String resourceName;
+
+    public VertexTaskAdviceModel(@Value("${gemini.project-id}") String projectId,
+                                 @Value("${gemini.location}") String location,
+                                 @Value("${gemini.model}") String modelName) {
+        this.vertexAI = new VertexAI(projectId, location);
+        this.model = new GenerativeModel(modelName, vertexAI);
+        this.resourceName = String.format("projects/%s/locations/%s/publishers/google/models/%s",
+                projectId, location, model.getModelName());
+    }
+
+    @Override
+    public String generateAdvice(String prompt) throws IOException {
+        return ResponseHandler.getText(model.generateContent(prompt));
+    }
+
+    // gRPC server stream: the iterator requests the next response only when pulled, so a slow client slows the model down.
+    // Called on the stream itself rather than through GenerativeModel.generateContentStream, whose ResponseStream
+    // cannot be cancelled: closing the returned Stream (client gone, timeout, interrupted worker) cancels the call
+    @Override
+    public Stream<String> streamAdvice(String prompt) throws IOException {
+        GenerateContentRequest request = GenerateContentRequest.newBuilder()
+                .setModel(resourceName)
+                .addContents(ContentMaker.fromString(prompt))
+                .build();
+        ServerStream<GenerateContentResponse> responses =
+                vertexAI.getPredictionServiceClient().streamGenerateContentCallable().call(request);
+        return responses.stream().map(ResponseHandler::getText).onClose(responses::cancel);
+    }
+
+    @PreDestroy
+    public void close() {
+        vertexAI.close();
+    }
+}
@@ -0,0 +1,169 @@
+-- Schema of the current entities, run on the embedded database at startup (spring.sql.init, before Hibernate
+-- starts). Hibernate only validates it (spring.jpa.hibernate.ddl-auto=validate): change it together with the
+-- entities, SchemaValidationIntegrationTest fails otherwise. An external database gets its schema from its
+-- own migrations; db/migration holds an older, unrelated schema and is not run.
+
+create table app_user (
+    active boolean not null,
+    created_at timestamp(6) not null,
+    user_id bigint generated by default as identity,
+    username varchar(50) not null unique,
+    email varchar(100) not null,
+    full_name varchar(100) not null,
+    password varchar(255) not null,
+    role enum ('ADMIN','TEAM_LEADER','TECHNICIAN','USER') not null,
+    primary key (user_id)
+);
+
+create table archived_comments (
+    author_id bigint not null,
+    comment_id bigint not null,
+    created_at timestamp(6),
+    task_id bigint not null,
+    content varchar(255),
+    primary key (comment_id)
+);
+
+create table archived_task_assignments (
+    task_id bigint not null,
+    user_id bigint
+);
+
+create table archived_task_tags (
+    tag_id bigint,
+    task_id bigint not null
+);
+
+create table archived_tasks (
+    due_date date,
+    archived_at timestamp(6),
+    created_at timestamp(6),
+    parent_task_id bigint,
+    project_id bigint not null,
+    task_id bigint not null,
+    updated_at timestamp(6),
+    description varchar(255),
+    title varchar(255),
+    priority enum ('HIGH','LOW','MEDIUM','URGENT'),
+    status enum ('ARCHIVED','DONE','IN_PROGRESS','TODO'),
+    primary key (task_id)
+);
+
+create table change_log (
+    deleted boolean not null,
+    changed_at timestamp(6) not null,
+    entity_id bigint not null,
+    project_id bigint not null,
+    seq bigint generated by default as identity,
+    entity_type enum ('COMMENT','PROJECT','TASK') not null,
+    primary key (seq)
+);
+
+create table comments (
+    author_id bigint not null,
+    comment_id bigint generated by default as identity,
+    created_at timestamp(6),
+    task_id bigint not null,
+    content varchar(255),
+    primary key (comment_id)
+);
+
+create table project_status_daily (
+    on_day date not null,
+    project_id bigint not null,
+    tasks bigint not null,
+    status enum ('ARCHIVED','DONE','IN_PROGRESS','TODO') not null,
+    primary key (on_day, project_id, status)
+);
+
+create table projects (
+    created_at timestamp(6),
+    deleted_at timestamp(6),
+    owner_id bigint not null,
+    project_id bigint generated by default as identity,
+    description varchar(255),
+    name varchar(255),
+    primary key (project_id)
+);
+
+create table tags (
+    tag_id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (tag_id)
+);
+
+create table task_advice (
+    generated_at timestamp(6) not null,
+    user_id bigint not null,
+    prompt_hash varchar(64) not null,
+    advice text not null,
+    primary key (user_id)
+);
+
+create table task_assignments (
+    task_id bigint not null,
+    user_id bigint not null,
+    primary key (task_id, user_id)
+);
+
+create table task_status_history (
+    changed_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    project_id bigint not null,
+    task_id bigint not null,
+    from_status enum ('ARCHIVED','DONE','IN_PROGRESS','TODO'),
+    to_status enum ('ARCHIVED','DONE','IN_PROGRESS','TODO'),
+    primary key (id)
+);
+
+create table task_tags (
+    tag_id bigint not null,
+    task_id bigint not null,
+    primary key (tag_id, task_id)
+);
+
+create table tasks (
+    due_date date,
+    created_at timestamp(6),
+    parent_task_id bigint,
+    project_id bigint not null,
+    task_id bigint generated by default as identity,
+    updated_at timestamp(6),
+    description varchar(255),
+    title varchar(255),
+    priority enum ('HIGH','LOW','MEDIUM','URGENT'),
+    status enum ('ARCHIVED','DONE','IN_PROGRESS','TODO'),
+    primary key (task_id)
+);
+
+create table user_task_counts (
+    open_tasks bigint not null,
+    user_id bigint not null,
+    primary key (user_id)
+);
+
+create index idx_archived_comments_task on archived_comments (task_id);
+create index idx_archived_tasks_project on archived_tasks (project_id);
+create index idx_change_log_project on change_log (project_id, seq);
+create index idx_change_log_entity on change_log (entity_type, entity_id, seq);
+create index idx_change_log_changed_at on change_log (changed_at);
+create index idx_project_status_daily_project on project_status_daily (project_id, on_day);
+create index idx_task_assignments_user_task on task_assignments (user_id, task_id);
+create index idx_task_status_history_project on task_status_history (project_id, changed_at);
+create index idx_task_status_history_task on task_status_history (task_id, changed_at);
+create index idx_task_status_history_changed_at on task_status_history (changed_at);
+create index idx_tasks_project_status on tasks (project_id, status);
+create index idx_tasks_parent on tasks (parent_task_id);
+create index idx_tasks_due_date on tasks (due_date, task_id);
+
+alter table archived_task_assignments add constraint fk_archived_task_assignments_task_id foreign key (task_id) references archived_tasks;
+alter table archived_task_tags add constraint fk_archived_task_tags_task_id foreign key (task_id) references archived_tasks;
+alter table comments add constraint fk_comments_author_id foreign key (author_id) references app_user;
+alter table comments add constraint fk_comments_task_id foreign key (task_id) references tasks;
+alter table projects add constraint fk_projects_owner_id foreign key (owner_id) references app_user;
+alter table task_assignments add constraint fk_task_assignments_user_id foreign key (user_id) references app_user;
+alter table task_assignments add constraint fk_task_assignments_task_id foreign key (task_id) references tasks;
+alter table task_tags add constraint fk_task_tags_tag_id foreign key (tag_id) references tags;
+alter table task_tags add constraint fk_task_tags_task_id foreign key (task_id) references tasks;
+alter table tasks add constraint fk_tasks_parent_task_id foreign key (parent_task_id) references tasks;
+alter table tasks add constraint fk_tasks_project_id foreign key (project_id) references projects;
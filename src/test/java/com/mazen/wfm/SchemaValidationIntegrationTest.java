@@ -0,0 +1,57 @@
+package com.mazen.wfm;
+
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Starts as deployed: a database of its own built from db/schema.sql, which Hibernate validates against the
+// entities. The context does not start when they differ.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:schemadb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.sql.init.mode=always"
+})
+@ActiveProfiles("test")
+@Transactional
+class SchemaValidationIntegrationTest {
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Test
+  void testSchemaScript_ShouldMatchTheEntities() {
+    // Given
+    AppUser owner = appUserRepository.save(AppUser.builder()
+        .username("schemaowner")
+        .password("password")
+        .fullName("Schema Owner")
+        .email("schema@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    Project project = new Project();
+    project.setName("Schema Project");
+    project.setOwner(owner);
+
+    // When
+    Project saved = projectRepository.saveAndFlush(project);
+
+    // Then
+    assertThat(projectRepository.findById(saved.getProjectId())).isPresent();
+  }
+}
@@ -0,0 +1,73 @@
+package com.mazen.wfm.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionLimitingDataSourceTest {
+
+  @Mock
+  private DataSource target;
+
+  @Mock
+  private Connection connection;
+
+  private ConnectionLimitingDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+  }
+
+  @Test
+  void testGetConnection_WhenPermitsExhausted_ShouldTimeOut() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    dataSource.getConnection();
+
+    assertThatThrownBy(() -> dataSource.getConnection())
+        .isInstanceOf(SQLTransientConnectionException.class);
+    verify(target, times(1)).getConnection();
+  }
+
+  @Test
+  void testClose_ShouldReturnPermitOnce() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    Connection first = dataSource.getConnection();
+
+    first.close();
+    first.close();
+
+    assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    verify(connection, times(1)).close();
+    assertThat(dataSource.getConnection()).isNotNull();
+  }
+
+  @Test
+  void testGetConnection_WhenPoolFails_ShouldReturnPermit() throws SQLException {
+    when(target.getConnection()).thenThrow(new SQLException("pool down"));
+
+    assertThatThrownBy(() -> dataSource.getConnection()).hasMessage("pool down");
+    assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+  }
+
+  @Test
+  void testConnection_ShouldDelegateOtherCalls() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.getAutoCommit()).thenReturn(true);
+
+    assertThat(dataSource.getConnection().getAutoCommit()).isTrue();
+  }
+}
@@ -0,0 +1,110 @@
+package com.mazen.wfm.config;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.services.TagService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A second in-memory H2 database stands in for the replica; it gets the primary's schema but never its rows,
+// so whatever a read returns shows which side it came from
+@SpringBootTest(properties = {
+    "wfm.datasource.replica.jdbc-url=jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+    "wfm.datasource.replica.read-your-writes=1h"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+  @Autowired
+  private TagService tagService;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  @Qualifier("primaryDataSource")
+  private DataSource primaryDataSource;
+
+  @Autowired
+  @Qualifier("replicaDataSource")
+  private DataSource replicaDataSource;
+
+  private JdbcTemplate primary;
+  private JdbcTemplate replica;
+
+  @BeforeEach
+  void setUp() {
+    primary = new JdbcTemplate(primaryDataSource);
+    replica = new JdbcTemplate(replicaDataSource);
+    replica.execute("DROP ALL OBJECTS");
+    primary.queryForList("SCRIPT NODATA", String.class).stream()
+        .filter(statement -> !statement.startsWith("CREATE USER"))
+        .forEach(replica::execute);
+    replica.update("INSERT INTO tags (name) VALUES ('replica-only')");
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+    primary.update("DELETE FROM tags WHERE name LIKE 'routing-%'");
+  }
+
+  @Test
+  void testReadOnlyTransaction_ShouldReadFromReplica() {
+    double before = routed("replica", "read");
+
+    assertThat(tagNames()).contains("replica-only");
+    assertThat(routed("replica", "read")).isEqualTo(before + 1);
+  }
+
+  @Test
+  void testWrite_ShouldGoToPrimary() {
+    tagService.createTag(new Tag(null, "routing-write"));
+
+    assertThat(primary.queryForObject("SELECT count(*) FROM tags WHERE name = 'routing-write'", Integer.class)).isOne();
+    assertThat(replica.queryForObject("SELECT count(*) FROM tags WHERE name = 'routing-write'", Integer.class)).isZero();
+  }
+
+  @Test
+  void testReadAfterOwnWrite_ShouldReadFromPrimary() {
+    // Given - alice has just written
+    authenticate("alice");
+    tagService.createTag(new Tag(null, "routing-alice"));
+
+    // Then - alice sees her write, bob and anonymous readers still read the (lagging) replica
+    assertThat(tagNames()).contains("routing-alice").doesNotContain("replica-only");
+    authenticate("bob");
+    assertThat(tagNames()).contains("replica-only").doesNotContain("routing-alice");
+    SecurityContextHolder.clearContext();
+    assertThat(tagNames()).contains("replica-only").doesNotContain("routing-alice");
+  }
+
+  private List<String> tagNames() {
+    return tagService.getAllTags().stream().map(Tag::getName).toList();
+  }
+
+  private double routed(String target, String reason) {
+    var counter = meterRegistry.find(MetricNames.DATASOURCE_ROUTED)
+        .tags(MetricNames.TAG_TARGET, target, MetricNames.TAG_REASON, reason).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  private static void authenticate(String username) {
+    SecurityContextHolder.getContext().setAuthentication(
+        UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+  }
+}
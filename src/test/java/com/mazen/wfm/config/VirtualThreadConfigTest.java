@@ -0,0 +1,47 @@
+package com.mazen.wfm.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadConfigTest {
+
+  @Test
+  void testPostProcessor_ShouldSizeEachPoolsLimiterFromThatPool() throws Exception {
+    // Given - primary and replica pools of different sizes, the primary's size also set as a property
+    MockEnvironment environment = new MockEnvironment()
+        .withProperty("spring.datasource.hikari.maximum-pool-size", "7");
+    BeanPostProcessor postProcessor = VirtualThreadConfig.connectionLimitingDataSourcePostProcessor(environment);
+
+    // When
+    Object primary = postProcessor.postProcessAfterInitialization(pool(7), "primaryDataSource");
+    Object replica = postProcessor.postProcessAfterInitialization(pool(3), "replicaDataSource");
+
+    // Then
+    assertThat(((ConnectionLimitingDataSource) primary).getAvailablePermits()).isEqualTo(7);
+    assertThat(((ConnectionLimitingDataSource) replica).getAvailablePermits()).isEqualTo(3);
+  }
+
+  @Test
+  void testPostProcessor_WithMaxConnectionsSet_ShouldUseIt() throws Exception {
+    // Given
+    MockEnvironment environment = new MockEnvironment().withProperty("wfm.datasource.max-connections", "4");
+    BeanPostProcessor postProcessor = VirtualThreadConfig.connectionLimitingDataSourcePostProcessor(environment);
+
+    // When
+    Object limited = postProcessor.postProcessAfterInitialization(pool(10), "dataSource");
+
+    // Then
+    assertThat(((ConnectionLimitingDataSource) limited).getAvailablePermits()).isEqualTo(4);
+  }
+
+  // never started: no connection is opened before the first getConnection
+  private static HikariDataSource pool(int size) {
+    HikariDataSource pool = new HikariDataSource();
+    pool.setMaximumPoolSize(size);
+    return pool;
+  }
+}
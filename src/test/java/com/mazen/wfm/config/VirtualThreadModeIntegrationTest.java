@@ -0,0 +1,65 @@
+package com.mazen.wfm.config;
+
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.threads.virtual.enabled=true",
+    "spring.datasource.url=jdbc:h2:mem:virtualthreads;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VirtualThreadModeIntegrationTest {
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private TaskExecutor applicationTaskExecutor;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void testDataSource_ShouldBeLimitedBySemaphore() {
+    assertThat(dataSource).isInstanceOf(ConnectionLimitingDataSource.class);
+    assertThat(meterRegistry.find(MetricNames.CONNECTION_PERMITS_AVAILABLE).gauge().value()).isEqualTo(10);
+    // the pool itself stays visible to the Hikari metrics
+    assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", "wfm-primary").gauge()).isNotNull();
+  }
+
+  @Test
+  void testTaskExecutor_ShouldRunOnVirtualThreads() throws Exception {
+    CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+    applicationTaskExecutor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+
+    assertThat(virtual.get()).isTrue();
+  }
+
+  @Test
+  @WithMockUser(username = "testuser")
+  void testRequest_ShouldBeServedWithPermitReturned() throws Exception {
+    mockMvc.perform(get("/api/tags"))
+        .andExpect(status().isOk());
+
+    assertThat(dataSource.unwrap(ConnectionLimitingDataSource.class).getAvailablePermits()).isEqualTo(10);
+  }
+}
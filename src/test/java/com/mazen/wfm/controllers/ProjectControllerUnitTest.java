@@ -9,6 +9,7 @@ import com.mazen.wfm.mapper.ProjectMapper;
 import com.mazen.wfm.models.AppUser;
 import com.mazen.wfm.models.Project;
 import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.services.CoalescedReadService;
 import com.mazen.wfm.services.ProjectService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +39,9 @@ class ProjectControllerUnitTest {
     @Mock
     private ProjectMapper projectMapper;
 
+    @Mock
+    private CoalescedReadService coalescedReadService;
+
     @Mock
     private Authentication authentication;
 
@@ -88,8 +92,7 @@ class ProjectControllerUnitTest {
     @Test
     void testGetProject_ShouldReturnProjectSuccessfully() {
         // Given
-        when(projectService.getProjectById(1L)).thenReturn(testProject);
-        when(projectMapper.toResponse(testProject)).thenReturn(testProjectResponse);
+        when(coalescedReadService.getProject(1L)).thenReturn(testProjectResponse);
 
         // When
         ResponseEntity<ResponseWrapper<ProjectResponse>> response = projectController.getProject(1L);
@@ -101,14 +104,13 @@ class ProjectControllerUnitTest {
         assertThat(response.getBody().getData()).isEqualTo(testProjectResponse);
         assertThat(response.getBody().getMessage()).isEqualTo("Operation successful");
 
-        verify(projectService).getProjectById(1L);
-        verify(projectMapper).toResponse(testProject);
+        verify(coalescedReadService).getProject(1L);
     }
 
     @Test
     void testGetProject_WithNonExistentId_ShouldThrowException() {
         // Given
-        when(projectService.getProjectById(999L))
+        when(coalescedReadService.getProject(999L))
                 .thenThrow(new ResourceNotFoundException("Project Not Found"));
 
         // When & Then
@@ -116,8 +118,7 @@ class ProjectControllerUnitTest {
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Project Not Found");
 
-        verify(projectService).getProjectById(999L);
-        verify(projectMapper, never()).toResponse(any());
+        verify(coalescedReadService).getProject(999L);
     }
 
     @Test
@@ -0,0 +1,112 @@
+package com.mazen.wfm.controllers;
+
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class TaskAdviceIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    AppUser user = appUserRepository.save(AppUser.builder()
+        .username("adviceuser")
+        .password("password")
+        .fullName("Advice User")
+        .email("advice@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    appUserRepository.save(AppUser.builder()
+        .username("idleuser")
+        .password("password")
+        .fullName("Idle User")
+        .email("idle@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+
+    Project project = new Project();
+    project.setName("Advice Project");
+    project.setOwner(user);
+    project = projectRepository.save(project);
+
+    Task task = new Task();
+    task.setTitle("Prepare release");
+    task.setProject(project);
+    task.setAssignees(new HashSet<>(Set.of(user)));
+    taskRepository.save(task);
+  }
+
+  @Test
+  @WithMockUser(username = "adviceuser")
+  void testGetTasksAdvice_ShouldAnswerAsynchronously() throws Exception {
+    MvcResult pending = mockMvc.perform(post("/api/tasks/tasks-advice"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(pending))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.success").value(true))
+        .andExpect(jsonPath("$.data", containsString("Prepare release")));
+  }
+
+  @Test
+  void testGeminiIsolation_ShouldExportBreakerAndBulkheadMeters() {
+    assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "gemini").gauges()).isNotEmpty();
+    assertThat(meterRegistry.find("resilience4j.circuitbreaker.not.permitted.calls").tag("name", "gemini").counter()).isNotNull();
+    assertThat(meterRegistry.find("resilience4j.bulkhead.queue.depth").tag("name", "gemini").gauge()).isNotNull();
+  }
+
+  @Test
+  @WithMockUser(username = "idleuser")
+  void testGetTasksAdvice_WithoutOpenTasks_ShouldReturnNotFound() throws Exception {
+    mockMvc.perform(post("/api/tasks/tasks-advice"))
+        .andExpect(status().isNotFound());
+  }
+}
@@ -0,0 +1,204 @@
+package com.mazen.wfm.controllers;
+
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.security.JwtService;
+import com.mazen.wfm.services.TaskAdviceModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams advice over a real HTTP connection from a fake model whose pace the test controls, to
+ * check that chunks reach the client before the answer is complete and that a disconnect stops the model.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.datasource.url=jdbc:h2:mem:advicestream;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("test")
+class TaskAdviceStreamingIntegrationTest {
+
+  @TestConfiguration
+  static class FakeModelConfig {
+    @Bean
+    @Primary
+    FakeStreamingModel fakeStreamingModel() {
+      return new FakeStreamingModel();
+    }
+  }
+
+  /**
+   * Emits "first " at once, then one chunk per {@link #release} count-down until "last". Tasks with
+   * the title "endless" keep emitting until the stream is closed.
+   */
+  static class FakeStreamingModel implements TaskAdviceModel {
+    volatile CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean closed = new AtomicBoolean();
+
+    @Override
+    public String generateAdvice(String prompt) {
+      return "first last";
+    }
+
+    @Override
+    public Stream<String> streamAdvice(String prompt) {
+      boolean endless = prompt.contains("Title: endless");
+      return Stream.iterate(0, i -> i + 1)
+          .map(i -> {
+            if (i == 0)
+              return "first ";
+            await(endless);
+            return endless ? "more " : "last";
+          })
+          .limit(endless ? Long.MAX_VALUE : 2)
+          .onClose(() -> closed.set(true));
+    }
+
+    private void await(boolean endless) {
+      try {
+        if (endless)
+          Thread.sleep(20);
+        else
+          release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private FakeStreamingModel model;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  private final HttpClient http = HttpClient.newHttpClient();
+
+  @BeforeEach
+  void setUp() {
+    taskRepository.deleteAll();
+    projectRepository.deleteAll();
+    appUserRepository.deleteAll();
+    model.release = new CountDownLatch(1);
+    model.closed.set(false);
+  }
+
+  @Test
+  void testStream_ShouldDeliverFirstChunkBeforeAdviceIsComplete() throws Exception {
+    String token = userWithTask("streamer", "Write release notes");
+
+    try (BufferedReader events = open(token)) {
+      assertThat(nextData(events, "chunk")).isEqualTo("first ");
+
+      model.release.countDown();
+      assertThat(nextData(events, "chunk")).isEqualTo("last");
+      assertThat(nextEvent(events)).isEqualTo("done");
+    }
+  }
+
+  @Test
+  void testStream_WhenClientDisconnects_ShouldCloseModelStream() throws Exception {
+    String token = userWithTask("leaver", "endless");
+
+    BufferedReader events = open(token);
+    assertThat(nextData(events, "chunk")).isEqualTo("first ");
+    events.close();
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!model.closed.get() && System.nanoTime() < deadline)
+      Thread.sleep(50);
+    assertThat(model.closed).isTrue();
+  }
+
+  private BufferedReader open(String token) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks/tasks-advice/stream"))
+        .header("Authorization", "Bearer " + token)
+        .header("Accept", "text/event-stream")
+        .GET()
+        .build();
+    HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    assertThat(response.statusCode()).isEqualTo(200);
+    return new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+  }
+
+  private static String nextEvent(BufferedReader events) throws Exception {
+    String line;
+    while ((line = events.readLine()) != null) {
+      if (line.startsWith("event:"))
+        return line.substring("event:".length());
+    }
+    throw new AssertionError("stream ended");
+  }
+
+  private static String nextData(BufferedReader events, String expectedEvent) throws Exception {
+    assertThat(nextEvent(events)).isEqualTo(expectedEvent);
+    String line = events.readLine();
+    assertThat(line).startsWith("data:");
+    return line.substring("data:".length());
+  }
+
+  private String userWithTask(String username, String title) {
+    AppUser user = appUserRepository.save(AppUser.builder()
+        .username(username)
+        .password("password")
+        .fullName("Stream User")
+        .email(username + "@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    Project project = new Project();
+    project.setName("Stream Project");
+    project.setOwner(user);
+    project = projectRepository.save(project);
+
+    Task task = new Task();
+    task.setTitle(title);
+    task.setProject(project);
+    task.setAssignees(new HashSet<>(Set.of(user)));
+    taskRepository.save(task);
+    return jwtService.generateToken(user);
+  }
+}
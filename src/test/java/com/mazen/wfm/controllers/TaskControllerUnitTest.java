@@ -11,12 +11,12 @@ import com.mazen.wfm.models.Project;
 import com.mazen.wfm.models.Status;
 import com.mazen.wfm.models.Task;
 import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.services.CoalescedReadService;
 import com.mazen.wfm.services.TaskService;
 import com.mazen.wfm.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
@@ -26,6 +26,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -42,6 +43,9 @@ class TaskControllerUnitTest {
   @Mock
   private TaskService taskService;
 
+  @Mock
+  private CoalescedReadService coalescedReadService;
+
   @Mock
   private TaskMapper taskMapper;
 
@@ -51,7 +55,6 @@ class TaskControllerUnitTest {
   @Mock
   private Authentication authentication;
 
-  @InjectMocks
   private TaskController taskController;
 
   private AppUser testUser;
@@ -63,6 +66,8 @@ class TaskControllerUnitTest {
 
   @BeforeEach
   void setUp() {
+    taskController = new TaskController(taskService, coalescedReadService, taskMapper, null, userService, Duration.ofMinutes(2));
+
     testUser = AppUser.builder()
         .userId(1L)
         .username("testuser")
@@ -123,8 +128,7 @@ class TaskControllerUnitTest {
   @Test
   void testGetTask_ShouldReturnTaskSuccessfully() {
     // Given
-    when(taskService.getTaskById(1L)).thenReturn(testTask);
-    when(taskMapper.toResponse(testTask)).thenReturn(testTaskResponse);
+    when(coalescedReadService.getTask(1L)).thenReturn(testTaskResponse);
 
     // When
     ResponseEntity<ResponseWrapper<TaskResponse>> response = taskController.getTask(1L);
@@ -136,14 +140,13 @@ class TaskControllerUnitTest {
     assertThat(response.getBody().getData()).isEqualTo(testTaskResponse);
     assertThat(response.getBody().getMessage()).isEqualTo("Operation successful");
 
-    verify(taskService).getTaskById(1L);
-    verify(taskMapper).toResponse(testTask);
+    verify(coalescedReadService).getTask(1L);
   }
 
   @Test
   void testGetTask_WithNonExistentId_ShouldThrowException() {
     // Given
-    when(taskService.getTaskById(999L))
+    when(coalescedReadService.getTask(999L))
         .thenThrow(new ResourceNotFoundException("No task with this id"));
 
     // When & Then
@@ -151,8 +154,7 @@ class TaskControllerUnitTest {
         .isInstanceOf(ResourceNotFoundException.class)
         .hasMessage("No task with this id");
 
-    verify(taskService).getTaskById(999L);
-    verify(taskMapper, never()).toResponse(any());
+    verify(coalescedReadService).getTask(999L);
   }
 
   @Test
@@ -0,0 +1,219 @@
+package com.mazen.wfm.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load generator for the REST API. Boots the whole application on an in-memory H2
+ * database, seeds a dataset, then drives a weighted mix of requests from many concurrent clients and
+ * writes per-endpoint latency percentiles and throughput to {@code target/load-test/report.json}.
+ * <p>
+ * Excluded from the regular build, run it with {@code mvn test -Pload-test}. See {@link LoadTestSettings}
+ * for the tunable system properties.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                // own database so the schema drop of this context never touches the shared test db
+                "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                // SQL and debug logging would dominate the measurements
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "logging.level.com.mazen.wfm=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "logging.level.org.springframework.security=WARN",
+                // every simulated user logs in from the same address
+                "wfm.rate-limit.enabled=false"
+        })
+@ActiveProfiles("test")
+class ApiLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Environment environment;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void runMixedWorkload() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        LoadDataset dataset = LoadDataset.seed(settings, appUserRepository, projectRepository,
+                taskRepository, commentRepository, passwordEncoder);
+
+        List<String> tokens = new ArrayList<>();
+        for (String username : dataset.usernames())
+            tokens.add(login(username));
+
+        log.warn("Load run: {} clients, warmup {}s, measure {}s, mix {}", settings.clients(),
+                settings.warmup().toSeconds(), settings.duration().toSeconds(), settings.mix());
+
+        runPhase(settings, dataset, tokens, settings.warmup());
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        Map<String, EndpointStats> merged = runPhase(settings, dataset, tokens, settings.duration());
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        String threadingMode = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                ? "virtual" : "platform";
+        LoadReport report = LoadReport.of(settings, startedAt, elapsedSeconds, threadingMode, merged);
+        report.writeTo(settings.reportFile(), objectMapper);
+        report.endpoints().forEach((name, s) -> log.warn(
+                "{}: {} req, {} err, {} req/s, p50 {} ms, p99 {} ms, p999 {} ms",
+                name, s.requests(), s.errors(), String.format("%.1f", s.throughputPerSecond()),
+                s.p50Ms(), s.p99Ms(), s.p999Ms()));
+        log.warn("Load report written to {}", settings.reportFile().toAbsolutePath());
+
+        assertThat(report.total().requests()).isPositive();
+        assertThat(report.total().errors()).isZero();
+    }
+
+    private Map<String, EndpointStats> runPhase(LoadTestSettings settings, LoadDataset dataset,
+                                                List<String> tokens, Duration length) throws Exception {
+        long deadline = System.nanoTime() + length.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(settings.clients());
+        try {
+            List<Future<Map<String, EndpointStats>>> results = new ArrayList<>();
+            for (int i = 0; i < settings.clients(); i++) {
+                String token = tokens.get(i % tokens.size());
+                String username = dataset.usernames().get(i % tokens.size());
+                results.add(clients.submit(() -> runClient(settings.mix(), dataset, username, token, deadline)));
+            }
+            Map<String, EndpointStats> merged = new TreeMap<>();
+            for (Future<Map<String, EndpointStats>> result : results)
+                result.get().forEach((name, stats) -> merged.computeIfAbsent(name, n -> new EndpointStats()).add(stats));
+            return merged;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private Map<String, EndpointStats> runClient(Map<String, Integer> mix, LoadDataset dataset,
+                                                 String username, String token, long deadline) {
+        List<String> operations = new ArrayList<>(mix.keySet());
+        int[] cumulative = new int[operations.size()];
+        int sum = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            sum += mix.get(operations.get(i));
+            cumulative[i] = sum;
+        }
+
+        Map<String, EndpointStats> stats = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(sum);
+            int index = 0;
+            while (cumulative[index] <= pick)
+                index++;
+            String operation = operations.get(index);
+            HttpRequest request = buildRequest(operation, dataset, username, token, random);
+
+            long begin = System.nanoTime();
+            boolean ok;
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            stats.computeIfAbsent(operation, o -> new EndpointStats()).record(System.nanoTime() - begin, ok);
+        }
+        return stats;
+    }
+
+    private HttpRequest buildRequest(String operation, LoadDataset dataset, String username, String token,
+                                     Random random) {
+        long taskId = dataset.taskIds().get(random.nextInt(dataset.taskIds().size()));
+        long projectId = dataset.projectIds().get(random.nextInt(dataset.projectIds().size()));
+        return switch (operation) {
+            case "tasks.get" -> get("/api/tasks/" + taskId, token);
+            case "tasks.byProject" -> get("/api/tasks/project/" + projectId + "?page=0&size=20", token);
+            case "projects.get" -> get("/api/projects/" + projectId, token);
+            case "projects.my" -> get("/api/projects/my", token);
+            case "comments.byTask" -> get("/api/comments/task/" + taskId, token);
+            case "comments.create" -> post("/api/comments",
+                    "{\"taskId\":" + taskId + ",\"content\":\"load comment\"}", token);
+            case "auth.login" -> post("/api/v1/auth/login", loginBody(username), null);
+            default -> throw new IllegalArgumentException("Unknown load operation: " + operation);
+        };
+    }
+
+    private String login(String username) throws Exception {
+        HttpResponse<String> response = http.send(post("/api/v1/auth/login", loginBody(username), null),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("login of %s", username).isEqualTo(200);
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("accessToken").asText();
+    }
+
+    private String loginBody(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + LoadDataset.PASSWORD + "\"}";
+    }
+
+    private HttpRequest get(String path, String token) {
+        return withAuth(HttpRequest.newBuilder(uri(path)).GET(), token).build();
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        return withAuth(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)), token).build();
+    }
+
+    private HttpRequest.Builder withAuth(HttpRequest.Builder builder, String token) {
+        builder.timeout(Duration.ofSeconds(30));
+        if (token != null)
+            builder.header("Authorization", "Bearer " + token);
+        return builder;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,38 @@
+package com.mazen.wfm.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram and error count for one operation. Every client thread owns its own instances,
+ * so recording is contention free; they are merged with {@link #add} once the run is over.
+ */
+class EndpointStats {
+
+    // microsecond resolution, up to one minute per call
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram latencies = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private long errors;
+
+    void record(long elapsedNanos, boolean ok) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS);
+        latencies.recordValue(Math.max(micros, 1));
+        if (!ok)
+            errors++;
+    }
+
+    void add(EndpointStats other) {
+        latencies.add(other.latencies);
+        errors += other.errors;
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+
+    long errors() {
+        return errors;
+    }
+}
@@ -0,0 +1,112 @@
+package com.mazen.wfm.load;
+
+import com.mazen.wfm.models.*;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeds a deterministic dataset for the load run and remembers the ids the clients will hit.
+ */
+class LoadDataset {
+
+    static final String PASSWORD = "load-password";
+
+    private final List<String> usernames = new ArrayList<>();
+    private final List<Long> projectIds = new ArrayList<>();
+    private final List<Long> taskIds = new ArrayList<>();
+
+    static LoadDataset seed(LoadTestSettings settings,
+                            AppUserRepository appUserRepository,
+                            ProjectRepository projectRepository,
+                            TaskRepository taskRepository,
+                            CommentRepository commentRepository,
+                            PasswordEncoder passwordEncoder) {
+        LoadDataset dataset = new LoadDataset();
+        Random random = new Random(42);
+        Priority[] priorities = Priority.values();
+        Status[] statuses = {Status.TODO, Status.IN_PROGRESS, Status.DONE};
+        // BCrypt is deliberately slow, hash once and share it between all seeded users
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+
+        List<AppUser> users = new ArrayList<>();
+        for (int i = 0; i < settings.users(); i++) {
+            users.add(AppUser.builder()
+                    .username("load_user_" + i)
+                    .password(encodedPassword)
+                    .fullName("Load User " + i)
+                    .email("load_user_" + i + "@load.test")
+                    .role(UserRole.USER)
+                    .active(true)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        users = appUserRepository.saveAll(users);
+        users.forEach(u -> dataset.usernames.add(u.getUsername()));
+
+        for (AppUser owner : users) {
+            for (int p = 0; p < settings.projectsPerUser(); p++) {
+                Project project = new Project();
+                project.setName(owner.getUsername() + " project " + p);
+                project.setDescription("load test project");
+                project.setOwner(owner);
+                project = projectRepository.save(project);
+                dataset.projectIds.add(project.getProjectId());
+
+                List<Task> tasks = new ArrayList<>();
+                for (int t = 0; t < settings.tasksPerProject(); t++) {
+                    Task task = new Task();
+                    task.setTitle("task " + t + " of " + project.getName());
+                    task.setDescription("load test task");
+                    task.setProject(project);
+                    task.setPriority(priorities[random.nextInt(priorities.length)]);
+                    task.setStatus(statuses[random.nextInt(statuses.length)]);
+                    task.setDueDate(LocalDate.now().plusDays(random.nextInt(60) - 10));
+                    Set<AppUser> assignees = new HashSet<>();
+                    int assigneeCount = 1 + random.nextInt(2);
+                    for (int a = 0; a < assigneeCount; a++)
+                        assignees.add(users.get(random.nextInt(users.size())));
+                    task.setAssignees(assignees);
+                    tasks.add(task);
+                }
+                tasks = taskRepository.saveAll(tasks);
+
+                List<Comment> comments = new ArrayList<>();
+                for (Task task : tasks) {
+                    dataset.taskIds.add(task.getTaskId());
+                    for (int c = 0; c < settings.commentsPerTask(); c++) {
+                        Comment comment = new Comment();
+                        comment.setTask(task);
+                        comment.setAuthor(users.get(random.nextInt(users.size())));
+                        comment.setContent("seed comment " + c);
+                        comments.add(comment);
+                    }
+                }
+                commentRepository.saveAll(comments);
+            }
+        }
+        return dataset;
+    }
+
+    List<String> usernames() {
+        return usernames;
+    }
+
+    List<Long> projectIds() {
+        return projectIds;
+    }
+
+    List<Long> taskIds() {
+        return taskIds;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mazen.wfm.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Machine readable result of a load run. Besides the percentiles, every endpoint carries its full
+ * histogram (compressed, base64) so two runs can be compared or merged offline with HdrHistogram tooling.
+ */
+record LoadReport(
+        Instant startedAt,
+        int clients,
+        double durationSeconds,
+        String javaVersion,
+        String threadingMode,
+        Map<String, Integer> mix,
+        Map<String, EndpointSummary> endpoints,
+        EndpointSummary total
+) {
+
+    record EndpointSummary(
+            long requests,
+            long errors,
+            double throughputPerSecond,
+            double meanMs,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs,
+            String histogram
+    ) {
+        static EndpointSummary of(EndpointStats stats, double durationSeconds) {
+            Histogram h = stats.latencies();
+            long count = h.getTotalCount();
+            return new EndpointSummary(
+                    count,
+                    stats.errors(),
+                    durationSeconds > 0 ? count / durationSeconds : 0,
+                    h.getMean() / 1000.0,
+                    h.getValueAtPercentile(50) / 1000.0,
+                    h.getValueAtPercentile(90) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0,
+                    h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0,
+                    encode(h));
+        }
+
+        private static String encode(Histogram h) {
+            ByteBuffer buffer = ByteBuffer.allocate(h.getNeededByteBufferCapacity());
+            int length = h.encodeIntoCompressedByteBuffer(buffer);
+            byte[] bytes = new byte[length];
+            buffer.flip();
+            buffer.get(bytes);
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+    }
+
+    static LoadReport of(LoadTestSettings settings, Instant startedAt, double durationSeconds,
+                         String threadingMode, Map<String, EndpointStats> merged) {
+        Map<String, EndpointSummary> endpoints = new LinkedHashMap<>();
+        EndpointStats total = new EndpointStats();
+        merged.forEach((name, stats) -> {
+            endpoints.put(name, EndpointSummary.of(stats, durationSeconds));
+            total.add(stats);
+        });
+        return new LoadReport(startedAt, settings.clients(), durationSeconds, Runtime.version().toString(),
+                threadingMode, settings.mix(), endpoints, EndpointSummary.of(total, durationSeconds));
+    }
+
+    void writeTo(Path file, ObjectMapper objectMapper) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValue(file.toFile(), this);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mazen.wfm.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Knobs for {@link ApiLoadTest}, read from system properties so a release run can be tuned from the
+ * command line, e.g. {@code mvn test -Pload-test -Dload.clients=64 -Dload.duration=60}.
+ */
+record LoadTestSettings(
+        int clients,
+        Duration warmup,
+        Duration duration,
+        Map<String, Integer> mix,
+        int users,
+        int projectsPerUser,
+        int tasksPerProject,
+        int commentsPerTask,
+        Path reportFile
+) {
+
+    // operation name -> relative weight
+    static final String DEFAULT_MIX =
+            "tasks.get=25,tasks.byProject=15,projects.get=15,projects.my=10,comments.byTask=20,comments.create=5,auth.login=10";
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("load.clients", 16),
+                Duration.ofSeconds(Long.getLong("load.warmup", 3)),
+                Duration.ofSeconds(Long.getLong("load.duration", 15)),
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)),
+                Integer.getInteger("load.seed.users", 20),
+                Integer.getInteger("load.seed.projectsPerUser", 3),
+                Integer.getInteger("load.seed.tasksPerProject", 40),
+                Integer.getInteger("load.seed.commentsPerTask", 2),
+                Path.of(System.getProperty("load.report", "target/load-test/report.json"))
+        );
+    }
+
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Bad load.mix entry: " + entry);
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0)
+                mix.put(parts[0].trim(), weight);
+        }
+        if (mix.isEmpty())
+            throw new IllegalArgumentException("load.mix has no positive weights");
+        return mix;
+    }
+}
@@ -0,0 +1,80 @@
+package com.mazen.wfm.metrics;
+
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.repositories.TagRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestMetricsIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  private Tag tag;
+
+  @BeforeEach
+  void setUp() {
+    tagRepository.deleteAll();
+    tag = tagRepository.save(new Tag(null, "metrics"));
+  }
+
+  @Test
+  @WithMockUser(username = "testuser")
+  void testRequest_ShouldBeTimedPerControllerMethod() throws Exception {
+    mockMvc.perform(get("/api/tags/{id}", tag.getTagId()))
+        .andExpect(status().isOk());
+
+    Timer timer = meterRegistry.find("http.server.requests")
+        .tag(MetricNames.TAG_HANDLER, "TagController.getTag")
+        .tag("uri", "/api/tags/{id}")
+        .timer();
+    assertThat(timer).isNotNull();
+    assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  @WithMockUser(username = "testuser")
+  void testRequest_ShouldRecordStatementsAndEntityLoads() throws Exception {
+    mockMvc.perform(get("/api/tags/{id}", tag.getTagId()))
+        .andExpect(status().isOk());
+
+    DistributionSummary statements = meterRegistry.find(MetricNames.REQUEST_STATEMENTS)
+        .tags(MetricNames.TAG_METHOD, "GET", MetricNames.TAG_URI, "/api/tags/{id}")
+        .summary();
+    DistributionSummary entityLoads = meterRegistry.find(MetricNames.REQUEST_ENTITY_LOADS)
+        .tags(MetricNames.TAG_METHOD, "GET", MetricNames.TAG_URI, "/api/tags/{id}")
+        .summary();
+    assertThat(statements).isNotNull();
+    assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(1);
+    assertThat(entityLoads).isNotNull();
+    assertThat(entityLoads.totalAmount()).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  void testConnectionPool_ShouldExposeActiveAndPendingGauges() {
+    assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", "wfm-primary").gauge()).isNotNull();
+    assertThat(meterRegistry.find("hikaricp.connections.pending").tag("pool", "wfm-primary").gauge()).isNotNull();
+  }
+}
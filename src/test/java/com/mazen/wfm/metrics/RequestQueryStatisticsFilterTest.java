@@ -0,0 +1,104 @@
+package com.mazen.wfm.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestQueryStatisticsFilterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private RequestQueryStatisticsFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    filter = new RequestQueryStatisticsFilter(meterRegistry, 3);
+  }
+
+  @Test
+  void testRequestWithinDefaultBudget_ShouldNotCountAsExceeded() throws Exception {
+    MockHttpServletRequest request = request("/api/things", PlainController.class, "list");
+
+    filter.doFilter(request, new MockHttpServletResponse(), chainIssuing(3));
+
+    assertThat(request.getAttribute(RequestQueryStatisticsFilter.STATEMENTS_ATTRIBUTE)).isEqualTo(3L);
+    assertThat(exceeded("/api/things")).isNull();
+  }
+
+  @Test
+  void testRequestOverDefaultBudget_ShouldCountAsExceeded() throws Exception {
+    filter.doFilter(request("/api/things", PlainController.class, "list"), new MockHttpServletResponse(), chainIssuing(4));
+    filter.doFilter(request("/api/things", PlainController.class, "list"), new MockHttpServletResponse(), chainIssuing(5));
+
+    assertThat(exceeded("/api/things").count()).isEqualTo(2);
+  }
+
+  @Test
+  void testMethodBudget_ShouldOverrideClassAndDefaultBudget() throws Exception {
+    filter.doFilter(request("/api/things/{id}", ThingController.class, "get"), new MockHttpServletResponse(), chainIssuing(1));
+    filter.doFilter(request("/api/things/search", ThingController.class, "search"), new MockHttpServletResponse(), chainIssuing(20));
+
+    assertThat(exceeded("/api/things/{id}").count()).isEqualTo(1);
+    assertThat(exceeded("/api/things/search")).isNull();
+  }
+
+  @Test
+  void testRequestWithoutHandler_ShouldUseDefaultBudget() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/nowhere");
+
+    filter.doFilter(request, new MockHttpServletResponse(), chainIssuing(4));
+
+    assertThat(exceeded("UNKNOWN").count()).isEqualTo(1);
+  }
+
+  private Counter exceeded(String uri) {
+    return meterRegistry.find(MetricNames.REQUEST_BUDGET_EXCEEDED)
+        .tags(MetricNames.TAG_METHOD, "GET", MetricNames.TAG_URI, uri)
+        .counter();
+  }
+
+  private static MockHttpServletRequest request(String pattern, Class<?> controller, String handlerMethod) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+    request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+        new HandlerMethod(controller.getDeclaredConstructor().newInstance(), controller.getMethod(handlerMethod)));
+    return request;
+  }
+
+  // Stands in for Hibernate: feeds n statements through the inspector while the request is in flight
+  private static MockFilterChain chainIssuing(int n) {
+    return new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest req, HttpServletResponse resp) {
+        for (int i = 0; i < n; i++)
+          RequestQueryStatistics.STATEMENT_INSPECTOR.inspect("select 1");
+      }
+    });
+  }
+
+  @StatementBudget(0)
+  static class ThingController {
+    @StatementBudget(25)
+    public void search() {
+    }
+
+    public void get() {
+    }
+  }
+
+  static class PlainController {
+    public void list() {
+    }
+  }
+}
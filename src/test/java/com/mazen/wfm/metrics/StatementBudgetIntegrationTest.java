@@ -0,0 +1,242 @@
+package com.mazen.wfm.metrics;
+
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TagRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.services.TaskService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the SQL statement count of the read endpoints and bulk writes. Not transactional on purpose: the requests
+ * must not see the test's persistence context, or entities saved in setUp would come out of it for free.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementBudgetIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  private AppUser owner;
+  private Project project;
+  private Task task;
+  private Tag tag;
+
+  @BeforeEach
+  void setUp() {
+    cleanUp();
+
+    owner = appUserRepository.save(AppUser.builder()
+        .username("budgetowner")
+        .password("password")
+        .fullName("Budget Owner")
+        .email("budget@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+
+    project = new Project();
+    project.setName("Budget Project");
+    project.setOwner(owner);
+    project.setCreatedAt(LocalDateTime.now());
+    project = projectRepository.save(project);
+
+    tag = tagRepository.save(new Tag(null, "budget"));
+
+    for (int i = 0; i < 5; i++) {
+      Task t = new Task();
+      t.setTitle("Task " + i);
+      t.setProject(project);
+      t.setAssignees(new HashSet<>(Set.of(owner)));
+      t.setTags(new HashSet<>(Set.of(tag)));
+      t = taskRepository.save(t);
+      if (i == 0)
+        task = t;
+    }
+  }
+
+  @AfterEach
+  void cleanUp() {
+    commentRepository.deleteAll();
+    taskRepository.deleteAll();
+    projectRepository.deleteAll();
+    tagRepository.deleteAll();
+    appUserRepository.deleteAll();
+  }
+
+  @Test
+  @WithMockUser(username = "budgetowner")
+  void testSingleEntityReads_ShouldStayWithinStatementBudget() throws Exception {
+    mockMvc.perform(get("/api/tags/{id}", tag.getTagId()))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(1));
+    mockMvc.perform(get("/api/projects/{id}", project.getProjectId()))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(1));
+    mockMvc.perform(get("/api/tasks/{id}", task.getTaskId()))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(3));
+    mockMvc.perform(get("/api/comments/task/{taskId}", task.getTaskId()))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(3));
+  }
+
+  @Test
+  @WithMockUser(username = "budgetowner")
+  void testCurrentUserProjects_ShouldStayWithinStatementBudget() throws Exception {
+    mockMvc.perform(get("/api/projects/my"))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(2));
+  }
+
+  @Test
+  @WithMockUser(username = "budgetowner")
+  void testMyNextTasks_ShouldNotLoadTasksOneByOne() throws Exception {
+    // user lookup, ranking query and one fetch of the top tasks with project, assignees and tags, whatever the limit
+    mockMvc.perform(get("/api/tasks/my/next").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(3));
+  }
+
+  @Test
+  @WithMockUser(username = "budgetowner")
+  void testTaskQuery_ShouldNotDependOnFilterOrPageSize() throws Exception {
+    // one query for the page's ids with every filter, one fetch of those tasks with project, assignees and tags
+    mockMvc.perform(get("/api/tasks/query")
+            .param("projectId", project.getProjectId().toString())
+            .param("tag", tag.getTagId().toString())
+            .param("assigneeId", owner.getUserId().toString())
+            .param("status", "TODO", "IN_PROGRESS")
+            .param("q", "task")
+            .param("sort", "PRIORITY")
+            .param("size", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.tasks.length()").value(3))
+        .andExpect(jsonPath("$.data.nextCursor").isNotEmpty())
+        .andExpect(StatementCount.atMost(2));
+  }
+
+  @Test
+  @WithMockUser(username = "budgetowner")
+  void testBulkLinks_ShouldNotDependOnTaskOrLinkCount() throws Exception {
+    String body = "{\"taskIds\": " + taskIds() + ", \"add\": [" + owner.getUserId() + ", 999], \"remove\": [998]}";
+
+    // delete, new-pairs query and insert, however many tasks and existing assignees
+    mockMvc.perform(post("/api/tasks/bulk/assignees").contentType(MediaType.APPLICATION_JSON).content(body))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(3));
+    mockMvc.perform(post("/api/tasks/bulk/tags").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"taskIds\": " + taskIds() + ", \"add\": [" + tag.getTagId() + "], \"remove\": [998]}"))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(2));
+  }
+
+  @Test
+  @WithMockUser(username = "budgetowner")
+  void testSingleTaskLinks_ShouldNotLoadExistingLinks() throws Exception {
+    Set<Long> assignees = new HashSet<>();
+    for (int i = 0; i < 5; i++)
+      assignees.add(appUserRepository.save(AppUser.builder()
+          .username("budgetassignee" + i)
+          .password("password")
+          .fullName("Budget Assignee")
+          .email("budgetassignee" + i + "@test.com")
+          .role(UserRole.USER)
+          .active(true)
+          .createdAt(LocalDateTime.now())
+          .build()).getUserId());
+    taskService.updateAssignees(Set.of(task.getTaskId()), assignees, null);
+
+    // task and user checks, new-pairs query and insert, then the task reloaded for the response (assignees, tags)
+    mockMvc.perform(post("/api/tasks/{id}/users", task.getTaskId()).contentType(MediaType.APPLICATION_JSON).content("[" + owner.getUserId() + "]"))
+        .andExpect(status().isOk())
+        .andExpect(StatementCount.atMost(6));
+    // existence check, assignee ids, one DELETE and one recount of their open tasks, the change log entry, then
+    // the task's index rows read again after commit
+    mockMvc.perform(delete("/api/tasks/{id}/assignees", task.getTaskId()))
+        .andExpect(status().isNoContent())
+        .andExpect(StatementCount.atMost(6));
+    // existence check, one DELETE, the change log entry, then the task's index rows
+    mockMvc.perform(delete("/api/tasks/{id}/tags", task.getTaskId()))
+        .andExpect(status().isNoContent())
+        .andExpect(StatementCount.atMost(4));
+  }
+
+  @Test
+  @WithMockUser(username = "budgetowner")
+  void testRequestOverBudget_ShouldBeCounted() throws Exception {
+    double before = exceededCount("/api/tasks/project/{projectId}");
+
+    // 2 statements plus assignees and tags per task: over the default budget of 10 with 5 tasks
+    mockMvc.perform(get("/api/tasks/project/{projectId}", project.getProjectId()))
+        .andExpect(status().isOk());
+
+    assertThat(exceededCount("/api/tasks/project/{projectId}")).isEqualTo(before + 1);
+  }
+
+  private String taskIds() {
+    return taskRepository.findByProject_ProjectId(project.getProjectId()).stream()
+        .map(t -> t.getTaskId().toString())
+        .collect(Collectors.joining(", ", "[", "]"));
+  }
+
+  private double exceededCount(String uri) {
+    Counter counter = meterRegistry.find(MetricNames.REQUEST_BUDGET_EXCEEDED)
+        .tags(MetricNames.TAG_METHOD, "GET", MetricNames.TAG_URI, uri)
+        .counter();
+    return counter != null ? counter.count() : 0;
+  }
+}
@@ -0,0 +1,29 @@
+package com.mazen.wfm.metrics;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers on the number of SQL statements a request issued, as counted by
+ * {@link RequestQueryStatisticsFilter}. Use them to pin down an endpoint's query count so N+1
+ * regressions fail the build.
+ */
+public final class StatementCount {
+
+  private StatementCount() {
+  }
+
+  public static ResultMatcher atMost(long max) {
+    return result -> assertThat(statements(result.getRequest().getAttribute(RequestQueryStatisticsFilter.STATEMENTS_ATTRIBUTE)))
+        .as("SQL statements issued by %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+        .isLessThanOrEqualTo(max);
+  }
+
+  private static long statements(Object attribute) {
+    assertThat(attribute)
+        .as("statement count attribute (is RequestQueryStatisticsFilter registered?)")
+        .isInstanceOf(Long.class);
+    return (Long) attribute;
+  }
+}
@@ -0,0 +1,161 @@
+package com.mazen.wfm.repositories;
+
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.metrics.RequestQueryStatistics;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.models.UserRole;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every read runs in its own transaction, so anything not coming from the second-level cache has to
+ * hit the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private AppUser owner;
+  private Project project;
+  private Tag tag;
+
+  @BeforeEach
+  void setUp() {
+    cleanUp();
+
+    owner = appUserRepository.save(AppUser.builder()
+        .username("cacheowner")
+        .password("password")
+        .fullName("Cache Owner")
+        .email("cache@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+
+    project = new Project();
+    project.setName("Cached Project");
+    project.setOwner(owner);
+    project = projectRepository.save(project);
+
+    tag = tagRepository.save(new Tag(null, "cached"));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    commentRepository.deleteAll();
+    taskRepository.deleteAll();
+    projectRepository.deleteAll();
+    tagRepository.deleteAll();
+    appUserRepository.deleteAll();
+  }
+
+  @Test
+  void testFindProjectById_ShouldNotQueryOnceCached() {
+    statementsIssuedBy(() -> projectRepository.findById(project.getProjectId()));
+
+    long statements = statementsIssuedBy(() -> projectRepository.findById(project.getProjectId()).orElseThrow().getOwner().getUsername());
+
+    assertThat(statements).isZero();
+  }
+
+  @Test
+  void testFindUserByUsername_ShouldNotQueryOnceCached() {
+    statementsIssuedBy(() -> appUserRepository.findByUsername("cacheowner"));
+
+    long statements = statementsIssuedBy(() -> appUserRepository.findByUsername("cacheowner").orElseThrow());
+
+    assertThat(statements).isZero();
+  }
+
+  @Test
+  void testFindUserByUsername_WhenUnknown_ShouldReturnEmpty() {
+    assertThat(inTransaction(() -> appUserRepository.findByUsername("nobody"))).isEmpty();
+    assertThat(inTransaction(() -> appUserRepository.findByUsername(null))).isEmpty();
+  }
+
+  @Test
+  void testFindTagByName_AfterRename_ShouldResolveNewNameOnly() {
+    statementsIssuedBy(() -> tagRepository.findByName("cached"));
+
+    tagRepository.save(new Tag(tag.getTagId(), "renamed"));
+
+    assertThat(inTransaction(() -> tagRepository.findByName("cached"))).isEmpty();
+    assertThat(inTransaction(() -> tagRepository.findByName("renamed")))
+        .get()
+        .extracting(Tag::getTagId)
+        .isEqualTo(tag.getTagId());
+  }
+
+  @Test
+  void testUpdatedProject_ShouldNotBeServedStale() {
+    statementsIssuedBy(() -> projectRepository.findById(project.getProjectId()));
+
+    project.setName("Renamed Project");
+    projectRepository.save(project);
+
+    String name = inTransaction(() -> projectRepository.findById(project.getProjectId()).orElseThrow().getName());
+    assertThat(name).isEqualTo("Renamed Project");
+  }
+
+  @Test
+  void testHitRatio_ShouldBeExposedPerRegion() {
+    statementsIssuedBy(() -> projectRepository.findById(project.getProjectId()));
+    statementsIssuedBy(() -> projectRepository.findById(project.getProjectId()));
+
+    Gauge hitRatio = meterRegistry.find(MetricNames.CACHE_HIT_RATIO)
+        .tag(MetricNames.TAG_REGION, "projects")
+        .gauge();
+    assertThat(hitRatio).isNotNull();
+    assertThat(hitRatio.value()).isGreaterThan(0);
+  }
+
+  private <T> T inTransaction(Supplier<T> read) {
+    return transactionTemplate.execute(status -> read.get());
+  }
+
+  private long statementsIssuedBy(Supplier<?> read) {
+    RequestQueryStatistics.begin();
+    try {
+      inTransaction(read);
+      return RequestQueryStatistics.current().statements();
+    } finally {
+      RequestQueryStatistics.end();
+    }
+  }
+}
@@ -1,9 +1,13 @@
 package com.mazen.wfm.repositories;
 
+import com.mazen.wfm.dtos.TaskInboxCursor;
+import com.mazen.wfm.dtos.TaskInboxFilter;
+import com.mazen.wfm.dtos.TaskQueryFilter;
 import com.mazen.wfm.models.AppUser;
 import com.mazen.wfm.models.Priority;
 import com.mazen.wfm.models.Project;
 import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.Tag;
 import com.mazen.wfm.models.Task;
 import com.mazen.wfm.models.UserRole;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,11 +18,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -436,4 +442,61 @@ class TaskRepositoryUnitTest {
     assertThat(savedTask.getDescription()).isNull();
     assertThat(savedTask.getTaskId()).isNotNull();
   }
+
+  @Test
+  void testFindTaskIds_WithSpecifications_ShouldCombineFilters() {
+    // Given - two tags on task 2, one on task 3, and task 2 a subtask of task 1
+    Tag backend = entityManager.persist(new Tag(null, "Backend"));
+    Tag urgent = entityManager.persist(new Tag(null, "Urgent"));
+    testTask2.getTags().addAll(List.of(backend, urgent));
+    testTask3.getTags().add(backend);
+    testTask2.setParentTask(testTask1);
+    entityManager.flush();
+
+    // Then - every filter on its own and combined, in due date order
+    assertThat(query(filter(Set.of(Status.TODO), null, null, null, null, null, testUser1.getUserId(), null, null)))
+        .containsExactly(testTask4.getTaskId(), testTask1.getTaskId());
+    assertThat(query(filter(null, null, null, null, testProject1.getProjectId(), null, testUser2.getUserId(), null, null)))
+        .containsExactly(testTask2.getTaskId());
+    assertThat(query(filter(null, Set.of(Priority.LOW, Priority.URGENT), LocalDate.now().minusDays(1), LocalDate.now(),
+        null, null, null, null, null)))
+        .containsExactly(testTask3.getTaskId());
+    // tasks with several of the tags still come back once
+    assertThat(query(filter(null, null, null, null, null, Set.of(backend.getTagId(), urgent.getTagId()), null, null, null)))
+        .containsExactly(testTask3.getTaskId(), testTask2.getTaskId());
+    assertThat(query(new TaskQueryFilter(null, null, null, null, null, Set.of(backend.getTagId(), urgent.getTagId()), true,
+        null, null, null, TaskInboxFilter.Sort.DUE_DATE)))
+        .containsExactly(testTask2.getTaskId());
+    assertThat(query(filter(null, null, null, null, null, null, null, testTask1.getTaskId(), null)))
+        .containsExactly(testTask2.getTaskId());
+    assertThat(query(filter(null, null, null, null, null, null, null, null, " DESCRIPTION for TASK 3 ")))
+        .containsExactly(testTask3.getTaskId());
+    assertThat(query(filter(null, null, null, null, null, null, null, null, "%"))).isEmpty();
+  }
+
+  @Test
+  void testFindTaskIds_ByPriority_ShouldPageAfterCursor() {
+    // Given
+    TaskQueryFilter all = filter(null, null, null, null, null, null, null, null, null);
+    Specification<Task> spec = TaskSpecifications.matching(all);
+
+    // When
+    List<Long> first = taskRepository.findTaskIds(spec, TaskInboxFilter.Sort.PRIORITY, null, 2);
+    List<Long> second = taskRepository.findTaskIds(spec, TaskInboxFilter.Sort.PRIORITY,
+        TaskInboxCursor.after(TaskInboxFilter.Sort.PRIORITY, testTask2), 2);
+
+    // Then
+    assertThat(first).containsExactly(testTask4.getTaskId(), testTask2.getTaskId());
+    assertThat(second).containsExactly(testTask1.getTaskId(), testTask3.getTaskId());
+  }
+
+  private List<Long> query(TaskQueryFilter filter) {
+    return taskRepository.findTaskIds(TaskSpecifications.matching(filter), filter.sort(), null, 10);
+  }
+
+  private static TaskQueryFilter filter(Set<Status> statuses, Set<Priority> priorities, LocalDate dueFrom, LocalDate dueTo,
+                                        Long projectId, Set<Long> tagIds, Long assigneeId, Long parentTaskId, String text) {
+    return new TaskQueryFilter(statuses, priorities, dueFrom, dueTo, projectId, tagIds, false, assigneeId, parentTaskId, text,
+        TaskInboxFilter.Sort.DUE_DATE);
+  }
 }
@@ -0,0 +1,119 @@
+package com.mazen.wfm.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mazen.wfm.config.RateLimitProperties;
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private SimpleMeterRegistry meterRegistry;
+  private RateLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    filter = new RateLimitFilter(new RateLimitProperties(true, 1000, Duration.ofMinutes(10), List.of(
+        new RateLimitProperties.Route("advice", "/api/tasks/tasks-advice/**", null, 2, Duration.ofMinutes(1)),
+        new RateLimitProperties.Route("login", "/api/v1/auth/login", "POST", 1, Duration.ofMinutes(1)))),
+        meterRegistry, new ObjectMapper(), clock::get);
+  }
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void testRequestsOverCapacity_ShouldGet429WithRetryAfter() throws Exception {
+    authenticate("alice");
+
+    assertThat(send("GET", "/api/tasks/tasks-advice/stream").getStatus()).isEqualTo(200);
+    assertThat(send("POST", "/api/tasks/tasks-advice").getStatus()).isEqualTo(200);
+    MockHttpServletResponse rejected = send("POST", "/api/tasks/tasks-advice");
+
+    assertThat(rejected.getStatus()).isEqualTo(429);
+    assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+    assertThat(rejected.getContentAsString()).contains("Too many requests");
+    assertThat(requests("advice", "allowed")).isEqualTo(2);
+    assertThat(requests("advice", "rejected")).isEqualTo(1);
+  }
+
+  @Test
+  void testBucketRefill_ShouldAllowAgainAfterRetryAfter() throws Exception {
+    authenticate("alice");
+    send("POST", "/api/tasks/tasks-advice");
+    send("POST", "/api/tasks/tasks-advice");
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+    assertThat(send("POST", "/api/tasks/tasks-advice").getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void testBuckets_ShouldBeSeparatePerUser() throws Exception {
+    authenticate("alice");
+    send("POST", "/api/tasks/tasks-advice");
+    send("POST", "/api/tasks/tasks-advice");
+
+    authenticate("bob");
+
+    assertThat(send("POST", "/api/tasks/tasks-advice").getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void testAnonymousRequests_ShouldBeLimitedPerAddress() throws Exception {
+    assertThat(send("POST", "/api/v1/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+    assertThat(send("POST", "/api/v1/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+    assertThat(send("POST", "/api/v1/auth/login", "10.0.0.2").getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void testUnlimitedRoutesAndMethods_ShouldPassThrough() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      assertThat(send("GET", "/api/tasks/my/next").getStatus()).isEqualTo(200);
+      assertThat(send("GET", "/api/v1/auth/login").getStatus()).isEqualTo(200);
+    }
+    assertThat(meterRegistry.find(MetricNames.RATE_LIMIT_REQUESTS).counter()).isNull();
+  }
+
+  private MockHttpServletResponse send(String method, String path) throws Exception {
+    return send(method, path, "127.0.0.1");
+  }
+
+  private MockHttpServletResponse send(String method, String path, String remoteAddr) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+    request.setRemoteAddr(remoteAddr);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  private static void authenticate(String username) {
+    SecurityContextHolder.getContext().setAuthentication(
+        UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+  }
+
+  private double requests(String route, String outcome) {
+    return meterRegistry.get(MetricNames.RATE_LIMIT_REQUESTS)
+        .tags(MetricNames.TAG_ROUTE, route, MetricNames.TAG_OUTCOME, outcome)
+        .counter().count();
+  }
+}
@@ -0,0 +1,48 @@
+package com.mazen.wfm.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitIntegrationTest {
+
+  private static final String BAD_LOGIN = """
+      {"username": "nobody", "password": "wrong"}
+      """;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void testLogin_OverDefaultLimit_ShouldBeRejectedBeforeAuthentication() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      mockMvc.perform(post("/api/v1/auth/login").with(remoteAddr()).contentType(MediaType.APPLICATION_JSON).content(BAD_LOGIN))
+          .andExpect(status().isBadRequest());
+    }
+
+    mockMvc.perform(post("/api/v1/auth/login").with(remoteAddr()).contentType(MediaType.APPLICATION_JSON).content(BAD_LOGIN))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+  }
+
+  // an address of its own, so no other test shares (or drains) this bucket
+  private static RequestPostProcessor remoteAddr() {
+    return request -> {
+      request.setRemoteAddr("192.0.2.36");
+      return request;
+    };
+  }
+}
@@ -0,0 +1,82 @@
+package com.mazen.wfm.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void testTryConsume_ShouldAllowBurstUpToCapacity() {
+    TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+
+    assertThat(bucket.tryConsume(0)).isZero();
+    assertThat(bucket.tryConsume(0)).isZero();
+    assertThat(bucket.tryConsume(0)).isZero();
+    assertThat(bucket.tryConsume(0)).isEqualTo(SECOND);
+  }
+
+  @Test
+  void testTryConsume_ShouldRefillOneTokenPerInterval() {
+    TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(10), 0);
+    bucket.tryConsume(0);
+    bucket.tryConsume(0);
+
+    assertThat(bucket.tryConsume(2 * SECOND)).isEqualTo(3 * SECOND);
+    assertThat(bucket.tryConsume(5 * SECOND)).isZero();
+    assertThat(bucket.tryConsume(5 * SECOND)).isEqualTo(5 * SECOND);
+  }
+
+  @Test
+  void testTryConsume_AfterLongIdle_ShouldNotExceedCapacity() {
+    TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(2), 0);
+
+    long later = 3600 * SECOND;
+    assertThat(bucket.tryConsume(later)).isZero();
+    assertThat(bucket.tryConsume(later)).isZero();
+    assertThat(bucket.tryConsume(later)).isPositive();
+  }
+
+  @Test
+  void testTryConsume_UnderContention_ShouldHandOutExactlyCapacity() throws Exception {
+    TokenBucket bucket = new TokenBucket(100, Duration.ofHours(1), 0);
+    AtomicInteger allowed = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      for (int i = 0; i < 1000; i++) {
+        executor.execute(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          if (bucket.tryConsume(0) == 0)
+            allowed.incrementAndGet();
+        });
+      }
+      start.countDown();
+    } finally {
+      executor.shutdown();
+      assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    assertThat(allowed.get()).isEqualTo(100);
+  }
+
+  @Test
+  void testConstructor_WithZeroCapacity_ShouldFail() {
+    assertThatThrownBy(() -> new TokenBucket(0, Duration.ofMinutes(1), 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
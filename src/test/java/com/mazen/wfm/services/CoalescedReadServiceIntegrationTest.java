@@ -0,0 +1,124 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.TagDTO;
+import com.mazen.wfm.dtos.request.UpdateProjectRequest;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TagRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: reads are only evicted once a write commits. Results are kept far longer than any test
+// runs, so whatever changes was evicted.
+@SpringBootTest(properties = "wfm.single-flight.freshness=1h")
+@ActiveProfiles("test")
+class CoalescedReadServiceIntegrationTest {
+
+  @Autowired
+  private CoalescedReadService coalescedReadService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private ProjectService projectService;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private AppUser user;
+  private Project project;
+  private Tag tag;
+  private Task task;
+
+  @BeforeEach
+  void setUp() {
+    user = appUserRepository.save(AppUser.builder()
+        .username("coalesceduser")
+        .password("password")
+        .fullName("Coalesced User")
+        .email("coalesced@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    tag = tagRepository.save(new Tag(null, "coalesced"));
+    project = new Project();
+    project.setName("Coalesced Project");
+    project.setOwner(user);
+    project.setCreatedAt(LocalDateTime.now());
+    project = projectRepository.save(project);
+    task = new Task();
+    task.setTitle("Read by many");
+    task.setProject(project);
+    task = taskService.createTask(task);
+  }
+
+  @AfterEach
+  void tearDown() {
+    taskService.clearTags(task.getTaskId());
+    taskService.deleteTask(task.getTaskId());
+    projectRepository.delete(project);
+    tagRepository.delete(tag);
+    appUserRepository.delete(user);
+  }
+
+  @Test
+  void testBulkWrite_ShouldEvictTheTasksOnceCommitted() {
+    // Given
+    assertThat(coalescedReadService.getTask(task.getTaskId()).getTags()).isEmpty();
+
+    // When - the rolled back write leaves the result alone, the committed one drops it
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      taskService.updateTags(Set.of(task.getTaskId()), Set.of(tag.getTagId()), null);
+      status.setRollbackOnly();
+    });
+    TaskResponse beforeCommit = coalescedReadService.getTask(task.getTaskId());
+    taskService.updateTags(Set.of(task.getTaskId()), Set.of(tag.getTagId()), null);
+
+    // Then
+    assertThat(beforeCommit.getTags()).isEmpty();
+    assertThat(coalescedReadService.getTask(task.getTaskId()).getTags())
+        .containsExactly(new TagDTO(tag.getTagId(), "coalesced"));
+  }
+
+  @Test
+  void testProjectUpdate_ShouldEvictTheProjectAndItsTasks() {
+    // Given
+    assertThat(coalescedReadService.getProject(project.getProjectId()).name()).isEqualTo("Coalesced Project");
+    assertThat(coalescedReadService.getTask(task.getTaskId()).getProjectName()).isEqualTo("Coalesced Project");
+
+    // When
+    projectService.updateProject(project.getProjectId(), new UpdateProjectRequest("Renamed Project", null));
+
+    // Then
+    assertThat(coalescedReadService.getProject(project.getProjectId()).name()).isEqualTo("Renamed Project");
+    assertThat(coalescedReadService.getTask(task.getTaskId()).getProjectName()).isEqualTo("Renamed Project");
+  }
+}
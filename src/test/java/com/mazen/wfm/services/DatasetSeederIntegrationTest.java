@@ -0,0 +1,87 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.config.SeedProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: the seeder commits a transaction per batch
+@SpringBootTest
+@ActiveProfiles("test")
+class DatasetSeederIntegrationTest {
+
+  private static final String SEEDED_TASKS = "FROM tasks t JOIN projects p ON p.project_id = t.project_id WHERE p.name LIKE 'Seed project %'";
+
+  @Autowired
+  private DatasetSeeder datasetSeeder;
+
+  @Autowired
+  private ProjectPurger projectPurger;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.queryForList("SELECT project_id FROM projects WHERE name LIKE 'Seed project %'", Long.class)
+        .forEach(projectPurger::purge);
+    jdbcTemplate.update("DELETE FROM change_log WHERE entity_type = 'PROJECT' AND entity_id NOT IN (SELECT project_id FROM projects)");
+    jdbcTemplate.update("DELETE FROM tags WHERE name LIKE 'seed-tag-%'");
+    jdbcTemplate.update("DELETE FROM user_task_counts WHERE user_id IN (SELECT user_id FROM app_user WHERE username LIKE 'seeduser%')");
+    jdbcTemplate.update("DELETE FROM app_user WHERE username LIKE 'seeduser%'");
+  }
+
+  @Test
+  void testSeed_ShouldGenerateTheConfiguredDataset() {
+    // When
+    long inserted = datasetSeeder.seed(plan(250));
+
+    // Then
+    assertThat(inserted).isEqualTo(250);
+    assertThat(count("SELECT COUNT(*) " + SEEDED_TASKS)).isEqualTo(250);
+    assertThat(count("SELECT COUNT(*) FROM app_user WHERE username LIKE 'seeduser%'")).isEqualTo(5);
+    assertThat(count("SELECT COUNT(*) FROM projects WHERE name LIKE 'Seed project %'")).isEqualTo(3);
+    // subtasks stay within their parent's project and two levels deep
+    assertThat(count("SELECT COUNT(*) " + SEEDED_TASKS + " AND t.parent_task_id IS NOT NULL")).isPositive();
+    assertThat(count("SELECT COUNT(*) FROM tasks t JOIN tasks parent ON parent.task_id = t.parent_task_id " +
+        "WHERE parent.project_id <> t.project_id")).isZero();
+    assertThat(count("SELECT COUNT(*) FROM tasks t JOIN tasks p1 ON p1.task_id = t.parent_task_id " +
+        "JOIN tasks p2 ON p2.task_id = p1.parent_task_id WHERE p2.parent_task_id IS NOT NULL")).isZero();
+    assertThat(count("SELECT COUNT(*) FROM task_assignments a JOIN tasks t ON t.task_id = a.task_id " +
+        "JOIN projects p ON p.project_id = t.project_id WHERE p.name LIKE 'Seed project %'")).isPositive();
+    assertThat(count("SELECT COUNT(*) FROM change_log c WHERE c.entity_type = 'TASK' AND c.entity_id IN (SELECT t.task_id " +
+        SEEDED_TASKS + ")")).isEqualTo(250);
+    assertThat(count("SELECT COUNT(*) FROM user_task_counts c JOIN app_user u ON u.user_id = c.user_id " +
+        "WHERE u.username LIKE 'seeduser%'")).isEqualTo(5);
+  }
+
+  @Test
+  void testSeed_RunAgain_ShouldOnlyTopUp() {
+    // Given
+    datasetSeeder.seed(plan(250));
+
+    // When
+    long again = datasetSeeder.seed(plan(250));
+    long more = datasetSeeder.seed(plan(320));
+
+    // Then
+    assertThat(again).isZero();
+    assertThat(more).isEqualTo(70);
+    assertThat(count("SELECT COUNT(*) " + SEEDED_TASKS)).isEqualTo(320);
+    assertThat(count("SELECT COUNT(*) FROM app_user WHERE username LIKE 'seeduser%'")).isEqualTo(5);
+    assertThat(count("SELECT COUNT(*) FROM tags WHERE name LIKE 'seed-tag-%'")).isEqualTo(4);
+  }
+
+  private long count(String sql) {
+    return jdbcTemplate.queryForObject(sql, Long.class);
+  }
+
+  private static SeedProperties plan(long tasks) {
+    return new SeedProperties(true, 5, 3, tasks, 4, 0.5, 2, 2, 2, 1, 1.0, 100, 7);
+  }
+}
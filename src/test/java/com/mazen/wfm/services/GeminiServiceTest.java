@@ -0,0 +1,221 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.request.TaskAdviceRequest;
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.models.Priority;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiServiceTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private volatile TaskAdviceModel delegate;
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private GeminiIsolation isolation;
+  private GeminiService geminiService;
+
+  @BeforeEach
+  void setUp() {
+    delegate = prompt -> "advice #" + calls.get();
+    TaskAdviceModel model = prompt -> {
+      calls.incrementAndGet();
+      return delegate.generateAdvice(prompt);
+    };
+    isolation = new GeminiIsolation(
+        CircuitBreaker.of("gemini", CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(2)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build()),
+        ThreadPoolBulkhead.of("gemini", ThreadPoolBulkheadConfig.custom()
+            .maxThreadPoolSize(1)
+            .coreThreadPoolSize(1)
+            .queueCapacity(1)
+            .build()),
+        Duration.ofMillis(500));
+    geminiService = new GeminiService(model, isolation, Executors.newCachedThreadPool(), meterRegistry, 100, Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    isolation.close();
+  }
+
+  @Test
+  void testManageTasks_WithSameTasks_ShouldCallModelOnce() {
+    String first = geminiService.manageTasks(List.of(task("Write docs"), task("Fix bug"))).join();
+    String second = geminiService.manageTasks(List.of(task("Write docs"), task("Fix bug"))).join();
+
+    assertThat(second).isEqualTo(first);
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void testManageTasks_WithChangedTasks_ShouldCallModelAgain() {
+    geminiService.manageTasks(List.of(task("Write docs"))).join();
+    geminiService.manageTasks(List.of(task("Write more docs"))).join();
+
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  void testManageTasks_WhileCallInFlight_ShouldShareIt() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    delegate = prompt -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "slow advice";
+    };
+
+    CompletableFuture<String> first = geminiService.manageTasks(List.of(task("Write docs")));
+    CompletableFuture<String> second = geminiService.manageTasks(List.of(task("Write docs")));
+    assertThat(first).isNotDone();
+    release.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("slow advice");
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("slow advice");
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void testManageTasks_WhenModelFails_ShouldReturnLocalOrderingAndNotCache() {
+    delegate = prompt -> {
+      throw new IOException("vertex unavailable");
+    };
+    assertThat(geminiService.manageTasks(List.of(task("Write docs"))).join()).startsWith(GeminiService.FALLBACK_HEADER);
+
+    delegate = prompt -> "recovered";
+    assertThat(geminiService.manageTasks(List.of(task("Write docs"))).join()).isEqualTo("recovered");
+    assertThat(calls).hasValue(2);
+    assertThat(fallbacks("error")).isEqualTo(1);
+  }
+
+  @Test
+  void testManageTasks_WhenCircuitOpen_ShouldNotCallModel() {
+    delegate = prompt -> {
+      throw new IOException("vertex unavailable");
+    };
+    geminiService.manageTasks(List.of(task("First"))).join();
+    geminiService.manageTasks(List.of(task("Second"))).join();
+    assertThat(isolation.circuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+    String advice = geminiService.manageTasks(List.of(task("Third"))).join();
+
+    assertThat(advice).startsWith(GeminiService.FALLBACK_HEADER).contains("Third");
+    assertThat(calls).hasValue(2);
+    assertThat(fallbacks("circuit_open")).isEqualTo(1);
+  }
+
+  @Test
+  void testManageTasks_WhenModelTooSlow_ShouldFallBackAndInterruptCall() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    delegate = prompt -> {
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return "too late";
+    };
+
+    String advice = geminiService.manageTasks(List.of(task("Write docs"))).get(5, TimeUnit.SECONDS);
+
+    assertThat(advice).startsWith(GeminiService.FALLBACK_HEADER);
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(fallbacks("timeout")).isEqualTo(1);
+  }
+
+  @Test
+  void testManageTasks_WhenBulkheadFull_ShouldFallBackWithoutCallingModel() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    delegate = prompt -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "slow advice";
+    };
+    // one running, one queued
+    CompletableFuture<String> running = geminiService.manageTasks(List.of(task("Running")));
+    CompletableFuture<String> queued = geminiService.manageTasks(List.of(task("Queued")));
+
+    String rejected = geminiService.manageTasks(List.of(task("Rejected"))).get(1, TimeUnit.SECONDS);
+    release.countDown();
+
+    assertThat(rejected).startsWith(GeminiService.FALLBACK_HEADER);
+    assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("slow advice");
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("slow advice");
+    assertThat(fallbacks("bulkhead_full")).isEqualTo(1);
+  }
+
+  @Test
+  void testLocalAdvice_ShouldOrderByPriorityThenDueDate() {
+    TaskAdviceRequest later = task("Later");
+    TaskAdviceRequest sooner = task("Sooner");
+    sooner.setDueDate(LocalDate.of(2029, 6, 1));
+    TaskAdviceRequest urgent = task("Urgent");
+    urgent.setPriority(Priority.URGENT);
+    TaskAdviceRequest unprioritized = task("Whenever");
+    unprioritized.setPriority(null);
+
+    String advice = GeminiService.localAdvice(List.of(unprioritized, later, sooner, urgent));
+
+    assertThat(advice).containsSubsequence("1. Urgent", "2. Sooner", "3. Later", "4. Whenever (priority not set");
+  }
+
+  @Test
+  void testStreamTasks_WhenModelFailsBeforeFirstChunk_ShouldStreamLocalOrdering() throws Exception {
+    delegate = prompt -> {
+      throw new IOException("vertex unavailable");
+    };
+    List<String> chunks = new CopyOnWriteArrayList<>();
+
+    geminiService.streamTasks(List.of(task("Write docs")), chunks::add).get(5, TimeUnit.SECONDS);
+
+    assertThat(chunks).singleElement().asString().startsWith(GeminiService.FALLBACK_HEADER);
+  }
+
+  @Test
+  void testManageTasks_WithNoTasks_ShouldNotCallModel() {
+    assertThat(geminiService.manageTasks(List.of()).join()).isEqualTo(GeminiService.NO_TASKS_MESSAGE);
+    assertThat(calls).hasValue(0);
+  }
+
+  private double fallbacks(String reason) {
+    return meterRegistry.counter(MetricNames.ADVICE_FALLBACK, MetricNames.TAG_REASON, reason).count();
+  }
+
+  private static TaskAdviceRequest task(String title) {
+    return TaskAdviceRequest.builder()
+        .title(title)
+        .description(title + " description")
+        .priority(Priority.HIGH)
+        .dueDate(LocalDate.of(2030, 1, 1))
+        .assignees(Set.of())
+        .build();
+  }
+}
@@ -0,0 +1,184 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.dtos.response.BurndownDayResponse;
+import com.mazen.wfm.dtos.response.CfdDayResponse;
+import com.mazen.wfm.exceptions.BusinessException;
+import com.mazen.wfm.exceptions.ResourceNotFoundException;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.TaskStatusChange;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.ProjectStatusDayRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.repositories.TaskStatusHistoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Not @Transactional: status history is written after commit
+@SpringBootTest
+@ActiveProfiles("test")
+class ProjectAnalyticsServiceIntegrationTest {
+
+  @Autowired
+  private ProjectAnalyticsService projectAnalyticsService;
+
+  @Autowired
+  private TaskStatusHistoryWriter taskStatusHistoryWriter;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private TaskStatusHistoryRepository taskStatusHistoryRepository;
+
+  @Autowired
+  private ProjectStatusDayRepository projectStatusDayRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final LocalDate today = LocalDate.now();
+  private AppUser user;
+  private Project project;
+
+  @BeforeEach
+  void setUp() {
+    user = appUserRepository.save(AppUser.builder()
+        .username("analyticsuser")
+        .password("password")
+        .fullName("Analytics User")
+        .email("analytics@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    project = new Project();
+    project.setName("Analytics Project");
+    project.setOwner(user);
+    project.setCreatedAt(LocalDateTime.now());
+    project = projectRepository.save(project);
+  }
+
+  @AfterEach
+  void tearDown() {
+    taskRepository.findByProject_ProjectId(project.getProjectId()).forEach(task -> taskService.deleteTask(task.getTaskId()));
+    taskStatusHistoryWriter.flush();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      taskStatusHistoryRepository.deleteByProjectId(project.getProjectId());
+      projectStatusDayRepository.deleteAll();
+    });
+    projectRepository.delete(project);
+    appUserRepository.delete(user);
+  }
+
+  @Test
+  void testRollUp_ShouldServePastDaysFromHistory() {
+    // Given - two tasks created three days ago, A finished yesterday, B started yesterday
+    Task a = task("A", Status.DONE);
+    Task b = task("B", Status.IN_PROGRESS);
+    taskStatusHistoryRepository.saveAll(List.of(
+        change(a, null, Status.TODO, 3),
+        change(b, null, Status.TODO, 3),
+        change(a, Status.TODO, Status.IN_PROGRESS, 2),
+        change(a, Status.IN_PROGRESS, Status.DONE, 1),
+        change(b, Status.TODO, Status.IN_PROGRESS, 1)));
+
+    // When
+    assertThat(projectAnalyticsService.rollUp(today)).isPositive();
+
+    // Then - rolled-up days plus today, counted live
+    List<CfdDayResponse> cfd = projectAnalyticsService.getCumulativeFlow(project.getProjectId(), today.minusDays(3), today);
+    assertThat(cfd).extracting(CfdDayResponse::day)
+        .containsExactly(today.minusDays(3), today.minusDays(2), today.minusDays(1), today);
+    assertThat(cfd.get(0).tasks()).isEqualTo(counts(2, 0, 0));
+    assertThat(cfd.get(1).tasks()).isEqualTo(counts(1, 1, 0));
+    assertThat(cfd.get(2).tasks()).isEqualTo(counts(0, 1, 1));
+    assertThat(cfd.get(3).tasks()).isEqualTo(counts(0, 1, 1));
+
+    assertThat(projectAnalyticsService.getBurndown(project.getProjectId(), today.minusDays(3), today))
+        .extracting(BurndownDayResponse::remaining, BurndownDayResponse::completed)
+        .containsExactly(
+            tuple(2L, 0L),
+            tuple(2L, 0L),
+            tuple(1L, 1L),
+            tuple(1L, 1L));
+
+    // and the next run the same day has nothing left to do
+    assertThat(projectAnalyticsService.rollUp(today)).isZero();
+  }
+
+  @Test
+  void testStatusChanges_ShouldBeWrittenToHistory() {
+    // Given
+    Task task = new Task();
+    task.setTitle("Tracked");
+    task.setProject(project);
+    task = taskService.createTask(task);
+
+    // When
+    taskService.updateTask(task.getTaskId(), new TaskRequest(null, null, Status.DONE, null, null, null, null, null));
+    taskService.updateTask(task.getTaskId(), new TaskRequest("Renamed", null, null, null, null, null, null, null));
+    taskStatusHistoryWriter.flush();
+
+    // Then - created, then finished; the rename is no transition
+    assertThat(taskStatusHistoryRepository.findByTaskIdOrderByChangedAt(task.getTaskId()))
+        .extracting(TaskStatusChange::getFromStatus, TaskStatusChange::getToStatus)
+        .containsExactly(
+            tuple(null, Status.TODO),
+            tuple(Status.TODO, Status.DONE));
+  }
+
+  @Test
+  void testCumulativeFlow_WithInvalidRequest_ShouldFail() {
+    assertThatThrownBy(() -> projectAnalyticsService.getCumulativeFlow(-1L, null, null))
+        .isInstanceOf(ResourceNotFoundException.class);
+    assertThatThrownBy(() -> projectAnalyticsService.getCumulativeFlow(project.getProjectId(), today, today.minusDays(1)))
+        .isInstanceOf(BusinessException.class);
+  }
+
+  private Task task(String title, Status status) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setStatus(status);
+    task.setProject(project);
+    return taskRepository.save(task);
+  }
+
+  private TaskStatusChange change(Task task, Status from, Status to, int daysAgo) {
+    return new TaskStatusChange(null, task.getTaskId(), project.getProjectId(), from, to,
+        today.minusDays(daysAgo).atTime(12, 0));
+  }
+
+  private static Map<Status, Long> counts(long todo, long inProgress, long done) {
+    return Map.of(Status.TODO, todo, Status.IN_PROGRESS, inProgress, Status.DONE, done, Status.ARCHIVED, 0L);
+  }
+}
@@ -0,0 +1,234 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.request.CreateCommentRequest;
+import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.event.ProjectChangeEvent;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: only committed changes are streamed
+@SpringBootTest
+@ActiveProfiles("test")
+class ProjectEventBrokerIntegrationTest {
+
+  @Autowired
+  private ProjectEventBroker projectEventBroker;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private CommentService commentService;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final List<ProjectEventBroker.Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private AppUser user;
+  private Project project;
+
+  @BeforeEach
+  void setUp() {
+    user = appUserRepository.save(AppUser.builder()
+        .username("eventsuser")
+        .password("password")
+        .fullName("Events User")
+        .email("events@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    project = new Project();
+    project.setName("Events Project");
+    project.setOwner(user);
+    project.setCreatedAt(LocalDateTime.now());
+    project = projectRepository.save(project);
+  }
+
+  @AfterEach
+  void tearDown() {
+    subscribers.forEach(ProjectEventBroker.Subscriber::close);
+    taskRepository.findByProject_ProjectId(project.getProjectId()).forEach(task -> {
+      commentRepository.deleteAll(commentRepository.findByTask_TaskId(task.getTaskId()));
+      taskService.deleteTask(task.getTaskId());
+    });
+    projectRepository.delete(project);
+    appUserRepository.delete(user);
+  }
+
+  @Test
+  void testCommittedChanges_ShouldReachTheProjectsSubscribers() throws InterruptedException {
+    // Given
+    RecordingSink sink = new RecordingSink();
+    RecordingSink otherProject = new RecordingSink();
+    subscribers.add(projectEventBroker.subscribe(project.getProjectId(), sink));
+    subscribers.add(projectEventBroker.subscribe(-1L, otherProject));
+
+    // When
+    Task task = task("Streamed");
+    taskService.updateTask(task.getTaskId(), new TaskRequest(null, null, Status.IN_PROGRESS, null, null, null, null, null));
+    taskService.updateAssignees(Set.of(task.getTaskId()), Set.of(user.getUserId()), null);
+    commentService.addComment(new CreateCommentRequest(task.getTaskId(), "On it"), user.getUsername());
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      taskService.clearAssignees(task.getTaskId());
+      status.setRollbackOnly();
+    });
+
+    // Then - the rolled back change is not streamed
+    sink.await(4);
+    assertThat(sink.names).containsExactly("task_created", "task_updated", "task_assigned", "comment_added");
+    assertThat(otherProject.names).isEmpty();
+  }
+
+  @Test
+  void testSlowSubscriber_ShouldBeToldToResync() throws InterruptedException {
+    // Given - a buffer of two behind a client stuck on the first event
+    ProjectEventBroker broker = new ProjectEventBroker(new SimpleMeterRegistry(), 2, Duration.ofMinutes(1));
+    RecordingSink sink = new RecordingSink();
+    sink.stuck = new CountDownLatch(1);
+    subscribers.add(broker.subscribe(1L, sink));
+    broker.onProjectChange(updated(1L));
+    sink.await(1);
+
+    // When - two fit, the third overflows, the fourth comes after
+    for (long taskId = 2; taskId <= 5; taskId++)
+      broker.onProjectChange(updated(taskId));
+    sink.stuck.countDown();
+
+    // Then
+    sink.await(3);
+    assertThat(sink.names).containsExactly("task_updated", ProjectEventBroker.RESYNC, "task_updated");
+    assertThat(sink.taskIds).containsExactly(1L, 5L);
+    broker.shutdown();
+  }
+
+  @Test
+  void testSubscribersJoiningAndLeavingAtOnce_ShouldLeaveNoneBehind() throws InterruptedException {
+    // Given
+    ProjectEventBroker broker = new ProjectEventBroker(new SimpleMeterRegistry(), 2, Duration.ofMinutes(1));
+
+    // When - the last subscriber leaving races the next one joining, over and over
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++)
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int j = 0; j < 2000; j++)
+          broker.subscribe(1L, new RecordingSink()).close();
+      }));
+    for (Thread thread : threads)
+      thread.join();
+
+    // Then - every close was counted, and a new subscriber still gets the project's events
+    assertThat(broker.hasSubscribers()).isFalse();
+    RecordingSink sink = new RecordingSink();
+    subscribers.add(broker.subscribe(1L, sink));
+    broker.onProjectChange(updated(1L));
+    sink.await(1);
+    assertThat(sink.names).containsExactly("task_updated");
+    broker.shutdown();
+  }
+
+  @Test
+  void testDeletedProject_ShouldEndItsStreams() throws InterruptedException {
+    // Given
+    RecordingSink sink = new RecordingSink();
+    subscribers.add(projectEventBroker.subscribe(project.getProjectId(), sink));
+
+    // When
+    projectEventBroker.onProjectChange(ProjectChangeEvent.projectDeleted(project.getProjectId()));
+
+    // Then
+    sink.await(1);
+    assertThat(sink.names).containsExactly("project_deleted");
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!sink.closed && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertThat(sink.closed).isTrue();
+    assertThat(projectEventBroker.hasSubscribers()).isFalse();
+  }
+
+  private Task task(String title) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setProject(project);
+    return taskService.createTask(task);
+  }
+
+  private static ProjectChangeEvent updated(long taskId) {
+    return ProjectChangeEvent.task(1L, ProjectChangeEvent.Type.TASK_UPDATED, taskId);
+  }
+
+  static class RecordingSink implements ProjectEventBroker.Sink {
+    final List<String> names = new CopyOnWriteArrayList<>();
+    final List<Long> taskIds = new CopyOnWriteArrayList<>();
+    volatile CountDownLatch stuck;
+    volatile boolean closed;
+
+    @Override
+    public void send(String name, Object data) throws IOException {
+      if (ProjectEventBroker.HEARTBEAT.equals(name))
+        return;
+      names.add(name);
+      if (data instanceof ProjectChangeEvent event)
+        taskIds.add(event.taskId());
+      try {
+        if (stuck != null)
+          stuck.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException();
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    // sends happen on the broker's own threads
+    void await(int count) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (names.size() < count && System.nanoTime() < deadline)
+        Thread.sleep(10);
+    }
+  }
+}
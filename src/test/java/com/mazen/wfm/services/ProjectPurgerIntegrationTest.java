@@ -0,0 +1,234 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.TaskInboxFilter;
+import com.mazen.wfm.dtos.TaskQueryFilter;
+import com.mazen.wfm.dtos.request.CreateCommentRequest;
+import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.dtos.response.TaskInboxResponse;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.exceptions.ResourceNotFoundException;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Comment;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ArchivedTaskRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TagRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.repositories.UserTaskCountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Small limits so a handful of tasks makes a "large" project spanning several batches
+@SpringBootTest(properties = {
+    "wfm.project.delete.inline-max-tasks=3",
+    "wfm.project.delete.batch-size=2"
+})
+@ActiveProfiles("test")
+@Transactional
+class ProjectPurgerIntegrationTest {
+
+  @Autowired
+  private ProjectService projectService;
+
+  @Autowired
+  private ProjectPurger projectPurger;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private CommentService commentService;
+
+  @Autowired
+  private UserTaskCountRepository userTaskCountRepository;
+
+  @Autowired
+  private ArchivedTaskRepository archivedTaskRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  private AppUser owner;
+  private Tag tag;
+  private Project keptProject;
+  private Task keptSubtask;
+
+  @BeforeEach
+  void setUp() {
+    owner = appUserRepository.save(AppUser.builder()
+        .username("purgeowner")
+        .password("password")
+        .fullName("Purge Owner")
+        .email("purge@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    tag = tagRepository.save(new Tag(null, "purge"));
+    keptProject = project("Kept Project");
+    keptSubtask = task("Kept subtask", keptProject, null);
+  }
+
+  @Test
+  void testDeleteProject_WithFewTasks_ShouldDeleteEverythingAtOnce() {
+    // Given
+    Project project = project("Small Project");
+    Task parent = task("Parent", project, null);
+    task("Subtask", project, parent);
+
+    // When
+    projectService.deleteProject(owner.getUsername(), project.getProjectId());
+
+    // Then
+    assertThat(projectRepository.findById(project.getProjectId())).isEmpty();
+    assertThat(taskRepository.countByProject_ProjectId(project.getProjectId())).isZero();
+    assertThat(commentRepository.findAll()).extracting(c -> c.getTask().getTaskId())
+        .containsOnly(keptSubtask.getTaskId());
+    assertThat(appUserRepository.findById(owner.getUserId())).isPresent();
+    assertThat(tagRepository.findById(tag.getTagId())).isPresent();
+  }
+
+  @Test
+  void testDeleteProject_WithManyTasks_ShouldHideItAndPurgeInBatches() {
+    // Given - one of the tasks is the parent of a subtask in another project
+    Project project = project("Large Project");
+    Task parent = task("Parent", project, null);
+    for (int i = 0; i < 4; i++)
+      task("Task " + i, project, parent);
+    keptSubtask.setParentTask(parent);
+    taskRepository.save(keptSubtask);
+
+    // When
+    projectService.deleteProject(owner.getUsername(), project.getProjectId());
+
+    // Then - gone from the API, rows still there until the purge
+    assertThatThrownBy(() -> projectService.getProjectById(project.getProjectId()))
+        .isInstanceOf(ResourceNotFoundException.class);
+    assertThat(projectService.getProjectsByUserName(owner.getUsername()))
+        .extracting(Project::getProjectId).containsExactly(keptProject.getProjectId());
+    assertThat(taskRepository.countByProject_ProjectId(project.getProjectId())).isEqualTo(5);
+
+    assertThat(projectPurger.purgeDeleted()).isEqualTo(1);
+
+    assertThat(projectRepository.findById(project.getProjectId())).isEmpty();
+    assertThat(taskRepository.countByProject_ProjectId(project.getProjectId())).isZero();
+    Task kept = taskRepository.findById(keptSubtask.getTaskId()).orElseThrow();
+    assertThat(kept.getParentTask()).isNull();
+    assertThat(kept.getAssignees()).extracting(AppUser::getUserId).containsExactly(owner.getUserId());
+    assertThat(commentRepository.findByTask_TaskId(kept.getTaskId())).hasSize(1);
+    assertThat(projectPurger.purgeDeleted()).isZero();
+  }
+
+  @Test
+  void testDeleteProject_WithFewLiveTasksButALargeArchive_ShouldPurgeInTheBackground() {
+    // Given - one live task, four archived ones
+    Project project = project("Archived Project");
+    task("Live", project, null);
+    List<Long> archived = new ArrayList<>();
+    for (int i = 0; i < 4; i++)
+      archived.add(task("Archived " + i, project, null).getTaskId());
+    archivedTaskRepository.archiveTasks(archived, LocalDateTime.now());
+    commentRepository.deleteByTaskIds(archived);
+    taskRepository.deleteAssigneesByTaskIds(archived);
+    taskRepository.deleteTagsByTaskIds(archived);
+    taskRepository.deleteByTaskIds(archived);
+
+    // When
+    projectService.deleteProject(owner.getUsername(), project.getProjectId());
+
+    // Then - hidden, not deleted in the request
+    assertThatThrownBy(() -> projectService.getProjectById(project.getProjectId()))
+        .isInstanceOf(ResourceNotFoundException.class);
+    assertThat(archivedTaskRepository.countByProjectId(project.getProjectId())).isEqualTo(4);
+
+    assertThat(projectPurger.purgeDeleted()).isEqualTo(1);
+    assertThat(archivedTaskRepository.countByProjectId(project.getProjectId())).isZero();
+  }
+
+  @Test
+  void testDeleteProject_WithManyTasks_ShouldHideItsTasksUntilThePurge() {
+    // Given
+    Project project = project("Large Project");
+    Task hidden = task("Hidden", project, null);
+    for (int i = 0; i < 3; i++)
+      task("Task " + i, project, null);
+    userTaskCountRepository.refresh(List.of(owner.getUserId()), TaskPrioritizer.OPEN_STATUSES);
+    Long projectId = project.getProjectId();
+    Long taskId = hidden.getTaskId();
+
+    // When
+    projectService.deleteProject(owner.getUsername(), projectId);
+
+    // Then - the rows are still there, but no task read or write reaches them
+    assertThat(taskRepository.countByProject_ProjectId(projectId)).isEqualTo(4);
+    assertThatThrownBy(() -> taskService.getTaskById(taskId)).isInstanceOf(ResourceNotFoundException.class);
+    assertThat(taskService.getTasksByProject(projectId, PageRequest.of(0, 10))).isEmpty();
+    assertThat(taskService.queryTasks(new TaskQueryFilter(null, null, null, null, projectId, null, false, null, null, null,
+        TaskInboxFilter.Sort.DUE_DATE), null, 10).tasks()).isEmpty();
+
+    TaskInboxResponse inbox = taskService.getInbox(owner.getUserId(),
+        new TaskInboxFilter(null, null, null, null, null, TaskInboxFilter.Sort.DUE_DATE), null, 10);
+    assertThat(inbox.tasks()).extracting(TaskResponse::getTaskId).containsExactly(keptSubtask.getTaskId());
+    assertThat(inbox.openTasks()).isEqualTo(1);
+    assertThat(taskService.getNextTasks(owner.getUserId(), 10)).extracting(Task::getTaskId)
+        .containsExactly(keptSubtask.getTaskId());
+
+    assertThatThrownBy(() -> taskService.updateTask(taskId, new TaskRequest("Renamed", null, null, null, null, null, null, null)))
+        .isInstanceOf(ResourceNotFoundException.class);
+    assertThatThrownBy(() -> taskService.clearTags(taskId)).isInstanceOf(ResourceNotFoundException.class);
+    assertThat(taskService.updateAssignees(Set.of(taskId), null, Set.of(owner.getUserId())).removed()).isZero();
+    assertThat(taskService.updateTags(Set.of(taskId), null, Set.of(tag.getTagId())).removed()).isZero();
+    assertThatThrownBy(() -> commentService.addComment(new CreateCommentRequest(taskId, "Too late"), owner.getUsername()))
+        .isInstanceOf(ResourceNotFoundException.class);
+  }
+
+  private Project project(String name) {
+    Project project = new Project();
+    project.setName(name);
+    project.setOwner(owner);
+    return projectRepository.save(project);
+  }
+
+  private Task task(String title, Project project, Task parent) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setProject(project);
+    task.setParentTask(parent);
+    task.setAssignees(new HashSet<>(Set.of(owner)));
+    task.setTags(new HashSet<>(Set.of(tag)));
+    task = taskRepository.save(task);
+    commentRepository.save(new Comment(null, task, owner, "Comment on " + title, LocalDateTime.now()));
+    return task;
+  }
+}
@@ -0,0 +1,179 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.exceptions.ResourceNotFoundException;
+import com.mazen.wfm.metrics.MetricNames;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger loads = new AtomicInteger();
+  private SimpleMeterRegistry meterRegistry;
+  private SingleFlight<Long, String> singleFlight;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    singleFlight = new SingleFlight<>("task", Duration.ofMillis(100), Duration.ofMillis(200), 100, meterRegistry, clock::get);
+    executor = Executors.newFixedThreadPool(8);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testConcurrentCallers_ShouldShareOneLoad() throws Exception {
+    // Given - a load that holds until every other caller is waiting on it
+    CountDownLatch release = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++)
+      results.add(executor.submit(() -> singleFlight.get(1L, () -> {
+        hold(release);
+        return "task-" + loads.incrementAndGet();
+      })));
+
+    // When
+    awaitRequests("shared", 7);
+    release.countDown();
+
+    // Then
+    for (Future<String> result : results)
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("task-1");
+    assertThat(loads).hasValue(1);
+    assertThat(requests("led")).isEqualTo(1);
+  }
+
+  @Test
+  void testFailedLoad_ShouldBeSharedButNotKept() throws Exception {
+    // Given
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> leader = executor.submit(() -> singleFlight.get(1L, () -> {
+      hold(release);
+      loads.incrementAndGet();
+      throw new ResourceNotFoundException("No task with this id");
+    }));
+    awaitRequests("led", 1);
+    Future<String> follower = executor.submit(() -> singleFlight.get(1L, () -> "unused"));
+    awaitRequests("shared", 1);
+    release.countDown();
+
+    // Then - both fail with the leader's exception, the next caller loads again
+    assertThat(cause(leader)).isInstanceOf(ResourceNotFoundException.class);
+    assertThat(cause(follower)).isInstanceOf(ResourceNotFoundException.class).hasMessage("No task with this id");
+    assertThat(singleFlight.get(1L, () -> "task-2")).isEqualTo("task-2");
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void testResult_ShouldBeServedWithinFreshnessOnly() {
+    assertThat(singleFlight.get(1L, () -> "first")).isEqualTo("first");
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+    assertThat(singleFlight.get(1L, () -> "second")).isEqualTo("first");
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+    assertThat(singleFlight.get(1L, () -> "third")).isEqualTo("third");
+  }
+
+  @Test
+  void testInvalidate_ShouldForceTheNextLoad() {
+    singleFlight.get(1L, () -> "before update");
+
+    singleFlight.invalidate(1L);
+
+    assertThat(singleFlight.get(1L, () -> "after update")).isEqualTo("after update");
+    assertThat(singleFlight.get(2L, () -> "other key")).isEqualTo("other key");
+  }
+
+  @Test
+  void testLoadOverlappingAnInvalidation_ShouldBeSharedButNotKept() throws Exception {
+    // Given - a load that read before a write, still running when the write commits
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> leader = executor.submit(() -> singleFlight.get(1L, () -> {
+      hold(release);
+      return "before update";
+    }));
+    awaitRequests("led", 1);
+    Future<String> follower = executor.submit(() -> singleFlight.get(1L, () -> "unused"));
+    awaitRequests("shared", 1);
+
+    // When
+    singleFlight.invalidate(1L);
+    release.countDown();
+
+    // Then - whoever waited on it gets it, nobody after
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("before update");
+    assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("before update");
+    assertThat(singleFlight.get(1L, () -> "after update")).isEqualTo("after update");
+  }
+
+  @Test
+  void testStuckLoad_ShouldNotHoldFollowersPastTheJoinTimeout() throws Exception {
+    // Given
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> leader = executor.submit(() -> singleFlight.get(1L, () -> {
+      hold(release);
+      return "late";
+    }));
+    awaitRequests("led", 1);
+
+    // When
+    String result = singleFlight.get(1L, () -> "own load");
+    release.countDown();
+
+    // Then
+    assertThat(result).isEqualTo("own load");
+    assertThat(requests("timeout")).isEqualTo(1);
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("late");
+  }
+
+  // callers count themselves before they load or start waiting on the leader
+  private void awaitRequests(String outcome, int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (requests(outcome) < count && System.nanoTime() < deadline)
+      Thread.sleep(10);
+  }
+
+  private double requests(String outcome) {
+    return meterRegistry.get(MetricNames.SINGLE_FLIGHT_REQUESTS)
+        .tags(MetricNames.TAG_NAME, "task", MetricNames.TAG_OUTCOME, outcome)
+        .counter().count();
+  }
+
+  private static Throwable cause(Future<?> future) {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      return null;
+    } catch (Exception e) {
+      return e.getCause();
+    }
+  }
+
+  private static void hold(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
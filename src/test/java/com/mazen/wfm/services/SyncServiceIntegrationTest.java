@@ -0,0 +1,201 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.request.CreateCommentRequest;
+import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.dtos.response.CommentResponse;
+import com.mazen.wfm.dtos.response.SyncDeletion;
+import com.mazen.wfm.dtos.response.SyncResponse;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.exceptions.BusinessException;
+import com.mazen.wfm.mapper.CommentMapper;
+import com.mazen.wfm.mapper.ProjectMapper;
+import com.mazen.wfm.mapper.TaskMapper;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.ChangeLogEntry.EntityType;
+import com.mazen.wfm.models.Comment;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ChangeLogRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Not @Transactional: the change log is read the way clients see it, committed; no settle window, so cursors
+// follow the writes at once
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "wfm.sync.settle=0s")
+class SyncServiceIntegrationTest {
+
+  @Autowired
+  private SyncService syncService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private CommentService commentService;
+
+  @Autowired
+  private ChangeLogRepository changeLogRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private ProjectMapper projectMapper;
+
+  @Autowired
+  private TaskMapper taskMapper;
+
+  @Autowired
+  private CommentMapper commentMapper;
+
+  private AppUser user;
+  private Project project;
+
+  @BeforeEach
+  void setUp() {
+    user = appUserRepository.save(AppUser.builder()
+        .username("syncuser")
+        .password("password")
+        .fullName("Sync User")
+        .email("sync@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    project = new Project();
+    project.setName("Sync Project");
+    project.setOwner(user);
+    project.setCreatedAt(LocalDateTime.now());
+    project = projectRepository.save(project);
+  }
+
+  @AfterEach
+  void tearDown() {
+    taskRepository.findByProject_ProjectId(project.getProjectId()).forEach(task -> {
+      commentRepository.deleteAll(commentRepository.findByTask_TaskId(task.getTaskId()));
+      taskService.deleteTask(task.getTaskId());
+    });
+    changeLogRepository.deleteAll(changeLogRepository.findByProjectIdInAndSeqGreaterThanOrderBySeq(
+        Set.of(project.getProjectId()), 0, Pageable.unpaged()));
+    projectRepository.delete(project);
+    appUserRepository.delete(user);
+  }
+
+  @Test
+  void testSync_ShouldReturnChangesSinceCursor() {
+    // Given - a first full sync
+    Task a = task("A");
+    Task b = task("B");
+    Comment comment = commentService.addComment(new CreateCommentRequest(a.getTaskId(), "First"), user.getUsername());
+    SyncResponse first = sync(0, 100);
+    assertThat(first.tasks()).extracting(TaskResponse::getTaskId).containsExactly(a.getTaskId(), b.getTaskId());
+    assertThat(first.comments()).extracting(CommentResponse::commentId).containsExactly(comment.getCommentId());
+    assertThat(first.hasMore()).isFalse();
+
+    // When
+    taskService.updateTask(a.getTaskId(), new TaskRequest("A2", null, null, null, null, null, null, null));
+    taskService.deleteTask(b.getTaskId());
+    SyncResponse second = sync(first.cursor(), 100);
+
+    // Then - only what changed, the deleted task as a tombstone
+    assertThat(second.tasks()).extracting(TaskResponse::getTitle).containsExactly("A2");
+    assertThat(second.comments()).isEmpty();
+    assertThat(second.deleted()).containsExactly(new SyncDeletion(EntityType.TASK, b.getTaskId()));
+    assertThat(second.cursor()).isGreaterThan(first.cursor());
+
+    // and nothing is left after that
+    SyncResponse third = sync(second.cursor(), 100);
+    assertThat(third.tasks()).isEmpty();
+    assertThat(third.deleted()).isEmpty();
+    assertThat(third.cursor()).isEqualTo(second.cursor());
+  }
+
+  @Test
+  void testSync_ShouldPageByLimitAndStopAtTheSettleWindow() {
+    // Given
+    Task a = task("A");
+    Task b = task("B");
+    Task c = task("C");
+
+    // When
+    SyncResponse first = sync(0, 2);
+    SyncResponse second = sync(first.cursor(), 2);
+
+    // Then
+    assertThat(first.tasks()).extracting(TaskResponse::getTaskId).containsExactly(a.getTaskId(), b.getTaskId());
+    assertThat(first.hasMore()).isTrue();
+    assertThat(second.tasks()).extracting(TaskResponse::getTaskId).containsExactly(c.getTaskId());
+    assertThat(second.hasMore()).isFalse();
+
+    // with a settle window, recent changes are sent but the cursor stays behind them
+    SyncService settling = new SyncService(changeLogRepository, projectRepository, taskRepository, commentRepository,
+        projectMapper, taskMapper, commentMapper, Duration.ofHours(1));
+    SyncResponse recent = settling.getChanges(first.cursor(), Set.of(project.getProjectId()), 2);
+    assertThat(recent.tasks()).extracting(TaskResponse::getTaskId).containsExactly(c.getTaskId());
+    assertThat(recent.cursor()).isEqualTo(first.cursor());
+    assertThat(recent.hasMore()).isFalse();
+  }
+
+  @Test
+  void testCompact_ShouldKeepTheLatestEntryPerRow() {
+    // Given
+    Task task = task("Edited");
+    taskService.updateTask(task.getTaskId(), new TaskRequest("Edited once", null, null, null, null, null, null, null));
+    taskService.updateTask(task.getTaskId(), new TaskRequest("Edited twice", null, null, null, null, null, null, null));
+
+    // When
+    assertThat(syncService.compact()).isGreaterThanOrEqualTo(2);
+
+    // Then
+    SyncResponse sync = sync(0, 100);
+    assertThat(sync.tasks()).extracting(TaskResponse::getTitle).containsExactly("Edited twice");
+    assertThat(changeLogRepository.findByProjectIdInAndSeqGreaterThanOrderBySeq(
+        Set.of(project.getProjectId()), 0, Pageable.unpaged())).hasSize(1);
+  }
+
+  @Test
+  void testSync_WithoutProjects_ShouldFail() {
+    assertThatThrownBy(() -> syncService.getChanges(0, Set.of(), 100))
+        .isInstanceOf(BusinessException.class);
+  }
+
+  private SyncResponse sync(long since, int limit) {
+    return syncService.getChanges(since, Set.of(project.getProjectId()), limit);
+  }
+
+  private Task task(String title) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setProject(project);
+    return taskService.createTask(task);
+  }
+}
@@ -0,0 +1,195 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.request.TaskAdviceRequest;
+import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.TaskAdvice;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TagRepository;
+import com.mazen.wfm.repositories.TaskAdviceRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Not transactional: the precompute job stores advice from the Gemini worker threads, and those
+ * writes must be visible to the test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskAdviceServiceIntegrationTest {
+
+  @Autowired
+  private TaskAdviceService taskAdviceService;
+
+  @Autowired
+  private GeminiService geminiService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private TaskAdviceRepository taskAdviceRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  private AppUser busyUser;
+  private AppUser finishedUser;
+  private Task task;
+
+  @BeforeEach
+  void setUp() {
+    cleanUp();
+    busyUser = appUserRepository.save(user("busyuser"));
+    finishedUser = appUserRepository.save(user("finisheduser"));
+
+    Project project = new Project();
+    project.setName("Precompute Project");
+    project.setOwner(busyUser);
+    project = projectRepository.save(project);
+
+    task = taskRepository.save(task("Write release notes", Status.TODO, project, busyUser));
+    taskRepository.save(task("Ship it", Status.DONE, project, finishedUser));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    taskAdviceRepository.deleteAll();
+    commentRepository.deleteAll();
+    taskRepository.deleteAll();
+    projectRepository.deleteAll();
+    tagRepository.deleteAll();
+    appUserRepository.deleteAll();
+  }
+
+  @Test
+  void testPrecompute_ShouldStoreAdviceForUsersWithChangedOpenTasks() {
+    assertThat(taskAdviceService.precompute()).isEqualTo(1);
+
+    TaskAdvice stored = taskAdviceRepository.findById(busyUser.getUserId()).orElseThrow();
+    assertThat(stored.getAdvice()).contains("Write release notes");
+    assertThat(stored.getPromptHash()).isEqualTo(geminiService.adviceKey(adviceRequests(busyUser)));
+    assertThat(taskAdviceRepository.findById(finishedUser.getUserId())).isEmpty();
+
+    // nothing changed since
+    assertThat(taskAdviceService.precompute()).isZero();
+  }
+
+  @Test
+  void testPrecompute_WhenStoredAdviceWouldExpireBeforeNextRun_ShouldRenewIt() {
+    // Given - the tasks haven't changed since, but the advice is past max-age (36h) before tomorrow night's run
+    String key = geminiService.adviceKey(adviceRequests(busyUser));
+    taskAdviceRepository.save(new TaskAdvice(busyUser.getUserId(), key, "precomputed advice", LocalDateTime.now().minusHours(20)));
+
+    // When
+    int stored = taskAdviceService.precompute();
+
+    // Then
+    assertThat(stored).isEqualTo(1);
+    assertThat(taskAdviceRepository.findById(busyUser.getUserId()).orElseThrow().getGeneratedAt())
+        .isAfter(LocalDateTime.now().minusMinutes(1));
+  }
+
+  @Test
+  void testPrecompute_WhenOnlyAssigneesChanged_ShouldRegenerate() {
+    // Given - fresh advice, then the user is assigned another open task (its row's updatedAt stays as it was)
+    String key = geminiService.adviceKey(adviceRequests(busyUser));
+    taskAdviceRepository.save(new TaskAdvice(busyUser.getUserId(), key, "precomputed advice", LocalDateTime.now()));
+    Task other = task("Review changelog", Status.TODO, task.getProject(), finishedUser);
+    other.setAssignees(new HashSet<>());
+    other.setUpdatedAt(LocalDateTime.now().minusDays(2));
+    other = taskRepository.save(other);
+    assertThat(taskAdviceService.precompute()).isZero();
+
+    // When
+    taskService.updateAssignees(Set.of(other.getTaskId()), Set.of(busyUser.getUserId()), null);
+
+    // Then
+    assertThat(taskAdviceService.precompute()).isEqualTo(1);
+    assertThat(taskAdviceRepository.findById(busyUser.getUserId()).orElseThrow().getPromptHash())
+        .isNotEqualTo(key)
+        .isEqualTo(geminiService.adviceKey(adviceRequests(busyUser)));
+  }
+
+  @Test
+  void testAdvise_WithMatchingStoredAdvice_ShouldServeIt() {
+    String key = geminiService.adviceKey(adviceRequests(busyUser));
+    taskAdviceRepository.save(new TaskAdvice(busyUser.getUserId(), key, "precomputed advice", LocalDateTime.now()));
+
+    assertThat(taskAdviceService.advise(busyUser.getUserId()).join()).isEqualTo("precomputed advice");
+  }
+
+  @Test
+  void testAdvise_WhenTasksChangedSinceStored_ShouldGenerateLive() {
+    String key = geminiService.adviceKey(adviceRequests(busyUser));
+    taskAdviceRepository.save(new TaskAdvice(busyUser.getUserId(), key, "precomputed advice", LocalDateTime.now()));
+    taskService.updateTask(task.getTaskId(), new TaskRequest("Write better release notes", null, null, null, null, null, null, null));
+
+    assertThat(taskAdviceService.advise(busyUser.getUserId()).join()).contains("Write better release notes");
+  }
+
+  @Test
+  void testAdvise_WhenStoredAdviceTooOld_ShouldGenerateLive() {
+    String key = geminiService.adviceKey(adviceRequests(busyUser));
+    taskAdviceRepository.save(new TaskAdvice(busyUser.getUserId(), key, "precomputed advice", LocalDateTime.now().minusDays(3)));
+
+    assertThat(taskAdviceService.advise(busyUser.getUserId()).join()).contains("Write release notes");
+  }
+
+  private List<TaskAdviceRequest> adviceRequests(AppUser user) {
+    return taskService.getAdviceRequests(List.of(user.getUserId()), 20).get(user.getUserId());
+  }
+
+  private static AppUser user(String username) {
+    return AppUser.builder()
+        .username(username)
+        .password("password")
+        .fullName(username)
+        .email(username + "@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build();
+  }
+
+  private static Task task(String title, Status status, Project project, AppUser assignee) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setStatus(status);
+    task.setPriority(Priority.HIGH);
+    task.setProject(project);
+    task.setAssignees(new HashSet<>(Set.of(assignee)));
+    return task;
+  }
+}
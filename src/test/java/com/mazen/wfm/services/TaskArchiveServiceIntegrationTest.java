@@ -0,0 +1,170 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.exceptions.ResourceNotFoundException;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.ArchivedTask;
+import com.mazen.wfm.models.Comment;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ArchivedTaskRepository;
+import com.mazen.wfm.repositories.CommentRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TagRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TaskArchiveServiceIntegrationTest {
+
+  @Autowired
+  private TaskArchiveService taskArchiveService;
+
+  @Autowired
+  private ProjectService projectService;
+
+  @Autowired
+  private ArchivedTaskRepository archivedTaskRepository;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  private AppUser owner;
+  private Tag tag;
+  private Project project;
+  private Task parent;
+  private Task subtask;
+  private Task recentlyArchived;
+  private Task done;
+
+  @BeforeEach
+  void setUp() {
+    owner = appUserRepository.save(AppUser.builder()
+        .username("archiveowner")
+        .password("password")
+        .fullName("Archive Owner")
+        .email("archive@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    tag = tagRepository.save(new Tag(null, "archive"));
+    project = new Project();
+    project.setName("Archive Project");
+    project.setOwner(owner);
+    project = projectRepository.save(project);
+
+    LocalDateTime longAgo = LocalDateTime.now().minusDays(30);
+    parent = task("Old parent", Status.ARCHIVED, longAgo, null);
+    subtask = task("Old subtask", Status.ARCHIVED, longAgo, parent);
+    recentlyArchived = task("Archived yesterday", Status.ARCHIVED, LocalDateTime.now().minusDays(1), null);
+    done = task("Done long ago", Status.DONE, longAgo, null);
+  }
+
+  @Test
+  void testArchive_ShouldMoveOldArchivedTasksWithTheirRows() {
+    // When
+    long moved = taskArchiveService.archive();
+
+    // Then - subtask first, then its parent, both gone from the live tables
+    assertThat(moved).isEqualTo(2);
+    assertThat(taskRepository.findAllById(Set.of(parent.getTaskId(), subtask.getTaskId()))).isEmpty();
+    assertThat(taskRepository.findAllById(Set.of(recentlyArchived.getTaskId(), done.getTaskId()))).hasSize(2);
+    assertThat(commentRepository.findByTask_TaskId(subtask.getTaskId())).isEmpty();
+
+    ArchivedTask archived = taskArchiveService.getArchivedTask(subtask.getTaskId());
+    assertThat(archived.getTitle()).isEqualTo("Old subtask");
+    assertThat(archived.getParentTaskId()).isEqualTo(parent.getTaskId());
+    assertThat(archived.getArchivedAt()).isNotNull();
+    assertThat(archived.getAssigneeIds()).containsExactly(owner.getUserId());
+    assertThat(archived.getTagIds()).containsExactly(tag.getTagId());
+    assertThat(taskArchiveService.getArchivedComments(subtask.getTaskId()))
+        .extracting(c -> c.getContent()).containsExactly("Comment on Old subtask");
+    assertThat(taskArchiveService.getArchivedTasksByProject(project.getProjectId(), PageRequest.of(0, 10)))
+        .extracting(ArchivedTask::getTaskId).containsExactlyInAnyOrder(parent.getTaskId(), subtask.getTaskId());
+
+    assertThat(taskArchiveService.archive()).isZero();
+  }
+
+  @Test
+  void testRestore_ShouldMoveTaskBackAsDone() {
+    // Given
+    taskArchiveService.archive();
+
+    // When - the subtask comes back while its parent stays archived
+    Task restored = taskArchiveService.restore(subtask.getTaskId());
+
+    // Then
+    assertThat(restored.getStatus()).isEqualTo(Status.DONE);
+    assertThat(restored.getParentTask()).isNull();
+    assertThat(restored.getAssignees()).extracting(AppUser::getUserId).containsExactly(owner.getUserId());
+    assertThat(restored.getTags()).extracting(Tag::getTagId).containsExactly(tag.getTagId());
+    assertThat(commentRepository.findByTask_TaskId(subtask.getTaskId())).hasSize(1);
+    assertThat(archivedTaskRepository.findById(subtask.getTaskId())).isEmpty();
+    assertThat(taskArchiveService.getArchivedComments(subtask.getTaskId())).isEmpty();
+  }
+
+  @Test
+  void testRestore_WithUnknownTask_ShouldThrowException() {
+    assertThatThrownBy(() -> taskArchiveService.restore(999L))
+        .isInstanceOf(ResourceNotFoundException.class);
+  }
+
+  @Test
+  void testDeleteProject_ShouldAlsoDeleteItsArchivedTasks() {
+    // Given
+    taskArchiveService.archive();
+
+    // When
+    projectService.deleteProject(owner.getUsername(), project.getProjectId());
+
+    // Then
+    assertThat(archivedTaskRepository.findById(parent.getTaskId())).isEmpty();
+    assertThat(taskArchiveService.getArchivedComments(subtask.getTaskId())).isEmpty();
+    assertThat(projectRepository.findById(project.getProjectId())).isEmpty();
+  }
+
+  private Task task(String title, Status status, LocalDateTime updatedAt, Task parentTask) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setStatus(status);
+    task.setUpdatedAt(updatedAt);
+    task.setProject(project);
+    task.setParentTask(parentTask);
+    task.setAssignees(new HashSet<>(Set.of(owner)));
+    task.setTags(new HashSet<>(Set.of(tag)));
+    task = taskRepository.save(task);
+    commentRepository.save(new Comment(null, task, owner, "Comment on " + title, LocalDateTime.now()));
+    return task;
+  }
+}
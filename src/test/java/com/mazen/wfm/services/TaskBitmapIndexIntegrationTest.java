@@ -0,0 +1,230 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.TaskInboxFilter;
+import com.mazen.wfm.dtos.TaskIndexDTO;
+import com.mazen.wfm.dtos.TaskQueryFilter;
+import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.metrics.MetricNames;
+import com.mazen.wfm.models.AppUser;
+import com.mazen.wfm.models.Project;
+import com.mazen.wfm.models.Status;
+import com.mazen.wfm.models.Tag;
+import com.mazen.wfm.models.Task;
+import com.mazen.wfm.models.UserRole;
+import com.mazen.wfm.repositories.AppUserRepository;
+import com.mazen.wfm.repositories.ProjectRepository;
+import com.mazen.wfm.repositories.TagRepository;
+import com.mazen.wfm.repositories.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Not @Transactional: the index only takes in committed writes
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskBitmapIndexIntegrationTest {
+
+  @Autowired
+  private TaskBitmapIndex taskIndex;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private TaskRepository taskRepository;
+
+  @Autowired
+  private ProjectRepository projectRepository;
+
+  @Autowired
+  private TagRepository tagRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private AppUser user;
+  private Project project;
+  private Tag backend;
+  private Tag urgent;
+  private Task both;
+  private Task backendOnly;
+
+  @BeforeEach
+  void setUp() throws InterruptedException {
+    awaitReady();
+    user = appUserRepository.save(AppUser.builder()
+        .username("indexuser")
+        .password("password")
+        .fullName("Index User")
+        .email("index@test.com")
+        .role(UserRole.USER)
+        .active(true)
+        .createdAt(LocalDateTime.now())
+        .build());
+    project = new Project();
+    project.setName("Index Project");
+    project.setOwner(user);
+    project.setCreatedAt(LocalDateTime.now());
+    project = projectRepository.save(project);
+    backend = tagRepository.save(new Tag(null, "index-backend"));
+    urgent = tagRepository.save(new Tag(null, "index-urgent"));
+
+    both = task("Both tags", Status.IN_PROGRESS);
+    backendOnly = task("Backend only", Status.IN_PROGRESS);
+    task("Untagged", Status.IN_PROGRESS);
+    taskService.updateTags(Set.of(both.getTaskId(), backendOnly.getTaskId()), Set.of(backend.getTagId()), null);
+    taskService.updateTags(Set.of(both.getTaskId()), Set.of(urgent.getTagId()), null);
+    taskService.updateAssignees(Set.of(both.getTaskId(), backendOnly.getTaskId()), Set.of(user.getUserId()), null);
+  }
+
+  @AfterEach
+  void tearDown() {
+    taskRepository.findByProject_ProjectId(project.getProjectId()).forEach(task -> taskService.deleteTask(task.getTaskId()));
+    projectRepository.delete(project);
+    tagRepository.deleteAll(List.of(backend, urgent));
+    appUserRepository.delete(user);
+  }
+
+  @Test
+  void testQuery_WithTagsAndAssignee_ShouldBeAnsweredByTheIndex() {
+    double narrowed = lookups("narrowed");
+
+    assertThat(query(Set.of(backend.getTagId(), urgent.getTagId()), true, Set.of(Status.IN_PROGRESS)))
+        .containsExactly(both.getTaskId());
+    assertThat(query(Set.of(backend.getTagId(), urgent.getTagId()), false, null))
+        .containsExactlyInAnyOrder(both.getTaskId(), backendOnly.getTaskId());
+    assertThat(lookups("narrowed")).isEqualTo(narrowed + 2);
+  }
+
+  @Test
+  void testQuery_WithNoMatchInTheIndex_ShouldSkipSql() {
+    double empty = lookups("empty");
+
+    assertThat(query(Set.of(urgent.getTagId()), false, Set.of(Status.TODO))).isEmpty();
+    assertThat(lookups("empty")).isEqualTo(empty + 1);
+  }
+
+  @Test
+  void testCommittedChanges_ShouldReachTheIndex() {
+    // Given - one task loses a tag, the other is finished (an update replaces the tags, so it sends them along)
+    taskService.updateTags(Set.of(both.getTaskId()), null, Set.of(urgent.getTagId()));
+    taskService.updateTask(backendOnly.getTaskId(),
+        new TaskRequest(null, null, Status.DONE, null, null, null, null, Set.of(backend.getTagId())));
+
+    // Then
+    assertThat(query(Set.of(urgent.getTagId()), false, null)).isEmpty();
+    assertThat(query(Set.of(backend.getTagId()), false, Set.of(Status.IN_PROGRESS))).containsExactly(both.getTaskId());
+
+    taskService.deleteTask(both.getTaskId());
+    assertThat(query(Set.of(backend.getTagId()), false, null)).containsExactly(backendOnly.getTaskId());
+  }
+
+  @Test
+  void testRolledBackChange_ShouldNotReachTheIndex() {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      taskService.clearTags(both.getTaskId());
+      status.setRollbackOnly();
+    });
+
+    assertThat(query(Set.of(urgent.getTagId()), false, null)).containsExactly(both.getTaskId());
+  }
+
+  @Test
+  void testRebuild_ShouldIndexExistingTasks() {
+    // When
+    taskIndex.build();
+
+    // Then
+    assertThat(taskIndex.isReady()).isTrue();
+    assertThat(query(Set.of(backend.getTagId()), false, null)).containsExactlyInAnyOrder(both.getTaskId(), backendOnly.getTaskId());
+  }
+
+  @Test
+  void testReloadsOfOneTask_ShouldApplyInTheOrderTheyRead() throws Exception {
+    // Given - an index of its own, over rows that change between the first read and the second
+    TaskRepository rows = mock(TaskRepository.class);
+    when(rows.findTaskIdsAfter(anyLong(), any())).thenReturn(List.of());
+    TaskBitmapIndex index = new TaskBitmapIndex(rows, transactionManager, new SimpleMeterRegistry(), true, 1000, 1000);
+    index.build();
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger reads = new AtomicInteger();
+    when(rows.findIndexRows(List.of(1L))).thenAnswer(invocation -> {
+      if (reads.incrementAndGet() > 1)
+        return List.of(new TaskIndexDTO(1L, Status.DONE, null, null, null));
+      reading.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return List.of(new TaskIndexDTO(1L, Status.TODO, null, null, null));
+    });
+
+    // When - the reload of an earlier commit still reads when the one of a later commit starts
+    Thread earlier = Thread.ofVirtual().start(() -> index.changed(List.of(1L)));
+    reading.await(5, TimeUnit.SECONDS);
+    Thread later = Thread.ofVirtual().start(() -> index.changed(List.of(1L)));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (later.getState() != Thread.State.WAITING && later.isAlive() && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    release.countDown();
+    earlier.join(5000);
+    later.join(5000);
+
+    // Then - the task is indexed as the later commit left it
+    TaskQueryFilter done = new TaskQueryFilter(Set.of(Status.DONE), null, null, null, null, null, false,
+        null, null, null, TaskInboxFilter.Sort.DUE_DATE);
+    assertThat(index.findCandidateIds(done)).contains(List.of(1L));
+  }
+
+  private List<Long> query(Set<Long> tagIds, boolean allTags, Set<Status> statuses) {
+    TaskQueryFilter filter = new TaskQueryFilter(statuses, null, null, null, project.getProjectId(), tagIds, allTags,
+        user.getUserId(), null, null, TaskInboxFilter.Sort.DUE_DATE);
+    return taskService.queryTasks(filter, null, 10).tasks().stream().map(TaskResponse::getTaskId).toList();
+  }
+
+  private Task task(String title, Status status) {
+    Task task = new Task();
+    task.setTitle(title);
+    task.setStatus(status);
+    task.setProject(project);
+    return taskService.createTask(task);
+  }
+
+  private double lookups(String outcome) {
+    var counter = meterRegistry.find(MetricNames.TASK_INDEX_LOOKUPS).tags(MetricNames.TAG_OUTCOME, outcome).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+  // built in the background once the application has started
+  private void awaitReady() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!taskIndex.isReady() && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertThat(taskIndex.isReady()).isTrue();
+  }
+}
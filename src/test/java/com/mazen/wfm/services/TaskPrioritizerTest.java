@@ -0,0 +1,82 @@
+package com.mazen.wfm.services;
+
+import com.mazen.wfm.dtos.TaskRankingDTO;
+import com.mazen.wfm.models.Priority;
+import com.mazen.wfm.models.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskPrioritizerTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2030, 1, 10);
+
+  private final TaskPrioritizer prioritizer = new TaskPrioritizer();
+
+  @Test
+  void testTopK_ShouldRankByPriority() {
+    List<TaskRankingDTO> ranked = prioritizer.topK(List.of(
+        task(1L, Priority.LOW, null),
+        task(2L, Priority.URGENT, null),
+        task(3L, Priority.MEDIUM, null)), 3, TODAY);
+
+    assertThat(ranked).extracting(TaskRankingDTO::taskId).containsExactly(2L, 3L, 1L);
+  }
+
+  @Test
+  void testTopK_WithOverdueTask_ShouldRankItAboveHigherPriority() {
+    List<TaskRankingDTO> ranked = prioritizer.topK(List.of(
+        task(1L, Priority.URGENT, TODAY.plusDays(30)),
+        task(2L, Priority.MEDIUM, TODAY.minusDays(2))), 2, TODAY);
+
+    assertThat(ranked).extracting(TaskRankingDTO::taskId).containsExactly(2L, 1L);
+  }
+
+  @Test
+  void testTopK_ShouldPreferSubtasksOverTheirBlockedParent() {
+    TaskRankingDTO parent = new TaskRankingDTO(7L, 1L, Priority.HIGH, null, null, 1L, 1);
+    TaskRankingDTO subtask = new TaskRankingDTO(7L, 2L, Priority.MEDIUM, null, Status.TODO, 0L, 1);
+
+    assertThat(prioritizer.topK(List.of(parent, subtask), 2, TODAY))
+        .extracting(TaskRankingDTO::taskId).containsExactly(2L, 1L);
+  }
+
+  @Test
+  void testTopK_ShouldPreferTasksWithFewerAssignees() {
+    TaskRankingDTO shared = new TaskRankingDTO(7L, 1L, Priority.MEDIUM, null, null, 0L, 4);
+    TaskRankingDTO solo = new TaskRankingDTO(7L, 2L, Priority.MEDIUM, null, null, 0L, 1);
+
+    assertThat(prioritizer.topK(List.of(shared, solo), 2, TODAY))
+        .extracting(TaskRankingDTO::taskId).containsExactly(2L, 1L);
+  }
+
+  @Test
+  void testTopK_ShouldMatchFullSort() {
+    Priority[] priorities = Priority.values();
+    Random random = new Random(42);
+    List<TaskRankingDTO> tasks = new ArrayList<>();
+    for (long id = 1; id <= 500; id++) {
+      LocalDate due = random.nextInt(4) == 0 ? null : TODAY.plusDays(random.nextInt(30) - 10);
+      tasks.add(task(id, priorities[random.nextInt(priorities.length)], due));
+    }
+    List<TaskRankingDTO> fullSort = prioritizer.topK(tasks, tasks.size(), TODAY);
+    Collections.shuffle(tasks, random);
+
+    assertThat(prioritizer.topK(tasks, 10, TODAY)).containsExactlyElementsOf(fullSort.subList(0, 10));
+  }
+
+  @Test
+  void testTopK_WithNonPositiveK_ShouldReturnNothing() {
+    assertThat(prioritizer.topK(List.of(task(1L, Priority.HIGH, null)), 0, TODAY)).isEmpty();
+  }
+
+  private static TaskRankingDTO task(Long id, Priority priority, LocalDate dueDate) {
+    return new TaskRankingDTO(7L, id, priority, dueDate, null, 0L, 1);
+  }
+}
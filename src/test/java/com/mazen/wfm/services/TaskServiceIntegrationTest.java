@@ -1,6 +1,13 @@
 package com.mazen.wfm.services;
 
+import com.mazen.wfm.dtos.TaskInboxFilter;
 import com.mazen.wfm.dtos.request.TaskRequest;
+import com.mazen.wfm.dtos.response.BulkTaskLinksResponse;
+import com.mazen.wfm.dtos.response.TaskInboxResponse;
+import com.mazen.wfm.dtos.response.TaskResponse;
+import com.mazen.wfm.dtos.response.UserResponse;
+import com.mazen.wfm.event.TaskAssignmentEvent;
+import com.mazen.wfm.exceptions.BusinessException;
 import com.mazen.wfm.exceptions.ResourceNotFoundException;
 import com.mazen.wfm.models.AppUser;
 import com.mazen.wfm.models.Priority;
@@ -13,6 +20,7 @@ import com.mazen.wfm.repositories.AppUserRepository;
 import com.mazen.wfm.repositories.ProjectRepository;
 import com.mazen.wfm.repositories.TagRepository;
 import com.mazen.wfm.repositories.TaskRepository;
+import com.mazen.wfm.repositories.UserTaskCountRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +29,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -29,12 +39,17 @@ import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @ActiveProfiles("test")
 @Transactional
+@RecordApplicationEvents
 class TaskServiceIntegrationTest {
 
+  @Autowired
+  private ApplicationEvents applicationEvents;
+
   @Autowired
   private TaskService taskService;
 
@@ -50,6 +65,9 @@ class TaskServiceIntegrationTest {
   @Autowired
   private TagRepository tagRepository;
 
+  @Autowired
+  private UserTaskCountRepository userTaskCountRepository;
+
   private AppUser testUser1;
   private AppUser testUser2;
   private Project testProject1;
@@ -515,6 +533,29 @@ class TaskServiceIntegrationTest {
     assertThat(task.getTags()).isEmpty();
   }
 
+  @Test
+  void testAssignUsersToTask_WithLoadedTask_ShouldKeepPersistenceContextConsistent() {
+    // Given - the task and its assignees are already in the persistence context
+    taskService.assignUsersToTask(testTask1.getTaskId(), Set.of(testUser1.getUserId()));
+    assertThat(taskService.getTaskById(testTask1.getTaskId()).getAssignees()).hasSize(1);
+
+    // When
+    Task task = taskService.assignUsersToTask(testTask1.getTaskId(), Set.of(testUser2.getUserId()));
+
+    // Then
+    assertThat(task.getAssignees()).extracting(AppUser::getUserId)
+        .containsExactlyInAnyOrder(testUser1.getUserId(), testUser2.getUserId());
+    taskService.clearAssignees(testTask1.getTaskId());
+    assertThat(taskService.getTaskById(testTask1.getTaskId()).getAssignees()).isEmpty();
+    assertThat(applicationEvents.stream(TaskAssignmentEvent.class)).hasSize(2);
+  }
+
+  @Test
+  void testClearAssignees_WithNonExistentTask_ShouldThrowException() {
+    assertThatThrownBy(() -> taskService.clearAssignees(999L))
+        .isInstanceOf(ResourceNotFoundException.class);
+  }
+
   @Test
   void testClearAssignees_ShouldRemoveAllAssigneesFromTask() {
     // Given - Assign users first
@@ -529,6 +570,178 @@ class TaskServiceIntegrationTest {
     assertThat(task.getAssignees()).isEmpty();
   }
 
+  @Test
+  void testUpdateAssignees_ShouldAddMissingPairsAndPublishOneEventEach() {
+    // Given - user 1 already on task 1
+    taskService.assignUsersToTask(testTask1.getTaskId(), Set.of(testUser1.getUserId()));
+    applicationEvents.clear();
+    Set<Long> taskIds = Set.of(testTask1.getTaskId(), testTask2.getTaskId(), 999L);
+
+    // When
+    BulkTaskLinksResponse response = taskService.updateAssignees(taskIds, Set.of(testUser1.getUserId(), testUser2.getUserId()), null);
+
+    // Then
+    assertThat(response).isEqualTo(new BulkTaskLinksResponse(3, 0));
+    assertThat(taskRepository.findById(testTask1.getTaskId()).orElseThrow().getAssignees())
+        .extracting(AppUser::getUserId).containsExactlyInAnyOrder(testUser1.getUserId(), testUser2.getUserId());
+    assertThat(taskRepository.findById(testTask2.getTaskId()).orElseThrow().getAssignees()).hasSize(2);
+    assertThat(applicationEvents.stream(TaskAssignmentEvent.class))
+        .extracting(TaskAssignmentEvent::getTaskId, TaskAssignmentEvent::getUserName)
+        .containsExactlyInAnyOrder(
+            tuple(testTask1.getTaskId(), "user2"),
+            tuple(testTask2.getTaskId(), "user1"),
+            tuple(testTask2.getTaskId(), "user2"));
+  }
+
+  @Test
+  void testUpdateAssignees_ShouldRemoveBeforeAdding() {
+    // Given
+    taskService.assignUsersToTask(testTask1.getTaskId(), Set.of(testUser1.getUserId(), testUser2.getUserId()));
+    taskService.assignUsersToTask(testTask2.getTaskId(), Set.of(testUser1.getUserId()));
+
+    // When - move both tasks from user 1 to user 2
+    BulkTaskLinksResponse response = taskService.updateAssignees(Set.of(testTask1.getTaskId(), testTask2.getTaskId()),
+        Set.of(testUser2.getUserId()), Set.of(testUser1.getUserId()));
+
+    // Then
+    assertThat(response).isEqualTo(new BulkTaskLinksResponse(1, 2));
+    assertThat(taskRepository.findById(testTask1.getTaskId()).orElseThrow().getAssignees())
+        .extracting(AppUser::getUserId).containsExactly(testUser2.getUserId());
+    assertThat(taskRepository.findById(testTask2.getTaskId()).orElseThrow().getAssignees())
+        .extracting(AppUser::getUserId).containsExactly(testUser2.getUserId());
+  }
+
+  @Test
+  void testUpdateTags_ShouldAddAndRemoveAcrossTasks() {
+    // Given
+    taskService.assignTags(Set.of(testTag1.getTagId()), testTask1.getTaskId());
+    Set<Long> taskIds = Set.of(testTask1.getTaskId(), testTask2.getTaskId());
+
+    // When
+    BulkTaskLinksResponse added = taskService.updateTags(taskIds, Set.of(testTag1.getTagId(), testTag2.getTagId()), Set.of());
+    BulkTaskLinksResponse removed = taskService.updateTags(taskIds, null, Set.of(testTag1.getTagId()));
+
+    // Then
+    assertThat(added).isEqualTo(new BulkTaskLinksResponse(3, 0));
+    assertThat(removed).isEqualTo(new BulkTaskLinksResponse(0, 2));
+    assertThat(taskRepository.findById(testTask2.getTaskId()).orElseThrow().getTags())
+        .extracting(Tag::getName).containsExactly("Backend");
+  }
+
+  @Test
+  void testGetNextTasks_ShouldRankOpenTasksAndHonourLimit() {
+    // Given: task 1 is blocked by an open subtask, and a finished task must never come up
+    testTask1.getAssignees().add(testUser1);
+    testTask2.getAssignees().add(testUser1);
+    Task subtask = new Task();
+    subtask.setTitle("Subtask of task 1");
+    subtask.setPriority(Priority.LOW);
+    subtask.setProject(testProject1);
+    subtask.setParentTask(testTask1);
+    subtask.getAssignees().add(testUser1);
+    subtask = taskRepository.save(subtask);
+    Task done = new Task();
+    done.setTitle("Done task");
+    done.setStatus(Status.DONE);
+    done.setPriority(Priority.URGENT);
+    done.setProject(testProject1);
+    done.getAssignees().add(testUser1);
+    taskRepository.save(done);
+
+    // When
+    List<Task> next = taskService.getNextTasks(testUser1.getUserId(), 2);
+    List<Task> all = taskService.getNextTasks(testUser1.getUserId(), 10);
+
+    // Then
+    assertThat(next).extracting(Task::getTaskId).containsExactly(testTask2.getTaskId(), subtask.getTaskId());
+    assertThat(all).extracting(Task::getTaskId)
+        .containsExactly(testTask2.getTaskId(), subtask.getTaskId(), testTask1.getTaskId());
+    assertThat(taskService.getNextTasks(testUser2.getUserId(), 5)).isEmpty();
+  }
+
+  @Test
+  void testGetInbox_ShouldFilterSortAndPageByCursor() {
+    // Given - besides tasks 1 (MEDIUM, +7 days) and 2 (HIGH, +3 days): a finished task due tomorrow and an
+    // undated LOW task in project 2
+    Task done = new Task();
+    done.setTitle("Done task");
+    done.setStatus(Status.DONE);
+    done.setPriority(Priority.URGENT);
+    done.setDueDate(LocalDate.now().plusDays(1));
+    done.setProject(testProject1);
+    done = taskRepository.save(done);
+    Task undated = new Task();
+    undated.setTitle("Undated task");
+    undated.setPriority(Priority.LOW);
+    undated.setProject(testProject2);
+    undated = taskRepository.save(undated);
+    taskService.updateAssignees(Set.of(testTask1.getTaskId(), testTask2.getTaskId(), done.getTaskId(), undated.getTaskId()),
+        Set.of(testUser1.getUserId()), null);
+    Long userId = testUser1.getUserId();
+    TaskInboxFilter byDueDate = new TaskInboxFilter(null, null, null, null, null, TaskInboxFilter.Sort.DUE_DATE);
+
+    // When
+    TaskInboxResponse first = taskService.getInbox(userId, byDueDate, null, 2);
+    TaskInboxResponse second = taskService.getInbox(userId, byDueDate, first.nextCursor(), 2);
+
+    // Then - soonest first, undated last, across two pages
+    assertThat(first.tasks()).extracting(TaskResponse::getTaskId).containsExactly(done.getTaskId(), testTask2.getTaskId());
+    assertThat(second.tasks()).extracting(TaskResponse::getTaskId).containsExactly(testTask1.getTaskId(), undated.getTaskId());
+    assertThat(second.nextCursor()).isNull();
+    assertThat(first.openTasks()).isEqualTo(3);
+    assertThat(first.tasks().getFirst().getAssignees()).extracting(UserResponse::getUsername).containsExactly("user1");
+
+    TaskInboxFilter openByPriority = new TaskInboxFilter(Set.of(Status.TODO, Status.IN_PROGRESS), null, null, null, null,
+        TaskInboxFilter.Sort.PRIORITY);
+    TaskInboxResponse byPriority = taskService.getInbox(userId, openByPriority, null, 1);
+    assertThat(byPriority.tasks()).extracting(TaskResponse::getTaskId).containsExactly(testTask2.getTaskId());
+    assertThat(taskService.getInbox(userId, openByPriority, byPriority.nextCursor(), 5).tasks())
+        .extracting(TaskResponse::getTaskId).containsExactly(testTask1.getTaskId(), undated.getTaskId());
+
+    assertThat(taskService.getInbox(userId, new TaskInboxFilter(null, Set.of(Priority.LOW, Priority.HIGH), null, null,
+        testProject2.getProjectId(), TaskInboxFilter.Sort.DUE_DATE), null, 10).tasks())
+        .extracting(TaskResponse::getTaskId).containsExactly(undated.getTaskId());
+    assertThat(taskService.getInbox(userId, new TaskInboxFilter(null, null, LocalDate.now().plusDays(2),
+        LocalDate.now().plusDays(7), null, TaskInboxFilter.Sort.DUE_DATE), null, 10).tasks())
+        .extracting(TaskResponse::getTaskId).containsExactly(testTask2.getTaskId(), testTask1.getTaskId());
+
+    TaskInboxResponse other = taskService.getInbox(testUser2.getUserId(), byDueDate, null, 10);
+    assertThat(other.tasks()).isEmpty();
+    assertThat(other.openTasks()).isZero();
+  }
+
+  @Test
+  void testGetInbox_WithCursorOfAnotherSort_ShouldThrowException() {
+    taskService.updateAssignees(Set.of(testTask1.getTaskId(), testTask2.getTaskId()), Set.of(testUser1.getUserId()), null);
+    String cursor = taskService.getInbox(testUser1.getUserId(),
+        new TaskInboxFilter(null, null, null, null, null, TaskInboxFilter.Sort.DUE_DATE), null, 1).nextCursor();
+
+    assertThatThrownBy(() -> taskService.getInbox(testUser1.getUserId(),
+        new TaskInboxFilter(null, null, null, null, null, TaskInboxFilter.Sort.PRIORITY), cursor, 1))
+        .isInstanceOf(BusinessException.class);
+    assertThatThrownBy(() -> taskService.getInbox(testUser1.getUserId(),
+        new TaskInboxFilter(null, null, null, null, null, TaskInboxFilter.Sort.DUE_DATE), "not-a-cursor", 1))
+        .isInstanceOf(BusinessException.class);
+  }
+
+  @Test
+  void testOpenTaskCount_ShouldFollowAssignmentAndStatusChanges() {
+    Long userId = testUser1.getUserId();
+
+    taskService.updateAssignees(Set.of(testTask1.getTaskId(), testTask2.getTaskId()), Set.of(userId), null);
+    assertThat(userTaskCountRepository.findOpenTasksByUserId(userId)).contains(2L);
+
+    taskService.updateTask(testTask1.getTaskId(), new TaskRequest(null, null, Status.DONE, null, null, null, null, null));
+    assertThat(userTaskCountRepository.findOpenTasksByUserId(userId)).contains(1L);
+
+    taskService.clearAssignees(testTask2.getTaskId());
+    assertThat(userTaskCountRepository.findOpenTasksByUserId(userId)).contains(0L);
+
+    taskService.assignUsersToTask(testTask2.getTaskId(), Set.of(userId));
+    taskService.deleteTask(testTask2.getTaskId());
+    assertThat(userTaskCountRepository.findOpenTasksByUserId(userId)).contains(0L);
+  }
+
   @Test
   void testSendReminders_ShouldProcessTasksInDateRange() {
     // Given